@@ -0,0 +1,109 @@
+package org.can.water_law_exam_backend.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.dto.response.monitor.CacheStatsVO;
+import org.can.water_law_exam_backend.entity.Admin;
+import org.can.water_law_exam_backend.mapper.AdminMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 管理员姓名缓存：adminId -> 姓名
+ * 列表页解析创建人时，未命中的ID合并为一次批量查询；不存在的管理员同样缓存（空字符串），
+ * 避免已删除的创建人反复查询。管理员新增、修改、删除后按ID失效。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdminNameCache {
+
+    /**
+     * 不存在的管理员占位
+     */
+    private static final String ABSENT = "";
+
+    private final AdminMapper adminMapper;
+
+    private final ConcurrentHashMap<Long, String> names = new ConcurrentHashMap<>();
+
+    /**
+     * 失效代次；加载期间发生失效时，加载结果不写入缓存
+     */
+    private final AtomicLong versionSeq = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * 批量获取管理员姓名，未命中的ID只查询一次数据库；不存在的管理员不出现在结果中
+     */
+    public Map<Long, String> names(Collection<Long> ids) {
+        Map<Long, String> result = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Long id : ids) {
+            if (id == null || result.containsKey(id) || missing.contains(id)) {
+                continue;
+            }
+            String name = names.get(id);
+            if (name == null) {
+                missing.add(id);
+                continue;
+            }
+            hits.incrementAndGet();
+            if (!ABSENT.equals(name)) {
+                result.put(id, name);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        misses.addAndGet(missing.size());
+        long version = versionSeq.get();
+        Map<Long, String> loaded = new HashMap<>();
+        for (Admin admin : adminMapper.selectByIds(missing)) {
+            loaded.put(admin.getId(), admin.getName() == null ? ABSENT : admin.getName());
+        }
+        for (Long id : missing) {
+            String name = loaded.getOrDefault(id, ABSENT);
+            names.put(id, name);
+            if (versionSeq.get() != version) {
+                // 加载期间管理员信息已变更，本次结果只返回给调用方
+                names.remove(id, name);
+            }
+            if (!ABSENT.equals(name)) {
+                result.put(id, name);
+            }
+        }
+        return result;
+    }
+
+    public void invalidate(Long id) {
+        versionSeq.incrementAndGet();
+        names.remove(id);
+        invalidations.incrementAndGet();
+    }
+
+    public void invalidate(Collection<Long> ids) {
+        versionSeq.incrementAndGet();
+        ids.forEach(names::remove);
+        invalidations.incrementAndGet();
+    }
+
+    public CacheStatsVO stats() {
+        CacheStatsVO vo = new CacheStatsVO();
+        vo.setName("adminName");
+        vo.setSize(names.size());
+        vo.setVersion(versionSeq.get());
+        vo.setHits(hits.get());
+        vo.setMisses(misses.get());
+        vo.setInvalidations(invalidations.get());
+        long total = hits.get() + misses.get();
+        vo.setHitRate(total == 0 ? 0 : (double) hits.get() / total);
+        return vo;
+    }
+}
@@ -0,0 +1,158 @@
+package org.can.water_law_exam_backend.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.entity.Examinee;
+import org.can.water_law_exam_backend.mapper.ExamineeMapper;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 考试批次报名索引：batchId -> (userId -> 报名状态)
+ * 索引在首次访问或批次预热时由轻量查询构建一次，之后随报名、导入、添加、审核、移除、
+ * 分配试卷、开始考试、交卷增量更新，资格校验只需一次哈希查找。
+ * 增量更新在索引加载期间会等待加载完成后再应用，避免被加载结果覆盖。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExamRosterCache {
+
+    private final ExamineeMapper examineeMapper;
+
+    private final ConcurrentHashMap<Long, Map<Long, Registration>> rosters = new ConcurrentHashMap<>();
+
+    /**
+     * 查询考生在批次中的报名状态，未报名返回 null
+     */
+    public Registration find(Long batchId, Long userId) {
+        return load(batchId).get(userId);
+    }
+
+    /**
+     * 预加载批次报名索引
+     *
+     * @return 报名人数
+     */
+    public int preload(Long batchId) {
+        return load(batchId).size();
+    }
+
+    /**
+     * 写入单个考生的报名状态（仅在索引已加载时生效）
+     */
+    public void put(Examinee examinee) {
+        rosters.computeIfPresent(examinee.getBatchId(), (id, roster) -> {
+            roster.put(examinee.getUserId(), Registration.of(examinee));
+            return roster;
+        });
+    }
+
+    /**
+     * 批量写入报名状态（导入、添加考生）
+     */
+    public void putAll(Long batchId, Collection<Examinee> examinees) {
+        rosters.computeIfPresent(batchId, (id, roster) -> {
+            for (Examinee e : examinees) {
+                roster.put(e.getUserId(), Registration.of(e));
+            }
+            return roster;
+        });
+    }
+
+    /**
+     * 更新审核状态
+     */
+    public void updateReviewStatus(Long batchId, Collection<Long> userIds, Integer reviewStatus) {
+        rosters.computeIfPresent(batchId, (id, roster) -> {
+            for (Long userId : userIds) {
+                roster.computeIfPresent(userId, (k, r) -> r.withReviewStatus(reviewStatus));
+            }
+            return roster;
+        });
+    }
+
+    /**
+     * 更新试卷序号（分发试卷时批量分配）
+     */
+    public void updatePapersNo(Long batchId, Collection<Examinee> examinees) {
+        rosters.computeIfPresent(batchId, (id, roster) -> {
+            for (Examinee e : examinees) {
+                roster.computeIfPresent(e.getUserId(), (k, r) -> r.withPapersNo(e.getPapersNo()));
+            }
+            return roster;
+        });
+    }
+
+    /**
+     * 移除考生
+     */
+    public void remove(Long batchId, Collection<Long> userIds) {
+        rosters.computeIfPresent(batchId, (id, roster) -> {
+            userIds.forEach(roster::remove);
+            return roster;
+        });
+    }
+
+    /**
+     * 丢弃整个批次的索引（批次删除）
+     */
+    public void invalidate(Long batchId) {
+        rosters.remove(batchId);
+    }
+
+    private Map<Long, Registration> load(Long batchId) {
+        return rosters.computeIfAbsent(batchId, id -> {
+            List<Examinee> list = examineeMapper.selectRegistrationsByBatch(id);
+            Map<Long, Registration> roster = new ConcurrentHashMap<>(Math.max(16, list.size() * 2));
+            for (Examinee e : list) {
+                roster.put(e.getUserId(), Registration.of(e));
+            }
+            log.debug("加载批次报名索引：batchId={}, 人数={}", id, roster.size());
+            return roster;
+        });
+    }
+
+    /**
+     * 报名状态
+     */
+    public record Registration(Integer reviewStatus,
+                               Integer papersNo,
+                               boolean examStarted,
+                               LocalDateTime examStartTime,
+                               boolean submitted) {
+
+        static Registration of(Examinee e) {
+            return new Registration(e.getReviewStatus(), e.getPapersNo(), Boolean.TRUE.equals(e.getExamStarted()),
+                    e.getExamStartTime(), Boolean.TRUE.equals(e.getSubmitted()));
+        }
+
+        Registration withReviewStatus(Integer status) {
+            return new Registration(status, papersNo, examStarted, examStartTime, submitted);
+        }
+
+        Registration withPapersNo(Integer no) {
+            return new Registration(reviewStatus, no, examStarted, examStartTime, submitted);
+        }
+
+        /**
+         * 转换为报名记录（创建考试会话使用）
+         */
+        public Examinee toExaminee(Long batchId, Long userId) {
+            Examinee ex = new Examinee();
+            ex.setBatchId(batchId);
+            ex.setUserId(userId);
+            ex.setReviewStatus(reviewStatus);
+            ex.setPapersNo(papersNo);
+            ex.setExamStarted(examStarted);
+            ex.setExamStartTime(examStartTime);
+            ex.setSubmitted(submitted);
+            return ex;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.can.water_law_exam_backend.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.dto.response.monitor.CacheStatsVO;
+import org.can.water_law_exam_backend.entity.ExamBatch;
+import org.can.water_law_exam_backend.entity.Examinee;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 考生考试会话缓存：userId -> 正在进行的考试会话
+ * 会话在开始考试时创建，交卷或超过允许提交时间后移除。
+ * 批次修改、收回、删除以及考生审核、移除时按批次失效。
+ */
+@Slf4j
+@Component
+public class ExamSessionCache {
+
+    /**
+     * 考试结束后仍允许交卷的分钟数，会话保留到该时间之后
+     */
+    public static final int SUBMIT_DELAY_MINUTES = 30;
+
+    private final ConcurrentHashMap<Long, ExamSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * 批次最近一次失效时的代次；读取数据库前取得的代次早于该值时，读到的数据不会写入缓存
+     */
+    private final ConcurrentHashMap<Long, Long> batchGenerations = new ConcurrentHashMap<>();
+    private final AtomicLong generationSeq = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * 获取考生当前的考试会话，不存在或已过期返回 null
+     */
+    public ExamSession get(Long userId) {
+        ExamSession session = sessions.get(userId);
+        if (session == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (session.isExpired(LocalDateTime.now())) {
+            sessions.remove(userId, session);
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return session;
+    }
+
+    /**
+     * 获取考生在指定批次的考试会话
+     */
+    public ExamSession get(Long userId, Long batchId) {
+        ExamSession session = get(userId);
+        return session != null && session.batchId().equals(batchId) ? session : null;
+    }
+
+    /**
+     * 读取数据库前获取当前代次，写入会话时传回用于判断期间是否发生失效
+     */
+    public long generation() {
+        return generationSeq.get();
+    }
+
+    /**
+     * 写入考试会话；读取数据后批次已失效、考生已交卷或尚未分配试卷时不写入
+     */
+    public void put(Examinee examinee, ExamBatch batch, long generation) {
+        if (Boolean.TRUE.equals(examinee.getSubmitted()) || examinee.getPapersNo() == null
+                || batchGenerations.getOrDefault(batch.getId(), 0L) > generation) {
+            return;
+        }
+        sessions.put(examinee.getUserId(), new ExamSession(
+                examinee.getUserId(),
+                batch.getId(),
+                batch.getPapersId(),
+                examinee.getPapersNo(),
+                examinee.getReviewStatus(),
+                batch.getPrepareMinutes(),
+                batch.getStartTime(),
+                batch.getEndTime(),
+                examinee.getExamStartTime()));
+    }
+
+    /**
+     * 交卷后移除会话
+     */
+    public void remove(Long userId, Long batchId) {
+        sessions.computeIfPresent(userId, (k, s) -> s.batchId().equals(batchId) ? null : s);
+    }
+
+    /**
+     * 按批次失效所有考生会话
+     */
+    public void invalidateBatch(Long batchId) {
+        batchGenerations.put(batchId, generationSeq.incrementAndGet());
+        sessions.values().removeIf(s -> s.batchId().equals(batchId));
+        invalidations.incrementAndGet();
+        log.debug("考试会话缓存失效：batchId={}", batchId);
+    }
+
+    /**
+     * 定时清理超过允许提交时间的会话
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        sessions.values().removeIf(s -> s.isExpired(now));
+    }
+
+    public CacheStatsVO stats() {
+        CacheStatsVO vo = new CacheStatsVO();
+        vo.setName("examSession");
+        vo.setSize(sessions.size());
+        vo.setVersion(generationSeq.get());
+        vo.setHits(hits.get());
+        vo.setMisses(misses.get());
+        vo.setInvalidations(invalidations.get());
+        long total = hits.get() + misses.get();
+        vo.setHitRate(total == 0 ? 0 : (double) hits.get() / total);
+        return vo;
+    }
+
+    /**
+     * 考试会话：考生已开始、尚未交卷的考试
+     */
+    public record ExamSession(Long userId,
+                              Long batchId,
+                              Long groupId,
+                              Integer papersNo,
+                              Integer reviewStatus,
+                              Integer prepareMinutes,
+                              LocalDateTime startTime,
+                              LocalDateTime endTime,
+                              LocalDateTime examStartTime) {
+
+        /**
+         * 转换为报名记录（交卷时写回）
+         */
+        public Examinee toExaminee() {
+            Examinee ex = new Examinee();
+            ex.setBatchId(batchId);
+            ex.setUserId(userId);
+            ex.setPapersNo(papersNo);
+            ex.setReviewStatus(reviewStatus);
+            ex.setExamStarted(true);
+            ex.setExamStartTime(examStartTime);
+            ex.setSubmitted(false);
+            return ex;
+        }
+
+        private boolean isExpired(LocalDateTime now) {
+            return endTime == null || now.isAfter(endTime.plusMinutes(SUBMIT_DELAY_MINUTES));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.can.water_law_exam_backend.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.dto.response.monitor.CacheStatsVO;
+import org.can.water_law_exam_backend.mapper.ItemBankMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 题目ID池：typeId -> 该题型全部题目ID（long[]）
+ * 首次使用时每个题型查询一次，题目新增、修改、删除、导入后失效并在下次使用时重新加载。
+ * 抽题为稀疏的部分 Fisher–Yates 洗牌：只记录被交换的位置，O(need) 时间、无偏、无重复，且不复制数组。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemIdPool {
+
+    private final ItemBankMapper itemBankMapper;
+
+    private final ConcurrentHashMap<Integer, long[]> pools = new ConcurrentHashMap<>();
+
+    /**
+     * 失效代次；加载期间发生失效时，加载结果不写入缓存
+     */
+    private final AtomicLong versionSeq = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * 获取题型的题目ID快照，返回数组为共享只读实例，调用方不得修改
+     */
+    public long[] ids(Integer typeId) {
+        long[] pool = pools.get(typeId);
+        if (pool != null) {
+            hits.incrementAndGet();
+            return pool;
+        }
+        misses.incrementAndGet();
+        long version = versionSeq.get();
+        List<Long> list = itemBankMapper.selectIdsByType(typeId);
+        pool = new long[list.size()];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = list.get(i);
+        }
+        pools.putIfAbsent(typeId, pool);
+        if (versionSeq.get() != version) {
+            // 加载期间题库已变更，本次结果只返回给调用方
+            pools.remove(typeId, pool);
+        }
+        return pool;
+    }
+
+    /**
+     * 稀疏部分 Fisher–Yates：从 pool 中无放回地均匀抽取 need 个元素，不修改 pool
+     */
+    public static long[] sample(long[] pool, int need, Random random) {
+        int n = pool.length;
+        long[] picked = new long[need];
+        // 位置 -> 交换后的值，未出现的位置保持原值
+        Map<Integer, Long> swapped = new HashMap<>(need * 2);
+        for (int i = 0; i < need; i++) {
+            int j = i + random.nextInt(n - i);
+            long vj = swapped.getOrDefault(j, pool[j]);
+            long vi = swapped.getOrDefault(i, pool[i]);
+            swapped.put(j, vi);
+            picked[i] = vj;
+        }
+        return picked;
+    }
+
+    public void invalidate(Integer typeId) {
+        versionSeq.incrementAndGet();
+        pools.remove(typeId);
+        invalidations.incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        versionSeq.incrementAndGet();
+        pools.clear();
+        invalidations.incrementAndGet();
+        log.debug("题目ID池全部失效");
+    }
+
+    public CacheStatsVO stats() {
+        CacheStatsVO vo = new CacheStatsVO();
+        vo.setName("itemIdPool");
+        vo.setSize(pools.values().stream().mapToInt(p -> p.length).sum());
+        vo.setVersion(versionSeq.get());
+        vo.setHits(hits.get());
+        vo.setMisses(misses.get());
+        vo.setInvalidations(invalidations.get());
+        long total = hits.get() + misses.get();
+        vo.setHitRate(total == 0 ? 0 : (double) hits.get() / total);
+        return vo;
+    }
+}
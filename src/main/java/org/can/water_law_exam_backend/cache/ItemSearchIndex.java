@@ -0,0 +1,841 @@
+package org.can.water_law_exam_backend.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.config.AsyncConfig;
+import org.can.water_law_exam_backend.dto.response.monitor.CacheStatsVO;
+import org.can.water_law_exam_backend.entity.ItemBank;
+import org.can.water_law_exam_backend.entity.ItemOption;
+import org.can.water_law_exam_backend.mapper.ItemBankMapper;
+import org.can.water_law_exam_backend.mapper.ItemOptionMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 题库检索索引：题干与选项标题的字、二元组倒排索引，以及查重用的 SimHash 指纹
+ * 文本转小写后按字母/数字/汉字切分为连续片段，每个片段取单字与相邻二元组作为词项，
+ * 倒排表为按文档序号递增的 int 数组。查询取关键字全部词项的倒排表求交，再按
+ * 题干包含关键字 > 选项包含关键字 > 仅词项全部命中 分档，同档按创建时间倒序。
+ * 同一组词项计算 64 位 SimHash 用于查重：指纹分为 {@link #BANDS} 段、每段 16 位分别建桶，汉明距离不超过
+ * {@link #MAX_DISTANCE} 的两个指纹至少有一段相差不超过 {@link #BAND_RADIUS} 位，查重时逐段探查该半径内的桶，
+ * 只需比较桶中题目（每段 65536 个桶，桶内题目很少）；距离达标的同题型题目再核对
+ * 词项集合的 Jaccard 相似度，不低于 {@link #MIN_SIMILARITY} 才视为近似重复（短题干单字改动会使指纹漂移较多，
+ * 指纹阈值放宽召回，由精确相似度保证准确）。
+ * 启动后在后台整表构建；题目增删改与导入在事务提交后增量维护；索引未就绪时由调用方回退到数据库查询，查重跳过。
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex {
+
+    /**
+     * 候选的最大汉明距离
+     */
+    private static final int MAX_DISTANCE = 10;
+
+    /**
+     * 指纹分段数，每段 16 位
+     */
+    private static final int BANDS = 4;
+
+    /**
+     * 段内探查半径：两个指纹相差不超过 MAX_DISTANCE 位时，至少有一段相差不超过该位数
+     */
+    private static final int BAND_RADIUS = MAX_DISTANCE / BANDS;
+
+    /**
+     * 段内探查的异或掩码：16 位中不超过 BAND_RADIUS 位为 1 的全部取值
+     */
+    private static final int[] PROBES = probes();
+
+    /**
+     * 近似重复的最小词项 Jaccard 相似度
+     */
+    private static final double MIN_SIMILARITY = 0.8;
+
+    private final ItemBankMapper itemBankMapper;
+    private final ItemOptionMapper itemOptionMapper;
+    private final ThreadPoolTaskExecutor warmUpExecutor;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * 当前索引，未就绪时为空；读写受 lock 保护
+     */
+    private Segment segment;
+    /**
+     * 整表构建期间发生变更的题目，构建完成后按库中最新数据重放；不在构建时为空
+     */
+    private Set<Long> touched;
+
+    private final AtomicBoolean building = new AtomicBoolean();
+
+    private final AtomicLong versionSeq = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ItemSearchIndex(ItemBankMapper itemBankMapper,
+                           ItemOptionMapper itemOptionMapper,
+                           @Qualifier("warmUpExecutor") ThreadPoolTaskExecutor warmUpExecutor) {
+        this.itemBankMapper = itemBankMapper;
+        this.itemOptionMapper = itemOptionMapper;
+        this.warmUpExecutor = warmUpExecutor;
+    }
+
+    /**
+     * 启动后在后台构建，失败只记录日志
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        rebuildAsync();
+    }
+
+    /**
+     * 检索题目
+     *
+     * @param key        关键字
+     * @param categoryId 分类ID（可选）
+     * @param typeId     题型ID（可选）
+     * @return 按相关度排序的题目ID；索引未就绪或关键字没有可检索的字符时返回 null
+     */
+    public List<Long> search(String key, Integer categoryId, Integer typeId) {
+        int[] tokens = tokenize(key);
+        if (tokens.length == 0) {
+            return null;
+        }
+        String needle = key.trim().toLowerCase(Locale.ROOT);
+        List<Doc> matched = new ArrayList<>();
+        List<Integer> tiers = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (segment == null) {
+                misses.incrementAndGet();
+                rebuildAsync();
+                return null;
+            }
+            hits.incrementAndGet();
+            Postings[] lists = new Postings[tokens.length];
+            for (int i = 0; i < tokens.length; i++) {
+                lists[i] = segment.postings.get(tokens[i]);
+                if (lists[i] == null) {
+                    return new ArrayList<>();
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(p -> p.size));
+            int[] candidates = Arrays.copyOf(lists[0].data, lists[0].size);
+            int n = candidates.length;
+            for (int i = 1; i < lists.length && n > 0; i++) {
+                n = lists[i].retain(candidates, n);
+            }
+            for (int i = 0; i < n; i++) {
+                Doc doc = segment.docs.get(candidates[i]);
+                if (doc == null
+                        || categoryId != null && !categoryId.equals(doc.categoryId())
+                        || typeId != null && !typeId.equals(doc.typeId())) {
+                    continue;
+                }
+                matched.add(doc);
+                tiers.add(doc.content().contains(needle) ? 0 : doc.options().contains(needle) ? 1 : 2);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Integer[] order = new Integer[matched.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingInt(tiers::get)
+                .thenComparing(i -> matched.get(i).createTime(), Comparator.reverseOrder())
+                .thenComparing(i -> matched.get(i).id(), Comparator.reverseOrder()));
+        List<Long> ids = new ArrayList<>(order.length);
+        for (Integer i : order) {
+            ids.add(matched.get(i).id());
+        }
+        return ids;
+    }
+
+    /**
+     * 计算题目指纹（题干与选项标题），没有可索引字符时返回 null
+     */
+    public static Fingerprint fingerprint(ItemBank item, List<ItemOption> options) {
+        Doc doc = toDoc(item, options);
+        return doc.indexed() ? new Fingerprint(doc.simHash(), doc.tokens()) : null;
+    }
+
+    /**
+     * 查找与指纹近似重复的已有题目
+     *
+     * @param typeId    题型ID，只与同题型题目比较
+     * @param excludeId 排除的题目ID（修改时为自身），可为空
+     * @return 最早的重复题目ID；没有重复或索引未就绪时返回 null（未就绪时提交构建任务，可用 {@link #isReady()} 区分）
+     */
+    public Long findDuplicate(Integer typeId, Fingerprint fingerprint, Long excludeId) {
+        lock.readLock().lock();
+        try {
+            if (segment == null) {
+                rebuildAsync();
+                return null;
+            }
+            Long found = null;
+            Set<Integer> checked = new HashSet<>();
+            for (int band = 0; band < BANDS; band++) {
+                int key = bandKey(band, fingerprint.simHash());
+                for (int probe : PROBES) {
+                    Postings bucket = segment.bands.get(key ^ probe);
+                    if (bucket == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < bucket.size; i++) {
+                        Doc doc = segment.docs.get(bucket.data[i]);
+                        if (doc.id().equals(excludeId) || !Objects.equals(doc.typeId(), typeId)
+                                || found != null && doc.id() > found
+                                || Long.bitCount(doc.simHash() ^ fingerprint.simHash()) > MAX_DISTANCE
+                                || !checked.add(bucket.data[i])) {
+                            continue;
+                        }
+                        if (jaccard(doc.tokens(), fingerprint.tokens()) >= MIN_SIMILARITY) {
+                            found = doc.id();
+                        }
+                    }
+                }
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 全库近似重复分组：同题型且相似度达标的题目并查集合并
+     * 读锁内只复制存活题目列表，分组在锁外按题型分别建桶计算，不阻塞索引写入
+     *
+     * @return 每组题目ID（升序），组按最小ID升序；索引未就绪时返回 null
+     */
+    public List<List<Long>> duplicateClusters() {
+        Map<Integer, List<Doc>> byType = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            if (segment == null) {
+                rebuildAsync();
+                return null;
+            }
+            for (Doc doc : segment.docs) {
+                if (doc != null && doc.indexed()) {
+                    byType.computeIfAbsent(doc.typeId(), k -> new ArrayList<>()).add(doc);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Map<Long, Long> parent = new HashMap<>();
+        for (List<Doc> docs : byType.values()) {
+            mergeDuplicates(docs, parent);
+        }
+        Map<Long, List<Long>> groups = new TreeMap<>();
+        for (Long id : parent.keySet()) {
+            groups.computeIfAbsent(find(parent, id), k -> new ArrayList<>()).add(id);
+        }
+        List<List<Long>> clusters = new ArrayList<>(groups.size());
+        for (List<Long> ids : groups.values()) {
+            Collections.sort(ids);
+            clusters.add(ids);
+        }
+        return clusters;
+    }
+
+    /**
+     * 同题型题目两两查重：每段按 16 位段值分桶（数组存储，桶内为升序下标），
+     * 每个题目探查各段半径内的桶，只与下标更大的候选比较一次
+     */
+    private static void mergeDuplicates(List<Doc> docs, Map<Long, Long> parent) {
+        int n = docs.size();
+        long[] hashes = new long[n];
+        for (int i = 0; i < n; i++) {
+            hashes[i] = docs.get(i).simHash();
+        }
+        // starts[band][v]..starts[band][v+1] 为段值 v 的桶在 members[band] 中的范围
+        int[][] starts = new int[BANDS][];
+        int[][] members = new int[BANDS][];
+        for (int band = 0; band < BANDS; band++) {
+            int[] start = new int[(1 << 16) + 1];
+            for (long hash : hashes) {
+                start[bandValue(band, hash) + 1]++;
+            }
+            for (int v = 0; v < 1 << 16; v++) {
+                start[v + 1] += start[v];
+            }
+            int[] next = Arrays.copyOf(start, 1 << 16);
+            int[] member = new int[n];
+            for (int i = 0; i < n; i++) {
+                member[next[bandValue(band, hashes[i])]++] = i;
+            }
+            starts[band] = start;
+            members[band] = member;
+        }
+        int[] seenBy = new int[n];
+        Arrays.fill(seenBy, -1);
+        for (int i = 0; i < n; i++) {
+            for (int band = 0; band < BANDS; band++) {
+                int value = bandValue(band, hashes[i]);
+                int[] start = starts[band];
+                int[] member = members[band];
+                for (int probe : PROBES) {
+                    int bucket = value ^ probe;
+                    for (int m = start[bucket]; m < start[bucket + 1]; m++) {
+                        int j = member[m];
+                        if (j <= i || seenBy[j] == i) {
+                            continue;
+                        }
+                        seenBy[j] = i;
+                        if (Long.bitCount(hashes[i] ^ hashes[j]) <= MAX_DISTANCE
+                                && jaccard(docs.get(i).tokens(), docs.get(j).tokens()) >= MIN_SIMILARITY) {
+                            union(parent, docs.get(i).id(), docs.get(j).id());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 并查集合并，以较小ID为根
+     */
+    private static void union(Map<Long, Long> parent, Long a, Long b) {
+        Long ra = find(parent, a);
+        Long rb = find(parent, b);
+        if (!ra.equals(rb)) {
+            parent.put(Math.max(ra, rb), Math.min(ra, rb));
+        }
+    }
+
+    private static Long find(Map<Long, Long> parent, Long id) {
+        Long root = id;
+        Long p;
+        while ((p = parent.putIfAbsent(root, root)) != null && !p.equals(root)) {
+            root = p;
+        }
+        // 路径压缩
+        Long cur = id;
+        while (!cur.equals(root)) {
+            Long next = parent.put(cur, root);
+            cur = next;
+        }
+        return root;
+    }
+
+    /**
+     * 新增或修改题目后写入索引（在事务提交后调用）
+     *
+     * @param options 题目的全部选项
+     */
+    public void put(ItemBank item, List<ItemOption> options) {
+        Doc doc = toDoc(item, options);
+        synchronized (this) {
+            lock.writeLock().lock();
+            try {
+                if (segment != null) {
+                    segment.put(doc);
+                }
+                if (touched != null) {
+                    touched.add(doc.id());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * 批量写入（导入），选项取自 {@link ItemBank#getOptions()}
+     */
+    public void putAll(List<ItemBank> items) {
+        List<Doc> docs = new ArrayList<>(items.size());
+        for (ItemBank item : items) {
+            docs.add(toDoc(item, item.getOptions()));
+        }
+        synchronized (this) {
+            lock.writeLock().lock();
+            try {
+                for (Doc doc : docs) {
+                    if (segment != null) {
+                        segment.put(doc);
+                    }
+                    if (touched != null) {
+                        touched.add(doc.id());
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * 删除题目后移出索引（在事务提交后调用）
+     */
+    public void remove(Collection<Long> ids) {
+        synchronized (this) {
+            lock.writeLock().lock();
+            try {
+                for (Long id : ids) {
+                    if (segment != null) {
+                        segment.remove(id);
+                    }
+                    if (touched != null) {
+                        touched.add(id);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * 索引是否已构建完成；构建完成后始终可用
+     */
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return segment != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public CacheStatsVO stats() {
+        CacheStatsVO vo = new CacheStatsVO();
+        vo.setName("itemSearch");
+        lock.readLock().lock();
+        try {
+            vo.setSize(segment == null ? 0 : segment.live);
+        } finally {
+            lock.readLock().unlock();
+        }
+        vo.setVersion(versionSeq.get());
+        vo.setHits(hits.get());
+        vo.setMisses(misses.get());
+        vo.setInvalidations(invalidations.get());
+        long total = hits.get() + misses.get();
+        vo.setHitRate(total == 0 ? 0 : (double) hits.get() / total);
+        return vo;
+    }
+
+    private void rebuildAsync() {
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            warmUpExecutor.execute(new RebuildTask());
+        } catch (RuntimeException e) {
+            building.set(false);
+            log.warn("题库检索索引构建任务提交失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 整表构建任务；在预热队列中被丢弃时清除构建标记，下次检索会重新提交
+     */
+    private final class RebuildTask implements AsyncConfig.DiscardableTask {
+
+        @Override
+        public void run() {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.warn("题库检索索引构建失败，检索暂时使用数据库查询：{}", e.getMessage());
+            } finally {
+                building.set(false);
+            }
+        }
+
+        @Override
+        public void onDiscard() {
+            building.set(false);
+            log.warn("题库检索索引构建任务被丢弃");
+        }
+    }
+
+    /**
+     * 整表构建并替换；构建期间的增量变更记录下来，替换后按库中最新数据重放
+     */
+    private void rebuild() {
+        long begin = System.currentTimeMillis();
+        synchronized (this) {
+            lock.writeLock().lock();
+            try {
+                touched = new HashSet<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        Set<Long> replay;
+        try {
+            List<ItemBank> items = itemBankMapper.selectAllForIndex();
+            Map<Long, List<ItemOption>> options = groupByItem(itemOptionMapper.selectAllTitles());
+            Segment fresh = new Segment();
+            for (ItemBank item : items) {
+                fresh.put(toDoc(item, options.get(item.getId())));
+            }
+            synchronized (this) {
+                lock.writeLock().lock();
+                try {
+                    segment = fresh;
+                    replay = touched;
+                    touched = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            versionSeq.incrementAndGet();
+            log.info("题库检索索引构建完成：题目{}，词项{}，耗时{}ms", fresh.live, fresh.postings.size(),
+                    System.currentTimeMillis() - begin);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                lock.writeLock().lock();
+                try {
+                    touched = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            throw e;
+        }
+        if (!replay.isEmpty()) {
+            reload(replay);
+        }
+    }
+
+    /**
+     * 按库中最新数据重新索引指定题目，不存在的题目移出索引
+     */
+    private void reload(Collection<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += 1000) {
+            List<Long> slice = all.subList(from, Math.min(from + 1000, all.size()));
+            synchronized (this) {
+                List<ItemBank> items = itemBankMapper.selectByIds(slice);
+                Map<Long, List<ItemOption>> options = groupByItem(itemOptionMapper.selectByItemIds(slice));
+                lock.writeLock().lock();
+                try {
+                    if (segment == null) {
+                        return;
+                    }
+                    for (Long id : slice) {
+                        segment.remove(id);
+                    }
+                    for (ItemBank item : items) {
+                        segment.put(toDoc(item, options.get(item.getId())));
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    private static Map<Long, List<ItemOption>> groupByItem(List<ItemOption> options) {
+        Map<Long, List<ItemOption>> map = new HashMap<>();
+        for (ItemOption o : options) {
+            map.computeIfAbsent(o.getItemId(), k -> new ArrayList<>()).add(o);
+        }
+        return map;
+    }
+
+    private static Doc toDoc(ItemBank item, List<ItemOption> options) {
+        StringBuilder sb = new StringBuilder();
+        if (options != null) {
+            for (ItemOption o : options) {
+                if (o.getOptionTitle() != null) {
+                    sb.append(o.getOptionTitle()).append('\n');
+                }
+            }
+        }
+        LocalDateTime createTime = item.getCreateTime() != null ? item.getCreateTime() : LocalDateTime.now();
+        String content = item.getContent() == null ? "" : item.getContent().toLowerCase(Locale.ROOT);
+        String optionText = sb.toString().toLowerCase(Locale.ROOT);
+        int[] tokens = tokenize(content + '\n' + optionText);
+        return new Doc(item.getId(), item.getTypeId(), item.getCategoryId(),
+                createTime.toEpochSecond(ZoneOffset.UTC), content, optionText, tokens, simHash(tokens));
+    }
+
+    /**
+     * 两个升序去重词项数组的 Jaccard 相似度
+     */
+    private static double jaccard(int[] a, int[] b) {
+        int i = 0;
+        int j = 0;
+        int common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = a.length + b.length - common;
+        return union == 0 ? 0 : (double) common / union;
+    }
+
+    /**
+     * 64 位 SimHash：各词项哈希的每一位按 0/1 计 -1/+1 累加，和为正的位取 1
+     */
+    private static long simHash(int[] tokens) {
+        int[] weights = new int[64];
+        for (int token : tokens) {
+            long h = mix(token);
+            for (int bit = 0; bit < 64; bit++) {
+                weights[bit] += (h >>> bit & 1L) != 0 ? 1 : -1;
+            }
+        }
+        long fingerprint = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * SplitMix64 混合函数，把词项值打散为 64 位哈希
+     */
+    private static long mix(long z) {
+        z = (z ^ z >>> 30) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ z >>> 27) * 0x94d049bb133111ebL;
+        return z ^ z >>> 31;
+    }
+
+    /**
+     * 指纹第 band 段的桶键；低 16 位为段值，与探查掩码异或即得相邻桶
+     */
+    private static int bandKey(int band, long simHash) {
+        return band << 16 | bandValue(band, simHash);
+    }
+
+    /**
+     * 指纹第 band 段（第 band*16 位起的 16 位）的段值
+     */
+    private static int bandValue(int band, long simHash) {
+        return (int) (simHash >>> band * 16) & 0xFFFF;
+    }
+
+    private static int[] probes() {
+        int[] masks = new int[1 << 16];
+        int n = 0;
+        for (int mask = 0; mask < 1 << 16; mask++) {
+            if (Integer.bitCount(mask) <= BAND_RADIUS) {
+                masks[n++] = mask;
+            }
+        }
+        return Arrays.copyOf(masks, n);
+    }
+
+    /**
+     * 切分词项：连续字母/数字/汉字片段内的单字与相邻二元组，升序去重
+     * 单字词项取字符值（< 65536），二元组取 (前字 << 16 | 后字)，两者不会冲突
+     */
+    static int[] tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return new int[0];
+        }
+        int[] tokens = new int[text.length() * 2];
+        int n = 0;
+        char prev = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (!Character.isLetterOrDigit(c)) {
+                prev = 0;
+                continue;
+            }
+            tokens[n++] = c;
+            if (prev != 0) {
+                tokens[n++] = prev << 16 | c;
+            }
+            prev = c;
+        }
+        Arrays.sort(tokens, 0, n);
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || tokens[unique - 1] != tokens[i]) {
+                tokens[unique++] = tokens[i];
+            }
+        }
+        return Arrays.copyOf(tokens, unique);
+    }
+
+    /**
+     * 题目指纹：SimHash 与升序去重词项
+     */
+    public record Fingerprint(long simHash, int[] tokens) {
+
+        /**
+         * 是否与另一指纹近似重复
+         */
+        public boolean similarTo(Fingerprint other) {
+            return Long.bitCount(simHash ^ other.simHash) <= MAX_DISTANCE
+                    && jaccard(tokens, other.tokens) >= MIN_SIMILARITY;
+        }
+    }
+
+    /**
+     * 已索引的题目；content、options 为小写文本，options 为各选项标题以换行连接，tokens 为两者的词项
+     */
+    private record Doc(Long id, Integer typeId, Integer categoryId, long createTime, String content, String options,
+                       int[] tokens, long simHash) {
+
+        /**
+         * 没有可索引字符的题目不参与查重
+         */
+        private boolean indexed() {
+            return tokens.length > 0;
+        }
+    }
+
+    /**
+     * 索引数据：文档序号只增不复用，题目修改时旧序号置空、以新序号重新写入，倒排表因此始终有序。
+     * 空置序号多于存活题目（且超过 {@link #COMPACT_MIN_VACANT}）时按原顺序重排序号并重建倒排表，
+     * 重排保持相对顺序，摊还到每次写入为常数开销。
+     */
+    private static final class Segment {
+
+        private static final int COMPACT_MIN_VACANT = 1024;
+
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final ArrayList<Doc> docs = new ArrayList<>();
+        private final Map<Integer, Postings> postings = new HashMap<>();
+        /**
+         * 指纹分段桶：桶键见 {@link #bandKey}
+         */
+        private final Map<Integer, Postings> bands = new HashMap<>();
+        private int live;
+
+        private void put(Doc doc) {
+            remove(doc.id());
+            add(doc);
+        }
+
+        private void add(Doc doc) {
+            int ordinal = docs.size();
+            docs.add(doc);
+            ordinals.put(doc.id(), ordinal);
+            for (int token : doc.tokens()) {
+                postings.computeIfAbsent(token, k -> new Postings()).add(ordinal);
+            }
+            if (doc.indexed()) {
+                for (int band = 0; band < BANDS; band++) {
+                    bands.computeIfAbsent(bandKey(band, doc.simHash()), k -> new Postings()).add(ordinal);
+                }
+            }
+            live++;
+        }
+
+        private void remove(Long id) {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal == null) {
+                return;
+            }
+            Doc doc = docs.set(ordinal, null);
+            for (int token : doc.tokens()) {
+                Postings p = postings.get(token);
+                if (p != null && p.remove(ordinal) && p.size == 0) {
+                    postings.remove(token);
+                }
+            }
+            if (doc.indexed()) {
+                for (int band = 0; band < BANDS; band++) {
+                    int key = bandKey(band, doc.simHash());
+                    Postings p = bands.get(key);
+                    if (p != null && p.remove(ordinal) && p.size == 0) {
+                        bands.remove(key);
+                    }
+                }
+            }
+            live--;
+            int vacant = docs.size() - live;
+            if (vacant > COMPACT_MIN_VACANT && vacant > live) {
+                compact();
+            }
+        }
+
+        /**
+         * 去掉空置序号：存活题目按原顺序重新编号并重建倒排表与指纹桶
+         */
+        private void compact() {
+            List<Doc> alive = new ArrayList<>(live);
+            for (Doc doc : docs) {
+                if (doc != null) {
+                    alive.add(doc);
+                }
+            }
+            ordinals.clear();
+            docs.clear();
+            docs.trimToSize();
+            postings.clear();
+            bands.clear();
+            live = 0;
+            for (Doc doc : alive) {
+                add(doc);
+            }
+        }
+    }
+
+    /**
+     * 倒排表：升序文档序号
+     */
+    private static final class Postings {
+        private int[] data = new int[4];
+        private int size;
+
+        private void add(int ordinal) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = ordinal;
+        }
+
+        private boolean remove(int ordinal) {
+            int i = Arrays.binarySearch(data, 0, size, ordinal);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(data, i + 1, data, i, size - i - 1);
+            size--;
+            return true;
+        }
+
+        /**
+         * 保留 candidates 前 n 个中同时出现在本表的序号，返回保留个数
+         */
+        private int retain(int[] candidates, int n) {
+            int kept = 0;
+            int from = 0;
+            for (int i = 0; i < n && from < size; i++) {
+                int j = Arrays.binarySearch(data, from, size, candidates[i]);
+                if (j >= 0) {
+                    candidates[kept++] = candidates[i];
+                    from = j + 1;
+                } else {
+                    from = -j - 1;
+                }
+            }
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package org.can.water_law_exam_backend.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.dto.response.monitor.CacheStatsVO;
+import org.can.water_law_exam_backend.entity.ItemOption;
+import org.can.water_law_exam_backend.entity.Papers;
+import org.can.water_law_exam_backend.entity.PapersContent;
+import org.can.water_law_exam_backend.exception.BusinessException;
+import org.can.water_law_exam_backend.mapper.ItemOptionMapper;
+import org.can.water_law_exam_backend.mapper.PapersContentMapper;
+import org.can.water_law_exam_backend.mapper.PapersMapper;
+import org.can.water_law_exam_backend.service.PaperAnswerKey;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 试卷标准答案缓存
+ * 按试卷组缓存组内每套试卷编译后的 {@link PaperAnswerKey}（试卷序号 -> 标准答案），
+ * 单个考生评分与批次批量评分共用，整组试卷内容与选项各一次查询。
+ * 与试卷内容缓存在同样的时机失效（试卷组删除、题目修改或删除）。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaperAnswerKeyCache {
+
+    private final PapersMapper papersMapper;
+    private final PapersContentMapper papersContentMapper;
+    private final ItemOptionMapper itemOptionMapper;
+
+    private final ConcurrentHashMap<Long, CompletableFuture<Map<Integer, PaperAnswerKey>>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 试卷组当前版本；失效时递增，版本变化前发起的加载结果不会写入缓存
+     */
+    private final ConcurrentHashMap<Long, Long> groupVersions = new ConcurrentHashMap<>();
+    private final AtomicLong versionSeq = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * 获取考生所用试卷的标准答案；未分配试卷序号时使用组内第一套试卷
+     */
+    public PaperAnswerKey get(Long groupId, Integer papersNo) {
+        Map<Integer, PaperAnswerKey> keys = group(groupId);
+        PaperAnswerKey key = papersNo == null ? keys.values().iterator().next() : keys.get(papersNo);
+        if (key == null) {
+            throw new BusinessException(1, "对应考生的试卷不存在");
+        }
+        return key;
+    }
+
+    /**
+     * 获取试卷组内每套试卷的标准答案（按组内试卷顺序，只读）；同一试卷组并发未命中只加载一次
+     */
+    public Map<Integer, PaperAnswerKey> group(Long groupId) {
+        CompletableFuture<Map<Integer, PaperAnswerKey>> future = entries.get(groupId);
+        if (future != null && !future.isCompletedExceptionally()) {
+            hits.incrementAndGet();
+            return join(future);
+        }
+        misses.incrementAndGet();
+        long version = currentVersion(groupId);
+        CompletableFuture<Map<Integer, PaperAnswerKey>> mine = new CompletableFuture<>();
+        CompletableFuture<Map<Integer, PaperAnswerKey>> existing = entries.putIfAbsent(groupId, mine);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            mine.complete(load(groupId));
+        } catch (RuntimeException e) {
+            entries.remove(groupId, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        if (currentVersion(groupId) != version) {
+            // 加载期间试卷组已失效，本次结果只返回给调用方
+            entries.remove(groupId, mine);
+        }
+        return join(mine);
+    }
+
+    /**
+     * 按试卷组失效
+     */
+    public void invalidateGroups(Collection<Long> groupIds) {
+        for (Long groupId : groupIds) {
+            groupVersions.put(groupId, versionSeq.incrementAndGet());
+            entries.remove(groupId);
+        }
+        invalidations.incrementAndGet();
+        log.debug("试卷标准答案缓存失效：groupIds={}", groupIds);
+    }
+
+    /**
+     * 全部失效（题目内容或选项变更时使用）
+     */
+    public void invalidateAll() {
+        for (Long groupId : groupVersions.keySet()) {
+            groupVersions.put(groupId, versionSeq.incrementAndGet());
+        }
+        for (Long groupId : entries.keySet()) {
+            groupVersions.put(groupId, versionSeq.incrementAndGet());
+        }
+        entries.clear();
+        invalidations.incrementAndGet();
+        log.debug("试卷标准答案缓存全部失效");
+    }
+
+    public CacheStatsVO stats() {
+        CacheStatsVO vo = new CacheStatsVO();
+        vo.setName("paperAnswerKey");
+        vo.setSize(entries.size());
+        vo.setVersion(versionSeq.get());
+        vo.setHits(hits.get());
+        vo.setMisses(misses.get());
+        vo.setInvalidations(invalidations.get());
+        long total = hits.get() + misses.get();
+        vo.setHitRate(total == 0 ? 0 : (double) hits.get() / total);
+        return vo;
+    }
+
+    /**
+     * 加载并编译试卷组内每套试卷的标准答案，选项一次查询
+     */
+    private Map<Integer, PaperAnswerKey> load(Long groupId) {
+        List<Papers> papersList = papersMapper.selectByGroupId(groupId);
+        if (papersList == null || papersList.isEmpty()) {
+            throw new BusinessException(1, "试卷组内没有可用试卷");
+        }
+        Map<Integer, List<PapersContent>> contents = new LinkedHashMap<>();
+        Set<Long> itemIds = new HashSet<>();
+        for (Papers p : papersList) {
+            List<PapersContent> pcs = papersContentMapper.selectByPapersIdAndNo(p.getId(), p.getPapersNo());
+            contents.put(p.getPapersNo(), pcs);
+            for (PapersContent pc : pcs) {
+                itemIds.add(pc.getItemId());
+            }
+        }
+        Map<Long, List<ItemOption>> options = new HashMap<>();
+        if (!itemIds.isEmpty()) {
+            for (ItemOption o : itemOptionMapper.selectByItemIds(itemIds)) {
+                options.computeIfAbsent(o.getItemId(), k -> new ArrayList<>()).add(o);
+            }
+        }
+        Map<Integer, PaperAnswerKey> keys = new LinkedHashMap<>();
+        for (Map.Entry<Integer, List<PapersContent>> e : contents.entrySet()) {
+            keys.put(e.getKey(), PaperAnswerKey.of(e.getKey(), e.getValue(), options));
+        }
+        return Collections.unmodifiableMap(keys);
+    }
+
+    private long currentVersion(Long groupId) {
+        return groupVersions.getOrDefault(groupId, 0L);
+    }
+
+    private Map<Integer, PaperAnswerKey> join(CompletableFuture<Map<Integer, PaperAnswerKey>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new BusinessException("试卷标准答案加载失败", e.getCause());
+        }
+    }
+}
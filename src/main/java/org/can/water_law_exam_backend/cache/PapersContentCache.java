@@ -0,0 +1,202 @@
+package org.can.water_law_exam_backend.cache;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.common.constant.ResultCodeEnum;
+import org.can.water_law_exam_backend.dto.response.monitor.CacheStatsVO;
+import org.can.water_law_exam_backend.dto.response.papers.PapersContentVO;
+import org.can.water_law_exam_backend.exception.BusinessException;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 试卷内容缓存
+ * 按 (groupId, papersNo, isAnswer) 缓存组装好的 {@link PapersContentVO} 序列化后的 JSON 字节
+ * （标题、总分、大题结构与题目内容），不保留对象图；响应时与各接口自身的少量字段拼接后直接写出。
+ * 试卷组删除或题目变更时按版本失效。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PapersContentCache {
+
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentHashMap<Key, CompletableFuture<Entry>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 试卷组当前版本；失效时递增，版本变化前发起的加载结果不会写入缓存
+     */
+    private final ConcurrentHashMap<Long, Long> groupVersions = new ConcurrentHashMap<>();
+    private final AtomicLong versionSeq = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * 获取试卷内容，未命中时调用 loader 组装；同一试卷并发未命中只加载一次
+     */
+    public Entry get(Long groupId, Integer papersNo, boolean isAnswer, Supplier<PapersContentVO> loader) {
+        Key key = new Key(groupId, papersNo, isAnswer);
+        CompletableFuture<Entry> future = entries.get(key);
+        if (future != null && !future.isCompletedExceptionally()) {
+            hits.incrementAndGet();
+            return join(future);
+        }
+        misses.incrementAndGet();
+        long version = currentVersion(groupId);
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = entries.putIfAbsent(key, mine);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            PapersContentVO content = loader.get();
+            mine.complete(new Entry(version, content.getId(), serializeBody(content)));
+        } catch (JsonProcessingException e) {
+            entries.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw new BusinessException("试卷内容序列化失败", e);
+        } catch (RuntimeException e) {
+            entries.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        if (currentVersion(groupId) != version) {
+            // 加载期间试卷组已失效，本次结果只返回给调用方
+            entries.remove(key, mine);
+        }
+        return join(mine);
+    }
+
+    /**
+     * 按试卷组失效
+     */
+    public void invalidateGroups(Collection<Long> groupIds) {
+        for (Long groupId : groupIds) {
+            groupVersions.put(groupId, versionSeq.incrementAndGet());
+            entries.keySet().removeIf(k -> k.groupId().equals(groupId));
+        }
+        invalidations.incrementAndGet();
+        log.debug("试卷内容缓存失效：groupIds={}", groupIds);
+    }
+
+    /**
+     * 全部失效（题目内容变更时使用）
+     */
+    public void invalidateAll() {
+        for (Long groupId : groupVersions.keySet()) {
+            groupVersions.put(groupId, versionSeq.incrementAndGet());
+        }
+        for (Key k : entries.keySet()) {
+            groupVersions.put(k.groupId(), versionSeq.incrementAndGet());
+        }
+        entries.clear();
+        invalidations.incrementAndGet();
+        log.debug("试卷内容缓存全部失效");
+    }
+
+    /**
+     * 拼接统一返回结果：{"code":0,"msg":"操作成功","data":{fields..., 缓存的试卷内容}}
+     *
+     * @param fields 接口自身的字段（至少一个），按顺序写在试卷内容之前
+     */
+    public byte[] toResponse(Entry entry, Map<String, Object> fields) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(entry.body.length + 256);
+        try (JsonGenerator g = objectMapper.getFactory().createGenerator(out)) {
+            g.writeStartObject();
+            g.writeNumberField("code", ResultCodeEnum.SUCCESS.getCode());
+            g.writeStringField("msg", ResultCodeEnum.SUCCESS.getMessage());
+            g.writeObjectFieldStart("data");
+            for (Map.Entry<String, Object> f : fields.entrySet()) {
+                g.writeObjectField(f.getKey(), f.getValue());
+            }
+            // 缓存的字节是不含外层花括号的字段序列，直接追加在已写出的字段之后
+            g.flush();
+            out.write(',');
+            out.write(entry.body);
+            g.writeEndObject();
+            g.writeEndObject();
+        } catch (IOException e) {
+            throw new BusinessException("试卷内容序列化失败", e);
+        }
+        return out.toByteArray();
+    }
+
+    public CacheStatsVO stats() {
+        CacheStatsVO vo = new CacheStatsVO();
+        vo.setName("papersContent");
+        vo.setSize(entries.size());
+        vo.setVersion(versionSeq.get());
+        vo.setHits(hits.get());
+        vo.setMisses(misses.get());
+        vo.setInvalidations(invalidations.get());
+        long total = hits.get() + misses.get();
+        vo.setHitRate(total == 0 ? 0 : (double) hits.get() / total);
+        return vo;
+    }
+
+    /**
+     * 序列化试卷内容中与接口无关的部分，去掉外层花括号
+     */
+    private byte[] serializeBody(PapersContentVO content) throws JsonProcessingException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("title", content.getTitle());
+        body.put("totalScore", content.getTotalScore());
+        body.put("structs", content.getStructs());
+        body.put("content", content.getContent());
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        byte[] inner = new byte[json.length - 2];
+        System.arraycopy(json, 1, inner, 0, inner.length);
+        return inner;
+    }
+
+    private long currentVersion(Long groupId) {
+        return groupVersions.getOrDefault(groupId, 0L);
+    }
+
+    private Entry join(CompletableFuture<Entry> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new BusinessException("试卷内容加载失败", e.getCause());
+        }
+    }
+
+    private record Key(Long groupId, Integer papersNo, boolean isAnswer) {
+    }
+
+    /**
+     * 缓存条目：试卷ID及试卷内容的 JSON 字节（不含外层花括号）
+     */
+    @Getter
+    public static final class Entry {
+        private final long version;
+        private final Long papersId;
+        private final byte[] body;
+
+        private Entry(long version, Long papersId, byte[] body) {
+            this.version = version;
+            this.papersId = papersId;
+            this.body = body;
+        }
+    }
+}
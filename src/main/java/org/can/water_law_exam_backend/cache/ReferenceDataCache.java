@@ -0,0 +1,266 @@
+package org.can.water_law_exam_backend.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.dto.response.monitor.CacheStatsVO;
+import org.can.water_law_exam_backend.entity.City;
+import org.can.water_law_exam_backend.entity.ItemCategory;
+import org.can.water_law_exam_backend.entity.ItemType;
+import org.can.water_law_exam_backend.entity.Organization;
+import org.can.water_law_exam_backend.mapper.CityMapper;
+import org.can.water_law_exam_backend.mapper.ItemCategoryMapper;
+import org.can.water_law_exam_backend.mapper.ItemTypeMapper;
+import org.can.water_law_exam_backend.mapper.OrganizationMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 基础数据缓存：题型、题目分类、城市、单位
+ * 这些表数据量很小且极少变更，启动后在后台整表加载（数据库不可用时在首次访问时加载），
+ * 各表的增删改在事务提交后整表重新加载并原子替换快照。缓存对象为共享只读实例，调用方不得修改。
+ */
+@Slf4j
+@Component
+public class ReferenceDataCache {
+
+    private final ThreadPoolTaskExecutor warmUpExecutor;
+
+    private final AtomicLong versionSeq = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Table<Integer, ItemType> itemTypes;
+    private final Table<Integer, ItemCategory> categories;
+    private final Table<Integer, City> cities;
+    /**
+     * 单位另按 “城市ID:单位名称” 建索引
+     */
+    private final Table<Long, Organization> organizations;
+
+    public ReferenceDataCache(ItemTypeMapper itemTypeMapper,
+                              ItemCategoryMapper itemCategoryMapper,
+                              CityMapper cityMapper,
+                              OrganizationMapper organizationMapper,
+                              @Qualifier("warmUpExecutor") ThreadPoolTaskExecutor warmUpExecutor) {
+        this.warmUpExecutor = warmUpExecutor;
+        this.itemTypes = new Table<>("itemType", itemTypeMapper::selectAll, ItemType::getId, null);
+        this.categories = new Table<>("itemCategory", itemCategoryMapper::selectAll, ItemCategory::getId, null);
+        this.cities = new Table<>("city", cityMapper::selectAll, City::getId, null);
+        this.organizations = new Table<>("organization", organizationMapper::selectAll,
+                Organization::getId, o -> nameKey(o.getOrgName(), o.getCityId()));
+    }
+
+    /**
+     * 启动后在后台加载，失败只记录日志
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        warmUpExecutor.execute(() -> {
+            try {
+                itemTypes.refresh();
+                categories.refresh();
+                cities.refresh();
+                organizations.refresh();
+                log.info("基础数据加载完成：题型{}，分类{}，城市{}，单位{}", itemTypes.get().list().size(),
+                        categories.get().list().size(), cities.get().list().size(), organizations.get().list().size());
+            } catch (Exception e) {
+                log.warn("基础数据预加载失败，将在首次访问时加载：{}", e.getMessage());
+            }
+        });
+    }
+
+    public List<ItemType> itemTypes() {
+        return itemTypes.list();
+    }
+
+    public ItemType itemType(Integer id) {
+        return itemTypes.find(id);
+    }
+
+    public List<ItemCategory> categories() {
+        return categories.list();
+    }
+
+    public ItemCategory category(Integer id) {
+        return categories.find(id);
+    }
+
+    public List<City> cities() {
+        return cities.list();
+    }
+
+    public City city(Integer id) {
+        return cities.find(id);
+    }
+
+    public Organization organization(Long id) {
+        return organizations.find(id);
+    }
+
+    /**
+     * 按单位名称与城市精确查找
+     */
+    public Organization organization(String orgName, Integer cityId) {
+        return organizations.findByName(nameKey(orgName, cityId));
+    }
+
+    /**
+     * 按名称模糊查找第一个单位（ID升序），与 selectByPage(null, key) 的首条结果一致
+     */
+    public Organization organizationLike(String key) {
+        for (Organization o : organizations.list()) {
+            if (o.getOrgName() != null && o.getOrgName().contains(key)) {
+                hits.incrementAndGet();
+                return o;
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 城市下的单位（ID升序）
+     */
+    public List<Organization> organizationsByCity(Integer cityId) {
+        List<Organization> list = new ArrayList<>();
+        for (Organization o : organizations.list()) {
+            if (Objects.equals(o.getCityId(), cityId)) {
+                list.add(o);
+            }
+        }
+        return list;
+    }
+
+    public void refreshItemTypes() {
+        itemTypes.invalidate();
+    }
+
+    public void refreshCategories() {
+        categories.invalidate();
+    }
+
+    /**
+     * 城市变更同时刷新单位（单位携带城市名称）
+     */
+    public void refreshCities() {
+        cities.invalidate();
+        organizations.invalidate();
+    }
+
+    public void refreshOrganizations() {
+        organizations.invalidate();
+    }
+
+    public CacheStatsVO stats() {
+        CacheStatsVO vo = new CacheStatsVO();
+        vo.setName("referenceData");
+        vo.setSize(itemTypes.size() + categories.size() + cities.size() + organizations.size());
+        vo.setVersion(versionSeq.get());
+        vo.setHits(hits.get());
+        vo.setMisses(misses.get());
+        vo.setInvalidations(invalidations.get());
+        long total = hits.get() + misses.get();
+        vo.setHitRate(total == 0 ? 0 : (double) hits.get() / total);
+        return vo;
+    }
+
+    private static String nameKey(String orgName, Integer cityId) {
+        return cityId + ":" + orgName;
+    }
+
+    /**
+     * 单表快照：原始顺序列表 + 主键索引（+ 可选名称索引）
+     */
+    private record Snapshot<K, V>(long version, List<V> list, Map<K, V> byId, Map<String, V> byName) {
+    }
+
+    private final class Table<K, V> {
+        private final String name;
+        private final Supplier<List<V>> loader;
+        private final Function<V, K> idOf;
+        private final Function<V, String> nameOf;
+        private volatile Snapshot<K, V> snapshot;
+
+        private Table(String name, Supplier<List<V>> loader, Function<V, K> idOf, Function<V, String> nameOf) {
+            this.name = name;
+            this.loader = loader;
+            this.idOf = idOf;
+            this.nameOf = nameOf;
+        }
+
+        private Snapshot<K, V> get() {
+            Snapshot<K, V> s = snapshot;
+            return s != null ? s : refresh();
+        }
+
+        private List<V> list() {
+            return get().list();
+        }
+
+        private V find(K id) {
+            if (id == null) {
+                return null;
+            }
+            V v = get().byId().get(id);
+            (v != null ? hits : misses).incrementAndGet();
+            return v;
+        }
+
+        private V findByName(String key) {
+            V v = get().byName().get(key);
+            (v != null ? hits : misses).incrementAndGet();
+            return v;
+        }
+
+        private int size() {
+            Snapshot<K, V> s = snapshot;
+            return s == null ? 0 : s.list().size();
+        }
+
+        /**
+         * 整表加载并原子替换；并发刷新时以后开始的加载为准
+         */
+        private Snapshot<K, V> refresh() {
+            long version = versionSeq.incrementAndGet();
+            List<V> rows = loader.get();
+            Map<K, V> byId = new HashMap<>(Math.max(16, rows.size() * 2));
+            Map<String, V> byName = nameOf == null ? Collections.emptyMap() : new HashMap<>(Math.max(16, rows.size() * 2));
+            for (V v : rows) {
+                byId.put(idOf.apply(v), v);
+                if (nameOf != null) {
+                    byName.putIfAbsent(nameOf.apply(v), v);
+                }
+            }
+            Snapshot<K, V> fresh = new Snapshot<>(version, Collections.unmodifiableList(new ArrayList<>(rows)),
+                    Collections.unmodifiableMap(byId), Collections.unmodifiableMap(byName));
+            synchronized (this) {
+                if (snapshot == null || snapshot.version() < version) {
+                    snapshot = fresh;
+                }
+                log.debug("基础数据[{}]已加载：{}条", name, rows.size());
+                return snapshot;
+            }
+        }
+
+        private void invalidate() {
+            invalidations.incrementAndGet();
+            try {
+                refresh();
+            } catch (Exception e) {
+                // 重新加载失败时丢弃快照，下次访问再加载
+                synchronized (this) {
+                    snapshot = null;
+                }
+                log.warn("基础数据[{}]刷新失败：{}", name, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.can.water_law_exam_backend.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.dto.response.exam.ExamBatchUserVO;
+import org.can.water_law_exam_backend.dto.response.monitor.CacheStatsVO;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 考生端考试列表缓存：userId -> 可参加的考试批次列表
+ * 考生首页会定时轮询该列表，结果按用户缓存，最长保留 {@link #TTL_SECONDS} 秒，
+ * 且不超过列表中最早结束的考试的结束时间。
+ * 报名、开始考试、交卷、审核时按用户失效，批次发布、分发、修改、删除及考生导入、添加、移除时全部失效。
+ */
+@Slf4j
+@Component
+public class UserBatchListCache {
+
+    /**
+     * 缓存条目最长保留秒数
+     */
+    public static final int TTL_SECONDS = 60;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 代次序列：每次失效递增；查询数据库前取得当前代次，写入时与该用户及全部失效的代次比较
+     */
+    private final AtomicLong generationSeq = new AtomicLong();
+
+    /**
+     * 用户最近一次按用户失效时的代次；读取早于该代次的查询结果不写入缓存，其他用户不受影响
+     */
+    private final ConcurrentHashMap<Long, Long> userGenerations = new ConcurrentHashMap<>();
+
+    /**
+     * 最近一次全部失效时的代次
+     */
+    private volatile long allGeneration;
+
+    /**
+     * 早于该代次的查询结果一律不写入；用户代次记录清理后以此兜底
+     */
+    private volatile long floorGeneration;
+
+    /**
+     * 上次清理时的代次，仅在定时清理中读写
+     */
+    private long lastEvictGeneration;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * 获取考生的考试列表，不存在或已过期返回 null
+     */
+    public List<ExamBatchUserVO> get(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.isExpired(LocalDateTime.now())) {
+            entries.remove(userId, entry);
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.list();
+    }
+
+    /**
+     * 查询数据库前获取当前代次，写入时传回用于判断期间是否发生失效
+     */
+    public long generation() {
+        return generationSeq.get();
+    }
+
+    /**
+     * 写入考生的考试列表；查询后该用户或全部缓存已失效时不写入
+     *
+     * @param userId      用户ID
+     * @param list        考试列表
+     * @param earliestEnd 列表中最早的考试结束时间（可为 null）
+     * @param generation  查询前取得的代次
+     */
+    public void put(Long userId, List<ExamBatchUserVO> list, LocalDateTime earliestEnd, long generation) {
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(TTL_SECONDS);
+        if (earliestEnd != null && earliestEnd.isBefore(expiresAt)) {
+            expiresAt = earliestEnd;
+        }
+        Entry entry = new Entry(List.copyOf(list), expiresAt);
+        // 在同一键的 compute 中比较代次，失效先登记代次再移除条目，二者不会交错写入旧数据
+        entries.compute(userId, (k, existing) -> isStale(k, generation) ? existing : entry);
+    }
+
+    private boolean isStale(Long userId, long generation) {
+        return generation < floorGeneration || allGeneration > generation
+                || userGenerations.getOrDefault(userId, 0L) > generation;
+    }
+
+    /**
+     * 按用户失效
+     */
+    public void invalidate(Long userId) {
+        userGenerations.put(userId, generationSeq.incrementAndGet());
+        entries.remove(userId);
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * 按用户批量失效
+     */
+    public void invalidate(Collection<Long> userIds) {
+        long generation = generationSeq.incrementAndGet();
+        for (Long userId : userIds) {
+            userGenerations.put(userId, generation);
+            entries.remove(userId);
+        }
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * 全部失效
+     */
+    public void invalidateAll() {
+        allGeneration = generationSeq.incrementAndGet();
+        entries.clear();
+        invalidations.incrementAndGet();
+        log.debug("考生考试列表缓存全部失效");
+    }
+
+    /**
+     * 定时清理过期条目
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        entries.values().removeIf(e -> e.isExpired(now));
+        // 上一轮之前的用户代次不再单独保留：先抬高兜底代次，再清理不高于它的记录
+        long floor = lastEvictGeneration;
+        lastEvictGeneration = generationSeq.get();
+        if (floor > floorGeneration) {
+            floorGeneration = floor;
+            userGenerations.values().removeIf(g -> g <= floor);
+        }
+    }
+
+    public CacheStatsVO stats() {
+        CacheStatsVO vo = new CacheStatsVO();
+        vo.setName("userBatchList");
+        vo.setSize(entries.size());
+        vo.setVersion(generationSeq.get());
+        vo.setHits(hits.get());
+        vo.setMisses(misses.get());
+        vo.setInvalidations(invalidations.get());
+        long total = hits.get() + misses.get();
+        vo.setHitRate(total == 0 ? 0 : (double) hits.get() / total);
+        return vo;
+    }
+
+    private record Entry(List<ExamBatchUserVO> list, LocalDateTime expiresAt) {
+        private boolean isExpired(LocalDateTime now) {
+            return !now.isBefore(expiresAt);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.can.water_law_exam_backend.common.constant;
+
+import lombok.Getter;
+
+/**
+ * 后台任务状态枚举
+ */
+@Getter
+public enum JobStatusEnum {
+
+    /**
+     * 排队中
+     */
+    QUEUED(0, "排队中"),
+
+    /**
+     * 运行中
+     */
+    RUNNING(1, "运行中"),
+
+    /**
+     * 成功
+     */
+    SUCCEEDED(2, "成功"),
+
+    /**
+     * 失败
+     */
+    FAILED(3, "失败"),
+
+    /**
+     * 已取消
+     */
+    CANCELLED(4, "已取消");
+
+    private final Integer code;
+    private final String message;
+
+    JobStatusEnum(Integer code, String message) {
+        this.code = code;
+        this.message = message;
+    }
+
+    /**
+     * 是否已结束
+     */
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+    }
+
+    public static JobStatusEnum of(Integer code) {
+        for (JobStatusEnum s : values()) {
+            if (s.code.equals(code)) {
+                return s;
+            }
+        }
+        return null;
+    }
+}
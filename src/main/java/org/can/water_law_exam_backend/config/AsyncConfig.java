@@ -0,0 +1,149 @@
+package org.can.water_law_exam_backend.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 后台线程池配置类
+ * 各类后台任务使用独立的有界线程池，避免相互影响和占用 Tomcat 工作线程
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * 考试批次预热线程池
+     *
+     * @return {@link ThreadPoolTaskExecutor }
+     */
+    @Bean
+    public ThreadPoolTaskExecutor warmUpExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("warm-up-");
+        // 队列满时丢弃最早的预热任务：预热只是优化，未预热的数据会在首次访问时加载
+        executor.setRejectedExecutionHandler(AsyncConfig::discardOldest);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 交卷评分线程池
+     *
+     * @param examProperties 考试业务配置
+     * @return {@link ThreadPoolTaskExecutor }
+     */
+    @Bean
+    public ThreadPoolTaskExecutor gradingExecutor(ExamProperties examProperties) {
+        ExamProperties.Grading grading = examProperties.getGrading();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(grading.getWorkers());
+        executor.setMaxPoolSize(grading.getWorkers());
+        executor.setQueueCapacity(grading.getQueueCapacity());
+        executor.setThreadNamePrefix("grading-");
+        // 队列满时拒绝，由评分服务记为待补偿，不阻塞交卷请求
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 批量评分计算线程池
+     * 逐个考生判分为纯内存计算，线程数与核数一致；与交卷评分线程池分开，
+     * 避免在评分线程中执行的批量评分等待同一线程池中排队的子任务
+     *
+     * @return {@link ThreadPoolTaskExecutor }
+     */
+    @Bean
+    public ThreadPoolTaskExecutor batchGradingExecutor() {
+        int workers = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers * 4);
+        executor.setThreadNamePrefix("batch-grading-");
+        // 队列满时由读取答题记录的线程自行判分，形成背压
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 导入密码加密线程池
+     * BCrypt 为 CPU 密集型，线程数与核数一致
+     *
+     * @return {@link ThreadPoolTaskExecutor }
+     */
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashExecutor() {
+        int workers = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers * 4);
+        executor.setThreadNamePrefix("pwd-hash-");
+        // 队列满时由提交线程自行加密，形成背压
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 后台任务线程池（导入、导出、组卷）
+     *
+     * @param examProperties 考试业务配置
+     * @return {@link ThreadPoolTaskExecutor }
+     */
+    @Bean
+    public ThreadPoolTaskExecutor jobExecutor(ExamProperties examProperties) {
+        ExamProperties.Job job = examProperties.getJob();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(job.getWorkers());
+        executor.setMaxPoolSize(job.getWorkers());
+        executor.setQueueCapacity(job.getQueueCapacity());
+        executor.setThreadNamePrefix("job-");
+        // 队列满时拒绝，由任务服务提示稍后再试
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 可感知被丢弃的后台任务，用于在任务被线程池丢弃时更新其状态
+     */
+    public interface DiscardableTask extends Runnable {
+
+        /**
+         * 任务在执行前被丢弃时调用（在提交新任务的线程中执行）
+         */
+        void onDiscard();
+    }
+
+    /**
+     * 丢弃队列中最早的任务并通知它，再重新提交当前任务；线程池已关闭时通知当前任务
+     */
+    private static void discardOldest(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            if (task instanceof DiscardableTask d) {
+                d.onDiscard();
+            }
+            return;
+        }
+        Runnable oldest = executor.getQueue().poll();
+        if (oldest instanceof DiscardableTask d) {
+            d.onDiscard();
+        }
+        executor.execute(task);
+    }
+}
@@ -0,0 +1,112 @@
+package org.can.water_law_exam_backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 考试业务配置属性类
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "exam")
+public class ExamProperties {
+
+    /**
+     * 答题缓冲（写回）配置
+     */
+    private AnswerBuffer answerBuffer = new AnswerBuffer();
+
+    /**
+     * 交卷后台评分配置
+     */
+    private Grading grading = new Grading();
+
+    /**
+     * 后台任务配置
+     */
+    private Job job = new Job();
+
+    @Data
+    public static class AnswerBuffer {
+
+        /**
+         * 是否启用答题缓冲：启用后实时保存的答案先写入本节点内存，再定时批量落库
+         */
+        private boolean enabled = true;
+
+        /**
+         * 定时落库间隔（毫秒）
+         */
+        private long flushIntervalMs = 1000;
+
+        /**
+         * 单条 INSERT 语句最多包含的答题记录数
+         */
+        private int flushSize = 500;
+    }
+
+    @Data
+    public static class Grading {
+
+        /**
+         * 评分工作线程数（每个线程评分时占用一个数据库连接）
+         */
+        private int workers = 4;
+
+        /**
+         * 等待评分的队列容量，队列满时由补偿任务稍后重新提交
+         */
+        private int queueCapacity = 2000;
+
+        /**
+         * 单个考生最多评分尝试次数
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * 重试退避基数（毫秒），第 n 次重试等待 n 倍
+         */
+        private long retryBackoffMs = 2000;
+
+        /**
+         * 补偿任务间隔（毫秒）：重新提交已交卷但尚无成绩的考生
+         */
+        private long sweepIntervalMs = 60000;
+
+        /**
+         * 补偿任务单次最多提交的考生数
+         */
+        private int sweepLimit = 500;
+    }
+
+    @Data
+    public static class Job {
+
+        /**
+         * 任务工作线程数（导入、导出、组卷同一时间最多运行的数量）
+         */
+        private int workers = 2;
+
+        /**
+         * 排队任务数上限，超过后拒绝提交
+         */
+        private int queueCapacity = 20;
+
+        /**
+         * 上传文件暂存与导出结果文件目录，为空时使用系统临时目录
+         */
+        private String workDir;
+
+        /**
+         * 已结束任务及其结果文件的保留天数
+         */
+        private int retentionDays = 7;
+
+        /**
+         * 节点标识，服务重启时只处理本节点提交的未结束任务；为空时使用主机名。
+         * 同一主机部署多个实例时须分别配置
+         */
+        private String nodeId;
+    }
+}
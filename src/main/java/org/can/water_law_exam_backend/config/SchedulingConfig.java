@@ -0,0 +1,14 @@
+package org.can.water_law_exam_backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定时任务配置类
+ * 答题缓冲定时落库等后台任务依赖该配置；调度线程数见 spring.task.scheduling.pool.size，
+ * 须不少于 @Scheduled 任务数，否则慢任务会占住调度线程、推迟其他任务
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -8,7 +8,9 @@ import org.can.water_law_exam_backend.dto.request.batch.BatchAddRequest;
 import org.can.water_law_exam_backend.dto.request.batch.BatchPageRequest;
 import org.can.water_law_exam_backend.dto.request.batch.BatchUpdateRequest;
 import org.can.water_law_exam_backend.dto.response.batch.BatchVO;
+import org.can.water_law_exam_backend.dto.response.batch.WarmUpStatusVO;
 import org.can.water_law_exam_backend.dto.response.common.PageResult;
+import org.can.water_law_exam_backend.service.BatchWarmUpService;
 import org.can.water_law_exam_backend.service.ExamBatchService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -22,6 +24,7 @@ import java.util.List;
 public class BatchController {
 
     private final ExamBatchService examBatchService;
+    private final BatchWarmUpService batchWarmUpService;
 
     /**
      * 8.1.1 添加批次
@@ -107,7 +110,14 @@ public class BatchController {
         boolean released = examBatchService.toggleRelease(id);
         return Result.success("操作成功", released);
     }
-}
-
-
 
+    /**
+     * 8.1.9 批次预热状态（分发试卷后自动预热）
+     * GET /batch/warmup/{id}
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/warmup/{id}")
+    public Result<WarmUpStatusVO> warmUpStatus(@PathVariable Long id) {
+        return Result.success(batchWarmUpService.status(id));
+    }
+}
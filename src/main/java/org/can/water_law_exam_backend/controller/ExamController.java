@@ -6,8 +6,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.can.water_law_exam_backend.common.Result;
 import org.can.water_law_exam_backend.dto.request.exam.AnswerRequest;
 import org.can.water_law_exam_backend.dto.response.exam.ExamBatchUserVO;
-import org.can.water_law_exam_backend.dto.response.exam.ExamPapersVO;
+import org.can.water_law_exam_backend.dto.response.score.GradingStatusVO;
 import org.can.water_law_exam_backend.service.ExamService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -34,8 +36,9 @@ public class ExamController {
      * GET /exam/papers/{batchId}
      */
     @GetMapping("/papers/{batchId}")
-    public Result<ExamPapersVO> papers(@PathVariable Long batchId) {
-        return Result.success(examService.getPapers(batchId));
+    public ResponseEntity<byte[]> papers(@PathVariable Long batchId) {
+        // 试卷内容取自缓存的预序列化 JSON，data 结构与 ExamPapersVO 一致
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(examService.getPapers(batchId));
     }
 
     /**
@@ -87,7 +90,13 @@ public class ExamController {
         examService.start(batchId);
         return Result.success("请开始答题", null);
     }
-}
-
-
 
+    /**
+     * 2.8 查询交卷评分状态
+     * GET /exam/grading/{batchId}
+     */
+    @GetMapping("/grading/{batchId}")
+    public Result<GradingStatusVO> gradingStatus(@PathVariable Long batchId) {
+        return Result.success(examService.gradingStatus(batchId));
+    }
+}
@@ -1,5 +1,6 @@
 package org.can.water_law_exam_backend.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +15,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.List;
 
 @Slf4j
@@ -36,6 +38,31 @@ public class ExamineeController {
         return Result.success("成功导入" + cnt + "条考生数据", null);
     }
 
+    /**
+     * 8.2.1 导入考生（CSV）
+     * POST /emn/import/csv?id={batchId}
+     * 请求体为 UTF-8 CSV（Content-Type: text/csv），列顺序同 Excel 模板，首行为表头
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import/csv", consumes = {"text/csv", "application/octet-stream"})
+    public Result<String> importExamineeCsv(@RequestParam("id") Long batchId,
+                                            HttpServletRequest request) throws IOException {
+        int cnt = examineeService.importExamineeCsv(request.getInputStream(), batchId);
+        return Result.success("成功导入" + cnt + "条考生数据", null);
+    }
+
+    /**
+     * 8.2.1 导入考生（后台任务）
+     * POST /emn/import/async
+     * 返回任务ID，通过 /job/{id} 查询进度
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/import/async")
+    public Result<Long> importExamineeAsync(@RequestParam("file") MultipartFile file,
+                                            @RequestParam("id") Long batchId) {
+        return Result.success("导入任务已提交", examineeService.importExamineeAsync(file, batchId));
+    }
+
     /**
      * 8.2.2 添加考生
      * POST /emn/bind/{batchId}
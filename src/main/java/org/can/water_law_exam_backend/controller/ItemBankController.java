@@ -1,5 +1,6 @@
 package org.can.water_law_exam_backend.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,12 +10,15 @@ import org.can.water_law_exam_backend.dto.request.itembank.ItemBankPageRequest;
 import org.can.water_law_exam_backend.dto.request.itembank.ItemBankUpdateRequest;
 import org.can.water_law_exam_backend.dto.response.common.PageResult;
 import org.can.water_law_exam_backend.dto.response.itembank.ItemBankVO;
+import org.can.water_law_exam_backend.dto.response.itembank.ItemDuplicateClusterVO;
+import org.can.water_law_exam_backend.dto.response.itembank.ItemImportResultVO;
 import org.can.water_law_exam_backend.entity.ItemBank;
 import org.can.water_law_exam_backend.service.ItemBankService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -34,20 +38,51 @@ public class ItemBankController {
      * 请求方式：POST
      *
      * @param file 上传的Excel文件
-     * @return 操作结果
+     * @return 导入结果；近似重复的题目照常导入，在结果中列出供核对
      */
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping("/import")
-    public Result<Void> importItemBank(@RequestParam("file") MultipartFile file) {
+    public Result<ItemImportResultVO> importItemBank(@RequestParam("file") MultipartFile file) {
         log.info("导入题库：文件名={}", file.getOriginalFilename());
-        int i = itemBankService.importItemBank(file);
-        return Result.success("成功导入" + i + "条数据", null);
+        ItemImportResultVO result = itemBankService.importItemBank(file);
+        return Result.success(result.summary(), result);
+    }
+
+    /**
+     * 5.1 导入题库（CSV）
+     * 请求路径：/ib/import/csv
+     * 请求方式：POST，请求体为 UTF-8 CSV（Content-Type: text/csv），列顺序同 Excel 模板，首行为表头
+     *
+     * @return 导入结果；近似重复的题目照常导入，在结果中列出供核对
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import/csv", consumes = {"text/csv", "application/octet-stream"})
+    public Result<ItemImportResultVO> importItemBankCsv(HttpServletRequest request) throws IOException {
+        log.info("导入题库：CSV，长度={}", request.getContentLengthLong());
+        ItemImportResultVO result = itemBankService.importItemBankCsv(request.getInputStream());
+        return Result.success(result.summary(), result);
+    }
+
+    /**
+     * 5.1 导入题库（后台任务）
+     * 请求路径：/ib/import/async
+     * 请求方式：POST
+     *
+     * @param file 上传的Excel文件
+     * @return 任务ID，通过 /job/{id} 查询进度
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/import/async")
+    public Result<Long> importItemBankAsync(@RequestParam("file") MultipartFile file) {
+        log.info("提交题库导入任务：文件名={}", file.getOriginalFilename());
+        return Result.success("导入任务已提交", itemBankService.importItemBankAsync(file));
     }
 
     /**
      * 5.2 添加试题
      * 请求路径：/ib/add
      * 请求方式：POST
+     * 与已有题目近似重复时返回 40003，确认后以 force=true 重新提交
      *
      * @param request 添加请求
      * @return 操作结果
@@ -95,6 +130,19 @@ public class ItemBankController {
         return Result.success("成功删除试题", null);
     }
 
+    /**
+     * 近似重复题目报告
+     * 请求路径：/ib/duplicates
+     * 请求方式：GET
+     *
+     * @return 近似重复分组（同题型、题干与选项指纹相近）
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/duplicates")
+    public Result<List<ItemDuplicateClusterVO>> duplicates() {
+        return Result.success(itemBankService.getDuplicateClusters());
+    }
+
     /**
      * 5.5 获取单条题目
      * 请求路径：/ib/{id}
@@ -0,0 +1,75 @@
+package org.can.water_law_exam_backend.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.common.Result;
+import org.can.water_law_exam_backend.dto.response.job.JobVO;
+import org.can.water_law_exam_backend.exception.BusinessException;
+import org.can.water_law_exam_backend.service.JobService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 后台任务控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/job")
+@RequiredArgsConstructor
+public class JobController {
+
+    private final JobService jobService;
+
+    /**
+     * 查询任务状态与进度
+     * GET /job/{id}
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/{id}")
+    public Result<JobVO> get(@PathVariable Long id) {
+        return Result.success(jobService.get(id));
+    }
+
+    /**
+     * 取消任务
+     * POST /job/cancel/{id}
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/cancel/{id}")
+    public Result<String> cancel(@PathVariable Long id) {
+        jobService.cancel(id);
+        return Result.success("已请求取消", null);
+    }
+
+    /**
+     * 下载任务结果文件
+     * GET /job/{id}/file
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/{id}/file")
+    public void file(@PathVariable Long id, HttpServletResponse response) {
+        Path file = jobService.resultFile(id);
+        String fileName = file.getFileName().toString();
+        try {
+            if (fileName.endsWith(".xlsx")) {
+                response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+            } else {
+                response.setContentType("application/octet-stream");
+            }
+            response.setHeader("Content-Disposition",
+                    "attachment;filename=" + URLEncoder.encode(fileName, StandardCharsets.UTF_8));
+            response.setContentLengthLong(Files.size(file));
+            Files.copy(file, response.getOutputStream());
+        } catch (IOException e) {
+            log.error("下载任务结果失败：{}", e.getMessage(), e);
+            throw new BusinessException(1, "下载任务结果失败：" + e.getMessage());
+        }
+    }
+}
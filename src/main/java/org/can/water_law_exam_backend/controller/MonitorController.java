@@ -0,0 +1,72 @@
+package org.can.water_law_exam_backend.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.cache.ExamSessionCache;
+import org.can.water_law_exam_backend.cache.AdminNameCache;
+import org.can.water_law_exam_backend.cache.ItemIdPool;
+import org.can.water_law_exam_backend.cache.ItemSearchIndex;
+import org.can.water_law_exam_backend.cache.ReferenceDataCache;
+import org.can.water_law_exam_backend.cache.PaperAnswerKeyCache;
+import org.can.water_law_exam_backend.cache.PapersContentCache;
+import org.can.water_law_exam_backend.cache.UserBatchListCache;
+import org.can.water_law_exam_backend.common.Result;
+import org.can.water_law_exam_backend.dto.response.monitor.AnswerBufferStatsVO;
+import org.can.water_law_exam_backend.dto.response.monitor.CacheStatsVO;
+import org.can.water_law_exam_backend.service.ExamAnswerBuffer;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 运行指标监控控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/monitor")
+@RequiredArgsConstructor
+public class MonitorController {
+
+    private final ExamAnswerBuffer examAnswerBuffer;
+    private final PapersContentCache papersContentCache;
+    private final PaperAnswerKeyCache paperAnswerKeyCache;
+    private final ExamSessionCache examSessionCache;
+    private final UserBatchListCache userBatchListCache;
+    private final ItemIdPool itemIdPool;
+    private final ReferenceDataCache referenceDataCache;
+    private final AdminNameCache adminNameCache;
+    private final ItemSearchIndex itemSearchIndex;
+
+    /**
+     * 答题缓冲指标（缓冲深度、落库耗时等）
+     * GET /monitor/answer-buffer
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/answer-buffer")
+    public Result<AnswerBufferStatsVO> answerBuffer() {
+        return Result.success(examAnswerBuffer.stats());
+    }
+
+    /**
+     * 本地缓存指标（条目数、命中率等）
+     * GET /monitor/caches
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/caches")
+    public Result<List<CacheStatsVO>> caches() {
+        List<CacheStatsVO> list = new ArrayList<>();
+        list.add(papersContentCache.stats());
+        list.add(paperAnswerKeyCache.stats());
+        list.add(examSessionCache.stats());
+        list.add(userBatchListCache.stats());
+        list.add(itemIdPool.stats());
+        list.add(referenceDataCache.stats());
+        list.add(adminNameCache.stats());
+        list.add(itemSearchIndex.stats());
+        return Result.success(list);
+    }
+}
@@ -8,10 +8,11 @@ import org.can.water_law_exam_backend.dto.request.papers.PapersCreateRequest;
 import org.can.water_law_exam_backend.dto.request.template.TemplatePageRequest;
 import org.can.water_law_exam_backend.dto.response.common.PageResult;
 import org.can.water_law_exam_backend.dto.response.papers.PapersAbstractVO;
-import org.can.water_law_exam_backend.dto.response.papers.PapersContentVO;
 import org.can.water_law_exam_backend.dto.response.papers.PapersGroupVO;
 import org.can.water_law_exam_backend.dto.response.papers.PapersListVO;
 import org.can.water_law_exam_backend.service.PapersService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
@@ -36,6 +37,16 @@ public class PapersController {
         return Result.success("成功生成" + cnt + "份试卷", null);
     }
 
+    /**
+     * 7.2.1 组卷（后台任务）
+     * 返回任务ID，通过 /job/{id} 查询进度
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/create/async")
+    public Result<Long> createAsync(@Valid @RequestBody PapersCreateRequest request) {
+        return Result.success("组卷任务已提交", service.createAsync(request));
+    }
+
     /**
      * 7.2.2 获取试卷组列表（分页）
      */
@@ -69,7 +80,8 @@ public class PapersController {
      */
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/ctt/{groupId}/{no}")
-    public Result<PapersContentVO> content(@PathVariable Long groupId, @PathVariable Integer no) {
-        return Result.success(service.content(groupId, no, true));
+    public ResponseEntity<byte[]> content(@PathVariable Long groupId, @PathVariable Integer no) {
+        // 直接写出缓存中的预序列化 JSON，data 结构与 PapersContentVO 一致
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(service.contentJson(groupId, no, true));
     }
 }
@@ -7,8 +7,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.can.water_law_exam_backend.common.Result;
 import org.can.water_law_exam_backend.dto.request.score.ScorePageRequest;
 import org.can.water_law_exam_backend.dto.response.common.PageResult;
+import org.can.water_law_exam_backend.dto.response.score.BatchGradingResultVO;
+import org.can.water_law_exam_backend.dto.response.score.GradingStatusVO;
+import org.can.water_law_exam_backend.dto.response.score.GradingSummaryVO;
 import org.can.water_law_exam_backend.dto.response.score.ScoreDetailVO;
 import org.can.water_law_exam_backend.dto.response.score.ScorePageVO;
+import org.can.water_law_exam_backend.service.BatchGradingService;
+import org.can.water_law_exam_backend.service.GradingService;
 import org.can.water_law_exam_backend.service.ScoreService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -20,6 +25,8 @@ import org.springframework.web.bind.annotation.*;
 public class ScoreController {
 
     private final ScoreService scoreService;
+    private final GradingService gradingService;
+    private final BatchGradingService batchGradingService;
 
     /**
      * 8.3.1 成绩检索
@@ -42,6 +49,17 @@ public class ScoreController {
         scoreService.exportPass(batchId, response);
     }
 
+    /**
+     * 8.3.2 成绩导出（后台任务）
+     * POST /score/export/async/{batchId}
+     * 返回任务ID，通过 /job/{id} 查询进度，完成后 /job/{id}/file 下载
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/export/async/{batchId}")
+    public Result<Long> exportAsync(@PathVariable Long batchId) {
+        return Result.success("导出任务已提交", scoreService.exportPassAsync(batchId));
+    }
+
     /**
      * 8.3.3 获取考生试卷答题明细
      * GET /score/{batchId}/{userId}
@@ -52,7 +70,47 @@ public class ScoreController {
                                         @PathVariable Long userId) {
         return Result.success(scoreService.detail(batchId, userId));
     }
-}
 
+    /**
+     * 8.3.4 批次评分进度
+     * GET /score/grading/{batchId}
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/grading/{batchId}")
+    public Result<GradingSummaryVO> gradingSummary(@PathVariable Long batchId) {
+        return Result.success(gradingService.summary(batchId));
+    }
+
+    /**
+     * 8.3.5 考生评分状态
+     * GET /score/grading/{batchId}/{userId}
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/grading/{batchId}/{userId}")
+    public Result<GradingStatusVO> gradingStatus(@PathVariable Long batchId,
+                                                 @PathVariable Long userId) {
+        return Result.success(gradingService.status(batchId, userId));
+    }
 
+    /**
+     * 8.3.6 重新评分
+     * POST /score/grading/{batchId}/{userId}
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/grading/{batchId}/{userId}")
+    public Result<String> regrade(@PathVariable Long batchId,
+                                  @PathVariable Long userId) {
+        gradingService.regrade(batchId, userId);
+        return Result.success("已提交重新评分", null);
+    }
 
+    /**
+     * 8.3.7 批次批量评分
+     * POST /score/grade/{batchId}
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/grade/{batchId}")
+    public Result<BatchGradingResultVO> gradeBatch(@PathVariable Long batchId) {
+        return Result.success("批量评分完成", batchGradingService.gradeBatch(batchId));
+    }
+}
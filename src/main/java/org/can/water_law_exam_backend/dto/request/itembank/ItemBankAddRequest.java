@@ -47,6 +47,11 @@ public class ItemBankAddRequest {
     @Valid
     private List<OptionDTO> options;
 
+    /**
+     * 与已有题目近似重复时是否仍然保存；为空或 false 时返回“数据已存在”（40003）由用户确认
+     */
+    private Boolean force;
+
     /**
      * 选项DTO
      * 注意：判断题仅传 [{"checked": false}] 或 [{"checked": true}]
@@ -0,0 +1,15 @@
+package org.can.water_law_exam_backend.dto.response.batch;
+
+import lombok.Data;
+
+@Data
+public class WarmUpStatusVO {
+    private Long batchId;
+    private String status;           // NONE-未预热；QUEUED-排队中；RUNNING-预热中；DONE-已完成；FAILED-失败；DISCARDED-队列满被丢弃
+    private Integer papersTotal;     // 试卷组内试卷套数
+    private Integer papersWarmed;    // 已预热的试卷套数
+    private Integer examinees;       // 已加载的报名人数
+    private String startTime;
+    private String finishTime;
+    private String message;
+}
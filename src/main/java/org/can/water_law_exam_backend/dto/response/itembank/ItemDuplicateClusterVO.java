@@ -0,0 +1,22 @@
+package org.can.water_law_exam_backend.dto.response.itembank;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 近似重复题目分组
+ */
+@Data
+public class ItemDuplicateClusterVO {
+
+    /**
+     * 组内题目数
+     */
+    private Integer size;
+
+    /**
+     * 组内题目（ID升序，首条为最早录入）
+     */
+    private List<ItemBankVO> items;
+}
@@ -0,0 +1,54 @@
+package org.can.water_law_exam_backend.dto.response.itembank;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 题库导入结果
+ */
+@Data
+public class ItemImportResultVO {
+
+    /**
+     * 成功导入的题目数（含近似重复的题目）
+     */
+    private Integer successCount;
+
+    /**
+     * 校验或写入失败而跳过的行数
+     */
+    private Integer failCount;
+
+    /**
+     * 与已有题目或本次导入的其他行近似重复的题目数，已导入，需人工核对
+     */
+    private Integer duplicateCount;
+
+    /**
+     * 题库查重索引尚未就绪、未与已有题目查重的题目数（仍与本次导入的其他行查重）
+     */
+    private Integer uncheckedCount;
+
+    /**
+     * 近似重复的行及对应题目（最多 100 条），索引未就绪时另含一条提示
+     */
+    private List<String> duplicates;
+
+    /**
+     * 导入结果摘要
+     */
+    public String summary() {
+        String summary = "成功导入" + successCount + "道题目";
+        if (failCount > 0) {
+            summary += "，失败" + failCount + "行";
+        }
+        if (duplicateCount > 0) {
+            summary += "，其中" + duplicateCount + "道存在近似重复的题目，请核对";
+        }
+        if (uncheckedCount != null && uncheckedCount > 0) {
+            summary += "，题库查重索引未就绪，" + uncheckedCount + "道未与已有题目查重";
+        }
+        return summary;
+    }
+}
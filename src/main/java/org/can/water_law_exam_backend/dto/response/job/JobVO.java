@@ -0,0 +1,23 @@
+package org.can.water_law_exam_backend.dto.response.job;
+
+import lombok.Data;
+
+/**
+ * 后台任务状态
+ */
+@Data
+public class JobVO {
+    private Long id;
+    private String type;
+    private Integer status;          // 0-排队 1-运行中 2-成功 3-失败 4-已取消
+    private String statusName;
+    private Integer progressDone;    // 已处理数量
+    private Integer progressTotal;   // 总数量，0 表示未知
+    private Integer successCount;
+    private Integer failCount;
+    private String message;          // 结果或错误信息
+    private Boolean hasFile;         // 是否有可下载的结果文件
+    private String createTime;
+    private String startTime;
+    private String finishTime;
+}
@@ -0,0 +1,21 @@
+package org.can.water_law_exam_backend.dto.response.monitor;
+
+import lombok.Data;
+
+/**
+ * 答题缓冲运行指标
+ */
+@Data
+public class AnswerBufferStatsVO {
+    private Boolean enabled;
+    private Integer depth;           // 当前缓冲中待落库的答案数
+    private Integer examinees;       // 当前缓冲中涉及的考生数
+    private Long accepted;           // 累计接收的保存请求数
+    private Long coalesced;          // 累计被合并（覆盖）的保存请求数
+    private Long flushCount;         // 累计落库批次数
+    private Long flushedRows;        // 累计落库答案数
+    private Long flushFailures;      // 累计落库失败次数
+    private Long lastFlushMillis;    // 最近一次落库耗时（毫秒）
+    private Long maxFlushMillis;     // 单次落库最大耗时（毫秒）
+    private Double avgFlushMillis;   // 单次落库平均耗时（毫秒）
+}
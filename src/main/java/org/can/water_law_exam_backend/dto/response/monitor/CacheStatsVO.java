@@ -0,0 +1,17 @@
+package org.can.water_law_exam_backend.dto.response.monitor;
+
+import lombok.Data;
+
+/**
+ * 本地缓存运行指标
+ */
+@Data
+public class CacheStatsVO {
+    private String name;
+    private Integer size;            // 当前缓存条目数
+    private Long version;            // 当前数据版本
+    private Long hits;               // 命中次数
+    private Long misses;             // 未命中（需加载）次数
+    private Long invalidations;      // 失效次数
+    private Double hitRate;          // 命中率
+}
@@ -0,0 +1,18 @@
+package org.can.water_law_exam_backend.dto.response.score;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批次批量评分结果
+ */
+@Data
+public class BatchGradingResultVO {
+    private Long batchId;
+    private Integer examinees;       // 评分的已交卷考生数
+    private Integer answers;         // 读取的答题记录数
+    private Integer judged;          // 回写判分结果的答题记录数
+    private Long elapsedMillis;      // 耗时（毫秒）
+    private List<Long> skippedUserIds; // 试卷序号在试卷组中不存在而未评分的考生
+}
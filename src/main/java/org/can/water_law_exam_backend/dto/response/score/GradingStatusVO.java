@@ -0,0 +1,20 @@
+package org.can.water_law_exam_backend.dto.response.score;
+
+import lombok.Data;
+
+/**
+ * 考生评分状态
+ */
+@Data
+public class GradingStatusVO {
+    private Long batchId;
+    private Long userId;
+    /**
+     * 评分状态：NONE-未交卷；PENDING-等待入队；QUEUED-排队中；RUNNING-评分中；
+     * RETRYING-等待重试；DONE-已完成；FAILED-失败
+     */
+    private String status;
+    private Integer attempts;        // 已尝试评分次数
+    private String message;          // 最近一次失败原因
+    private String submitTime;
+}
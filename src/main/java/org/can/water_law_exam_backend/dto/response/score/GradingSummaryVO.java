@@ -0,0 +1,15 @@
+package org.can.water_law_exam_backend.dto.response.score;
+
+import lombok.Data;
+
+/**
+ * 批次评分进度
+ */
+@Data
+public class GradingSummaryVO {
+    private Long batchId;
+    private Integer submitted;       // 已交卷人数
+    private Integer graded;          // 已生成成绩人数
+    private Integer inProgress;      // 排队、评分中或等待重试的人数
+    private Integer failed;          // 重试耗尽仍失败的人数
+}
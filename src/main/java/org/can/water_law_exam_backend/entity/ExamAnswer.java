@@ -14,9 +14,13 @@ public class ExamAnswer {
     private Long userId;
     private Long itemId;
     /**
-     * 答案内容（JSON数组，存储选项序号）
+     * 答案内容（旧格式，JSON数组字符串如 "[1, 4]"）；新记录只写 answerMask，仅用于兼容读取历史数据
      */
     private String answerContent;
+    /**
+     * 答案位掩码：选项 n 对应第 n 位（判断题 0=错误 记在第 0 位，评分时按题型映射）
+     */
+    private Integer answerMask;
     private Boolean isCorrect;
     private Double score;
     private LocalDateTime updateTime;
@@ -22,6 +22,10 @@ public class Examinee {
     private Boolean submitted;
     private LocalDateTime submitTime;
     private LocalDateTime createTime;
+    /**
+     * 所属考试批次（仅关联查询时填充，非表字段）
+     */
+    private ExamBatch batch;
 }
 
 
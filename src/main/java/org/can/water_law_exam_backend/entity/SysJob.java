@@ -0,0 +1,37 @@
+package org.can.water_law_exam_backend.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 后台任务实体，对应表 tb_sys_job
+ */
+@Data
+public class SysJob {
+    private Long id;
+    private String jobType;
+    /**
+     * 状态，见 {@link org.can.water_law_exam_backend.common.constant.JobStatusEnum}
+     */
+    private Integer status;
+    private Integer progressDone;
+    private Integer progressTotal;
+    private Integer successCount;
+    private Integer failCount;
+    private String message;
+    private String resultFile;
+    private Long creatorId;
+    /**
+     * 执行任务的节点标识
+     */
+    private String nodeId;
+    /**
+     * 执行任务的节点本次启动的标识，用于区分节点重启前提交的任务
+     */
+    private String bootId;
+    private LocalDateTime createTime;
+    private LocalDateTime startTime;
+    private LocalDateTime finishTime;
+    private LocalDateTime updateTime;
+}
@@ -4,6 +4,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.can.water_law_exam_backend.entity.AccountUser;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -23,6 +24,14 @@ public interface AccountUserMapper {
      */
     AccountUser selectByIdNo(@Param("idNo") String idNo);
 
+    /**
+     * 根据身份证号批量查询学员ID
+     *
+     * @param idNos 身份证号集合（非空）
+     * @return 学员列表（仅含 id、id_no）
+     */
+    List<AccountUser> selectByIdNos(@Param("idNos") Collection<String> idNos);
+
     /**
      * 根据身份证号查询学员（别名方法，用于UserDetailsService）
      *
@@ -58,6 +67,14 @@ public interface AccountUserMapper {
      */
     int insert(AccountUser accountUser);
 
+    /**
+     * 批量新增学员（回填自增ID）
+     *
+     * @param list 学员列表
+     * @return 影响行数
+     */
+    int insertBatch(@Param("list") List<AccountUser> list);
+
     /**
      * 更新学员信息
      *
@@ -4,6 +4,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.can.water_law_exam_backend.entity.Admin;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -31,6 +32,14 @@ public interface AdminMapper {
      */
     Admin selectById(@Param("id") Long id);
 
+    /**
+     * 根据ID批量查询管理员ID与姓名
+     *
+     * @param ids 管理员ID集合（非空）
+     * @return 管理员列表（仅含 id、name）
+     */
+    List<Admin> selectByIds(@Param("ids") Collection<Long> ids);
+
     Admin selectByName(@Param("name") String name);
 
     /**
@@ -2,6 +2,7 @@ package org.can.water_law_exam_backend.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 import org.can.water_law_exam_backend.entity.ExamAnswer;
 
 import java.util.List;
@@ -11,16 +12,29 @@ public interface ExamAnswerMapper {
 
     int insert(ExamAnswer entity);
 
-    int deleteByBatchUserAndItem(@Param("batchId") Long batchId,
-                                 @Param("userId") Long userId,
-                                 @Param("itemId") Long itemId);
+    /**
+     * 批量保存答题记录：按唯一键 (batch_id, user_id, item_id) 插入或覆盖，单条语句完成；
+     * 已交卷考生的答案被丢弃（其他节点残留的会话或缓冲不会覆盖交卷结果）
+     *
+     * @return 影响行数
+     */
+    int upsertBatch(@Param("list") List<ExamAnswer> list);
+
+    /**
+     * 交卷事务内的最终写入，不检查交卷状态；只能在同一事务中 markSubmitted 成功之后调用
+     */
+    int upsertBatchOnSubmit(@Param("list") List<ExamAnswer> list);
 
     List<ExamAnswer> selectByBatchAndUser(@Param("batchId") Long batchId,
                                           @Param("userId") Long userId);
 
-    ExamAnswer selectById(@Param("id") Long id);
+    /**
+     * 流式读取批次全部答题记录，按 (user_id, item_id) 排序，逐行回调，不在内存中累积结果集
+     */
+    void streamByBatch(@Param("batchId") Long batchId, ResultHandler<ExamAnswer> handler);
 
-    int update(ExamAnswer entity);
+    /**
+     * 批量回写判分结果（按主键）
+     */
+    int updateScoreBatch(@Param("list") List<ExamAnswer> list);
 }
-
-
@@ -37,6 +37,15 @@ public interface ExamBatchMapper {
      * 已发布、未分发试卷、考试未开始
      */
     List<ExamBatch> selectJoinable(@Param("now") LocalDateTime now);
-}
 
+    /**
+     * 查询结束时间在 (from, to] 区间内的批次
+     */
+    List<ExamBatch> selectEndedBetween(@Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
 
+    /**
+     * 查询结束时间不晚于 to、且仍有已交卷未评分考生的批次
+     */
+    List<ExamBatch> selectEndedWithUngraded(@Param("to") LocalDateTime to);
+}
@@ -21,6 +21,11 @@ public interface ExamScoreMapper {
                                            @Param("c") Integer category);
 
     List<ExamScore> selectPassByBatch(@Param("batchId") Long batchId);
-}
 
+    int countByBatch(@Param("batchId") Long batchId);
 
+    /**
+     * 批量保存成绩：按唯一键 (batch_id, user_id) 插入或覆盖
+     */
+    int upsertBatch(@Param("list") List<ExamScore> list);
+}
@@ -4,7 +4,10 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.can.water_law_exam_backend.entity.Examinee;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface ExamineeMapper {
@@ -21,6 +24,11 @@ public interface ExamineeMapper {
                                  @Param("key") String key,
                                  @Param("status") Integer status);
 
+    /**
+     * 查询批次报名状态（仅报名表字段，不关联用户与单位，用于构建报名索引）
+     */
+    List<Examinee> selectRegistrationsByBatch(@Param("batchId") Long batchId);
+
     /**
      * 查询指定用户的所有报名记录
      */
@@ -32,6 +40,12 @@ public interface ExamineeMapper {
     List<Examinee> selectByUserAndBatch(@Param("userId") Long userId,
                                         @Param("batchId") Long batchId);
 
+    /**
+     * 查询指定用户已报名的批次ID（限定在给定批次范围内）
+     */
+    List<Long> selectBatchIdsByUser(@Param("userId") Long userId,
+                                    @Param("batchIds") Collection<Long> batchIds);
+
     /**
      * 查询指定用户所有未提交的考试记录
      */
@@ -46,6 +60,39 @@ public interface ExamineeMapper {
     int updateReviewStatus(@Param("batchId") Long batchId,
                            @Param("ids") List<Long> userIds,
                            @Param("status") Integer status);
-}
 
+    /**
+     * 批量更新试卷序号（按 userId 逐条对应）；已开始考试或已交卷的考生不更新
+     */
+    int updatePapersNoBatch(@Param("batchId") Long batchId,
+                            @Param("list") List<Examinee> list);
+
+    /**
+     * 统计批次内各试卷序号的审核通过人数，每行包含 papersNo 与 cnt
+     */
+    List<Map<String, Object>> countApprovedByPapersNo(@Param("batchId") Long batchId);
+
+    /**
+     * 交卷：仅在已开始且未交卷时标记交卷，返回受影响行数（0 表示重复交卷或未开始）
+     */
+    int markSubmitted(@Param("batchId") Long batchId,
+                      @Param("userId") Long userId,
+                      @Param("submitTime") LocalDateTime submitTime);
+
+    /**
+     * 查询已交卷但尚无成绩记录的考生（评分补偿），按主键升序取 afterId 之后的 limit 条
+     */
+    List<Examinee> selectSubmittedWithoutScore(@Param("afterId") Long afterId,
+                                               @Param("limit") Integer limit);
+
+    /**
+     * 统计指定批次已交卷人数
+     */
+    int countSubmittedByBatch(@Param("batchId") Long batchId);
 
+    /**
+     * 查询指定用户可参加的考试（含批次信息）：审核通过、已发布且试卷已分发、考试未结束
+     */
+    List<Examinee> selectEligibleWithBatch(@Param("userId") Long userId,
+                                           @Param("now") LocalDateTime now);
+}
@@ -4,6 +4,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.can.water_law_exam_backend.entity.ItemBank;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -20,6 +21,14 @@ public interface ItemBankMapper {
      */
     int insert(ItemBank itemBank);
 
+    /**
+     * 批量插入题目（回填自增ID）
+     *
+     * @param list 题目列表
+     * @return 影响行数
+     */
+    int insertBatch(@Param("list") List<ItemBank> list);
+
     /**
      * 更新题目
      *
@@ -52,6 +61,14 @@ public interface ItemBankMapper {
      */
     ItemBank selectById(@Param("id") Long id);
 
+    /**
+     * 根据ID批量查询题目（包含题型和分类名称）
+     *
+     * @param ids 题目ID集合（非空）
+     * @return 题目列表
+     */
+    List<ItemBank> selectByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * 分页查询题目列表（使用PageHelper）
      *
@@ -64,6 +81,13 @@ public interface ItemBankMapper {
                                  @Param("typeId") Integer typeId,
                                  @Param("key") String key);
 
+    /**
+     * 查询全部题目的检索字段（ID、题型、分类、题干、创建时间），用于构建检索索引
+     *
+     * @return 题目列表（按ID升序）
+     */
+    List<ItemBank> selectAllForIndex();
+
     /**
      * 按题型随机抽取题目ID
      *
@@ -74,15 +98,9 @@ public interface ItemBankMapper {
     List<Long> selectRandomByType(@Param("typeId") Integer typeId, @Param("limit") Integer limit);
 
     /**
-     * 统计某题型题目数量
+     * 返回某题型全部题目ID（加载题目ID池）
      */
-    int countByType(@Param("typeId") Integer typeId);
+    List<Long> selectIdsByType(@Param("typeId") Integer typeId);
 
-    /**
-     * 按题型按主键顺序分页返回题目ID（用于随机偏移采样）
-     */
-    List<Long> selectIdsByTypeWithOffset(@Param("typeId") Integer typeId,
-                                         @Param("limit") Integer limit,
-                                         @Param("offset") Integer offset);
 }
 
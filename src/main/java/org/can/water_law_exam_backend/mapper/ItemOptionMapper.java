@@ -4,6 +4,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.can.water_law_exam_backend.entity.ItemOption;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -43,5 +44,19 @@ public interface ItemOptionMapper {
      * @return 选项列表
      */
     List<ItemOption> selectByItemId(@Param("itemId") Long itemId);
-}
 
+    /**
+     * 根据题目ID批量查询选项
+     *
+     * @param itemIds 题目ID列表
+     * @return 选项列表（按题目ID、选项序号排序）
+     */
+    List<ItemOption> selectByItemIds(@Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * 查询全部选项的题目ID与标题，用于构建检索索引
+     *
+     * @return 选项列表（按题目ID、选项序号排序）
+     */
+    List<ItemOption> selectAllTitles();
+}
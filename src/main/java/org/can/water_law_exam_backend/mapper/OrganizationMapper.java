@@ -24,6 +24,13 @@ public interface OrganizationMapper {
      */
     List<Organization> selectByParentIdAndEnabled(@Param("pId") Long pId, @Param("enabled") Boolean enabled);
 
+    /**
+     * 查询全部单位（含城市名称，ID升序）
+     *
+     * @return 单位列表
+     */
+    List<Organization> selectAll();
+
     /**
      * 根据城市ID获取单位列表
      *
@@ -9,6 +9,7 @@ import java.util.List;
 @Mapper
 public interface PapersMapper {
     int insert(Papers entity);
+    int insertBatch(@Param("list") List<Papers> list);
     int deleteBatch(@Param("ids") List<Long> ids);
     Papers selectById(@Param("id") Long id);
     List<Papers> selectByPage(@Param("key") String key);
@@ -0,0 +1,50 @@
+package org.can.water_law_exam_backend.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.can.water_law_exam_backend.entity.SysJob;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface SysJobMapper {
+
+    int insert(SysJob job);
+
+    SysJob selectById(@Param("id") Long id);
+
+    /**
+     * 标记为运行中并记录开始时间
+     */
+    int markRunning(@Param("id") Long id);
+
+    /**
+     * 更新进度与计数
+     */
+    int updateProgress(SysJob job);
+
+    /**
+     * 记录最终状态、计数、信息与结果文件
+     */
+    int finish(SysJob job);
+
+    /**
+     * 将本节点上次启动时提交、仍在排队或运行中的任务标记为失败（节点重启后内存中的任务已丢失）
+     * 其他节点的任务及本次启动后提交的任务不受影响
+     *
+     * @param nodeId 节点标识
+     * @param bootId 本次启动的标识
+     * @return 影响行数
+     */
+    int failUnfinished(@Param("nodeId") String nodeId,
+                       @Param("bootId") String bootId,
+                       @Param("message") String message);
+
+    /**
+     * 查询在指定时间之前结束的任务
+     */
+    List<SysJob> selectFinishedBefore(@Param("time") LocalDateTime time);
+
+    int deleteBatch(@Param("ids") List<Long> ids);
+}
@@ -3,6 +3,7 @@ package org.can.water_law_exam_backend.service;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import lombok.RequiredArgsConstructor;
+import org.can.water_law_exam_backend.cache.AdminNameCache;
 import org.can.water_law_exam_backend.dto.request.admin.AdminAddRequest;
 import org.can.water_law_exam_backend.dto.request.admin.AdminPageRequest;
 import org.can.water_law_exam_backend.dto.request.admin.AdminUpdateRequest;
@@ -11,6 +12,7 @@ import org.can.water_law_exam_backend.dto.response.common.PageResult;
 import org.can.water_law_exam_backend.entity.Admin;
 import org.can.water_law_exam_backend.exception.BusinessException;
 import org.can.water_law_exam_backend.mapper.AdminMapper;
+import org.can.water_law_exam_backend.util.TransactionUtil;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,6 +28,7 @@ public class AdminService {
 
     private final AdminMapper adminMapper;
     private final PasswordEncoder passwordEncoder;
+    private final AdminNameCache adminNameCache;
 
     private static final Pattern PWD_PATTERN = Pattern.compile("^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[^0-9a-zA-Z]).{6,20}$");
 
@@ -53,6 +56,7 @@ public class AdminService {
         if (rows == 0 ) {
             throw new BusinessException(1, "添加管理员失败");
         }
+        TransactionUtil.afterCommit(() -> adminNameCache.invalidate(admin.getId()));
         return admin.getId();
     }
 
@@ -67,6 +71,7 @@ public class AdminService {
         if (r == 0) {
             throw new BusinessException(404, "管理员不存在");
         }
+        adminNameCache.invalidate(request.getId());
         // 可选修改密码
         if (StringUtils.hasText(request.getPwd())) {
             if (!PWD_PATTERN.matcher(request.getPwd()).matches()) {
@@ -94,6 +99,7 @@ public class AdminService {
             throw new BusinessException(400, "请选择要删除的数据");
         }
         adminMapper.deleteBatch(ids);
+        adminNameCache.invalidate(ids);
     }
 
     public boolean toggleEnabled(Long id) {
@@ -0,0 +1,234 @@
+package org.can.water_law_exam_backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.cache.ExamSessionCache;
+import org.can.water_law_exam_backend.cache.PaperAnswerKeyCache;
+import org.can.water_law_exam_backend.dto.response.score.BatchGradingResultVO;
+import org.can.water_law_exam_backend.entity.*;
+import org.can.water_law_exam_backend.exception.BusinessException;
+import org.can.water_law_exam_backend.mapper.*;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 批次批量评分服务
+ * 标准答案取自按试卷组缓存的编译结果，按 (user_id, item_id) 顺序流式读取整个批次的答题记录，
+ * 逐个考生并行评分后批量写入成绩与判分结果。
+ * 可由管理端触发，也会在考试结束且超过允许交卷时间后自动执行。
+ */
+@Slf4j
+@Service
+public class BatchGradingService {
+
+    /**
+     * 单条批量语句最多包含的记录数
+     */
+    private static final int WRITE_CHUNK = 500;
+
+    private final ExamBatchMapper examBatchMapper;
+    private final ExamineeMapper examineeMapper;
+    private final ExamAnswerMapper examAnswerMapper;
+    private final ExamScoreMapper examScoreMapper;
+    private final PaperAnswerKeyCache paperAnswerKeyCache;
+    private final ExamAnswerBuffer examAnswerBuffer;
+    private final ThreadPoolTaskExecutor gradingExecutor;
+    private final ThreadPoolTaskExecutor batchGradingExecutor;
+
+    /**
+     * 正在批量评分的批次，同一批次同时只执行一次
+     */
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 上次检查已结束批次的时间；为空表示启动后尚未检查过
+     */
+    private volatile LocalDateTime lastEndCheck;
+
+    public BatchGradingService(ExamBatchMapper examBatchMapper,
+                               ExamineeMapper examineeMapper,
+                               ExamAnswerMapper examAnswerMapper,
+                               ExamScoreMapper examScoreMapper,
+                               PaperAnswerKeyCache paperAnswerKeyCache,
+                               ExamAnswerBuffer examAnswerBuffer,
+                               @Qualifier("gradingExecutor") ThreadPoolTaskExecutor gradingExecutor,
+                               @Qualifier("batchGradingExecutor") ThreadPoolTaskExecutor batchGradingExecutor) {
+        this.examBatchMapper = examBatchMapper;
+        this.examineeMapper = examineeMapper;
+        this.examAnswerMapper = examAnswerMapper;
+        this.examScoreMapper = examScoreMapper;
+        this.paperAnswerKeyCache = paperAnswerKeyCache;
+        this.examAnswerBuffer = examAnswerBuffer;
+        this.gradingExecutor = gradingExecutor;
+        this.batchGradingExecutor = batchGradingExecutor;
+    }
+
+    /**
+     * 对批次内所有已交卷考生评分
+     */
+    public BatchGradingResultVO gradeBatch(Long batchId) {
+        if (!running.add(batchId)) {
+            throw new BusinessException(1, "该批次正在批量评分，请稍后再试");
+        }
+        try {
+            return doGradeBatch(batchId);
+        } finally {
+            running.remove(batchId);
+        }
+    }
+
+    /**
+     * 考试结束且超过允许交卷时间后，自动对批次批量评分
+     * 启动后的首次检查补评所有已结束且仍有未评分考生的批次（含停机期间结束的批次），
+     * 之后只检查上次检查以来结束的批次。
+     */
+    @Scheduled(initialDelay = 60_000, fixedDelay = 60_000)
+    public void gradeEndedBatches() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime to = now.minusMinutes(ExamSessionCache.SUBMIT_DELAY_MINUTES);
+        LocalDateTime last = lastEndCheck;
+        List<ExamBatch> ended;
+        try {
+            ended = last == null
+                    ? examBatchMapper.selectEndedWithUngraded(to)
+                    : examBatchMapper.selectEndedBetween(last.minusMinutes(ExamSessionCache.SUBMIT_DELAY_MINUTES), to);
+        } catch (Exception e) {
+            log.warn("查询已结束批次失败：{}", e.getMessage());
+            return;
+        }
+        lastEndCheck = now;
+        if (last == null && !ended.isEmpty()) {
+            log.info("启动后补评已结束批次{}个", ended.size());
+        }
+        for (ExamBatch b : ended) {
+            try {
+                gradingExecutor.execute(() -> {
+                    try {
+                        gradeBatch(b.getId());
+                    } catch (Exception e) {
+                        log.error("批次{}考试结束批量评分失败：{}", b.getId(), e.getMessage(), e);
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                // 未评分的考生由单个评分的补偿任务处理
+                log.warn("评分队列已满，批次{}考试结束批量评分未执行", b.getId());
+            }
+        }
+    }
+
+    private BatchGradingResultVO doGradeBatch(Long batchId) {
+        long begin = System.currentTimeMillis();
+        ExamBatch batch = examBatchMapper.selectById(batchId);
+        if (batch == null) {
+            throw new BusinessException(1, "考试批次不存在");
+        }
+        Map<Long, Examinee> submitted = new HashMap<>();
+        for (Examinee e : examineeMapper.selectByBatch(batchId, null, null)) {
+            if (Boolean.TRUE.equals(e.getSubmitted())) {
+                submitted.put(e.getUserId(), e);
+            }
+        }
+        BatchGradingResultVO vo = new BatchGradingResultVO();
+        vo.setBatchId(batchId);
+        vo.setExaminees(submitted.size());
+        vo.setSkippedUserIds(new ArrayList<>());
+        if (submitted.isEmpty()) {
+            vo.setAnswers(0);
+            vo.setJudged(0);
+            vo.setElapsedMillis(System.currentTimeMillis() - begin);
+            return vo;
+        }
+
+        Map<Integer, PaperAnswerKey> keys = paperAnswerKeyCache.group(batch.getPapersId());
+        // 落库答题缓冲中尚未写入的答案
+        examAnswerBuffer.flushAll();
+
+        // 流式读取答题记录，每读完一个考生即提交并行评分
+        List<CompletableFuture<ScoreService.Graded>> futures = new ArrayList<>(submitted.size());
+        Set<Long> seen = new HashSet<>();
+        int[] answerCount = {0};
+        List<ExamAnswer> current = new ArrayList<>();
+        examAnswerMapper.streamByBatch(batchId, ctx -> {
+            ExamAnswer a = ctx.getResultObject();
+            answerCount[0]++;
+            if (!current.isEmpty() && !current.get(0).getUserId().equals(a.getUserId())) {
+                submitGrading(submitted, keys, new ArrayList<>(current), futures, seen, vo.getSkippedUserIds());
+                current.clear();
+            }
+            current.add(a);
+        });
+        if (!current.isEmpty()) {
+            submitGrading(submitted, keys, current, futures, seen, vo.getSkippedUserIds());
+        }
+        // 已交卷但没有任何答题记录的考生按0分计
+        for (Examinee ex : submitted.values()) {
+            if (!seen.contains(ex.getUserId())) {
+                PaperAnswerKey key = keyOf(keys, ex, vo.getSkippedUserIds());
+                if (key == null) {
+                    continue;
+                }
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> ScoreService.grade(key, ex, Collections.emptyList(), ex.getSubmitTime()), batchGradingExecutor));
+            }
+        }
+
+        List<ExamScore> scores = new ArrayList<>(futures.size());
+        List<ExamAnswer> judged = new ArrayList<>();
+        for (CompletableFuture<ScoreService.Graded> f : futures) {
+            ScoreService.Graded g = f.join();
+            scores.add(g.score());
+            judged.addAll(g.judged());
+        }
+        for (int from = 0; from < judged.size(); from += WRITE_CHUNK) {
+            examAnswerMapper.updateScoreBatch(judged.subList(from, Math.min(from + WRITE_CHUNK, judged.size())));
+        }
+        for (int from = 0; from < scores.size(); from += WRITE_CHUNK) {
+            examScoreMapper.upsertBatch(scores.subList(from, Math.min(from + WRITE_CHUNK, scores.size())));
+        }
+
+        vo.setExaminees(scores.size());
+        vo.setAnswers(answerCount[0]);
+        vo.setJudged(judged.size());
+        vo.setElapsedMillis(System.currentTimeMillis() - begin);
+        log.info("批次{}批量评分完成：考生{}人，跳过{}人，答题记录{}条，耗时{}ms", batchId, vo.getExaminees(),
+                vo.getSkippedUserIds().size(), vo.getAnswers(), vo.getElapsedMillis());
+        return vo;
+    }
+
+    private void submitGrading(Map<Long, Examinee> submitted, Map<Integer, PaperAnswerKey> keys,
+                               List<ExamAnswer> answers, List<CompletableFuture<ScoreService.Graded>> futures, Set<Long> seen,
+                               List<Long> skipped) {
+        Examinee ex = submitted.get(answers.get(0).getUserId());
+        if (ex == null) {
+            // 未交卷考生不评分
+            return;
+        }
+        seen.add(ex.getUserId());
+        PaperAnswerKey key = keyOf(keys, ex, skipped);
+        if (key == null) {
+            return;
+        }
+        futures.add(CompletableFuture.supplyAsync(
+                () -> ScoreService.grade(key, ex, answers, ex.getSubmitTime()), batchGradingExecutor));
+    }
+
+    /**
+     * 考生未分配试卷序号时使用组内第一套试卷，与单个考生评分一致
+     * 试卷序号在试卷组中不存在时记为跳过并返回 null，不影响批次内其他考生
+     */
+    private PaperAnswerKey keyOf(Map<Integer, PaperAnswerKey> keys, Examinee ex, List<Long> skipped) {
+        PaperAnswerKey key = ex.getPapersNo() == null ? keys.values().iterator().next() : keys.get(ex.getPapersNo());
+        if (key == null) {
+            log.warn("批次{}考生{}的试卷序号{}在试卷组中不存在，跳过评分", ex.getBatchId(), ex.getUserId(), ex.getPapersNo());
+            skipped.add(ex.getUserId());
+        }
+        return key;
+    }
+}
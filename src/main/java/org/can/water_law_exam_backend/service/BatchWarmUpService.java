@@ -0,0 +1,154 @@
+package org.can.water_law_exam_backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.cache.ExamRosterCache;
+import org.can.water_law_exam_backend.cache.PaperAnswerKeyCache;
+import org.can.water_law_exam_backend.config.AsyncConfig;
+import org.can.water_law_exam_backend.dto.response.batch.WarmUpStatusVO;
+import org.can.water_law_exam_backend.entity.ExamBatch;
+import org.can.water_law_exam_backend.entity.Papers;
+import org.can.water_law_exam_backend.mapper.ExamBatchMapper;
+import org.can.water_law_exam_backend.mapper.PapersMapper;
+import org.can.water_law_exam_backend.util.TransactionUtil;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 考试批次预热服务
+ * 分发试卷后在后台加载批次试卷组内所有试卷的考生端内容、编译后的标准答案以及报名索引，
+ * 避免开考瞬间大量考生同时触发数据库加载。
+ */
+@Slf4j
+@Service
+public class BatchWarmUpService {
+
+    private final ExamBatchMapper examBatchMapper;
+    private final PapersMapper papersMapper;
+    private final PapersService papersService;
+    private final ExamRosterCache examRosterCache;
+    private final PaperAnswerKeyCache paperAnswerKeyCache;
+    private final ThreadPoolTaskExecutor warmUpExecutor;
+
+    private static final DateTimeFormatter DATETIME_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final ConcurrentHashMap<Long, WarmUpStatusVO> statuses = new ConcurrentHashMap<>();
+
+    public BatchWarmUpService(ExamBatchMapper examBatchMapper,
+                              PapersMapper papersMapper,
+                              PapersService papersService,
+                              ExamRosterCache examRosterCache,
+                              PaperAnswerKeyCache paperAnswerKeyCache,
+                              @Qualifier("warmUpExecutor") ThreadPoolTaskExecutor warmUpExecutor) {
+        this.examBatchMapper = examBatchMapper;
+        this.papersMapper = papersMapper;
+        this.papersService = papersService;
+        this.examRosterCache = examRosterCache;
+        this.paperAnswerKeyCache = paperAnswerKeyCache;
+        this.warmUpExecutor = warmUpExecutor;
+    }
+
+    /**
+     * 在当前事务提交后提交预热任务；事务回滚时不记录状态
+     */
+    public void warmUpAfterCommit(Long batchId) {
+        TransactionUtil.afterCommit(() -> {
+            WarmUpStatusVO status = new WarmUpStatusVO();
+            status.setBatchId(batchId);
+            status.setStatus("QUEUED");
+            status.setPapersWarmed(0);
+            status.setExaminees(0);
+            status.setStartTime(LocalDateTime.now().format(DATETIME_FMT));
+            statuses.put(batchId, status);
+            warmUpExecutor.execute(new WarmUpTask(batchId, status));
+        });
+    }
+
+    /**
+     * 清除预热状态（收回试卷、取消发布时调用）
+     */
+    public void clear(Long batchId) {
+        statuses.remove(batchId);
+    }
+
+    public WarmUpStatusVO status(Long batchId) {
+        WarmUpStatusVO status = statuses.get(batchId);
+        if (status == null) {
+            status = new WarmUpStatusVO();
+            status.setBatchId(batchId);
+            status.setStatus("NONE");
+        }
+        return status;
+    }
+
+    private void warmUp(Long batchId, WarmUpStatusVO status) {
+        long begin = System.currentTimeMillis();
+        status.setStatus("RUNNING");
+        try {
+            ExamBatch batch = examBatchMapper.selectById(batchId);
+            if (batch == null) {
+                fail(status, "考试批次不存在");
+                return;
+            }
+            Long groupId = batch.getPapersId();
+            List<Papers> papersList = papersMapper.selectByGroupId(groupId);
+            status.setPapersTotal(papersList.size());
+            // 交卷评分与批量评分使用的标准答案，整组一次编译
+            paperAnswerKeyCache.group(groupId);
+            for (Papers p : papersList) {
+                if (statuses.get(batchId) != status) {
+                    log.info("批次{}预热已取消", batchId);
+                    return;
+                }
+                // 考生端试卷内容
+                papersService.content(groupId, p.getPapersNo(), false);
+                status.setPapersWarmed(status.getPapersWarmed() + 1);
+            }
+            status.setExaminees(examRosterCache.preload(batchId));
+            status.setStatus("DONE");
+            status.setFinishTime(LocalDateTime.now().format(DATETIME_FMT));
+            log.info("批次{}预热完成：试卷{}套，报名{}人，耗时{}ms", batchId, status.getPapersWarmed(),
+                    status.getExaminees(), System.currentTimeMillis() - begin);
+        } catch (Exception e) {
+            log.error("批次{}预热失败：{}", batchId, e.getMessage(), e);
+            fail(status, e.getMessage());
+        }
+    }
+
+    private void fail(WarmUpStatusVO status, String message) {
+        status.setStatus("FAILED");
+        status.setMessage(message);
+        status.setFinishTime(LocalDateTime.now().format(DATETIME_FMT));
+    }
+
+    /**
+     * 预热任务；队列满被丢弃时把状态标记为 DISCARDED
+     */
+    private final class WarmUpTask implements AsyncConfig.DiscardableTask {
+        private final Long batchId;
+        private final WarmUpStatusVO status;
+
+        private WarmUpTask(Long batchId, WarmUpStatusVO status) {
+            this.batchId = batchId;
+            this.status = status;
+        }
+
+        @Override
+        public void run() {
+            warmUp(batchId, status);
+        }
+
+        @Override
+        public void onDiscard() {
+            status.setStatus("DISCARDED");
+            status.setMessage("预热队列已满，任务被丢弃，数据将在首次访问时加载");
+            status.setFinishTime(LocalDateTime.now().format(DATETIME_FMT));
+            log.warn("批次{}预热任务被丢弃", batchId);
+        }
+    }
+}
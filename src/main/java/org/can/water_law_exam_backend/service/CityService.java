@@ -4,6 +4,7 @@ import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.cache.ReferenceDataCache;
 import org.can.water_law_exam_backend.dto.request.city.CityAddRequest;
 import org.can.water_law_exam_backend.dto.request.city.CityPageRequest;
 import org.can.water_law_exam_backend.dto.request.city.CityUpdateRequest;
@@ -11,6 +12,7 @@ import org.can.water_law_exam_backend.dto.response.common.PageResult;
 import org.can.water_law_exam_backend.entity.City;
 import org.can.water_law_exam_backend.exception.BusinessException;
 import org.can.water_law_exam_backend.mapper.CityMapper;
+import org.can.water_law_exam_backend.util.TransactionUtil;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,6 +30,7 @@ import java.util.List;
 public class CityService {
 
     private final CityMapper cityMapper;
+    private final ReferenceDataCache referenceDataCache;
 
     /**
      * 获取所有城市列表
@@ -35,7 +38,7 @@ public class CityService {
      * @return 城市列表
      */
     public List<City> getAllCities() {
-        return cityMapper.selectAll();
+        return referenceDataCache.cities();
     }
 
     /**
@@ -70,7 +73,7 @@ public class CityService {
      * @return 城市信息
      */
     public City getCityById(Integer id) {
-        City city = cityMapper.selectById(id);
+        City city = referenceDataCache.city(id);
         if (city == null) {
             throw new BusinessException(404, "城市不存在");
         }
@@ -102,6 +105,7 @@ public class CityService {
             throw new BusinessException(500, "添加城市失败");
         }
 
+        TransactionUtil.afterCommit(referenceDataCache::refreshCities);
         log.info("添加城市成功：{}", cityName);
     }
 
@@ -135,6 +139,7 @@ public class CityService {
             throw new BusinessException(500, "更新城市失败");
         }
 
+        TransactionUtil.afterCommit(referenceDataCache::refreshCities);
         log.info("更新城市成功：ID={}, 新名称={}", request.getCityId(), newCityName);
     }
 
@@ -163,6 +168,7 @@ public class CityService {
             throw new BusinessException(500, "删除城市失败");
         }
 
+        TransactionUtil.afterCommit(referenceDataCache::refreshCities);
         log.info("删除城市成功：ID={}, 名称={}", id, city.getCityName());
     }
 
@@ -196,6 +202,7 @@ public class CityService {
             throw new BusinessException(500, "批量删除城市失败");
         }
 
+        TransactionUtil.afterCommit(referenceDataCache::refreshCities);
         log.info("批量删除城市成功：删除数量={}", rows);
     }
 }
\ No newline at end of file
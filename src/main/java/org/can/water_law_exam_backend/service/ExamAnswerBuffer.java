@@ -0,0 +1,278 @@
+package org.can.water_law_exam_backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.config.ExamProperties;
+import org.can.water_law_exam_backend.dto.response.monitor.AnswerBufferStatsVO;
+import org.can.water_law_exam_backend.entity.ExamAnswer;
+import org.can.water_law_exam_backend.exception.BusinessException;
+import org.can.water_law_exam_backend.mapper.ExamAnswerMapper;
+import org.can.water_law_exam_backend.util.TransactionUtil;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 答题写回缓冲
+ * 考试过程中的实时保存先进入本节点内存，按 (batchId, userId, itemId) 合并同一题的多次保存，
+ * 再由定时任务以多行语句批量写入 tb_exam_answer。评分前需调用 {@link #flush(Long, Long)}
+ * 强制落库该考生的缓冲答案；交卷时先调用 {@link #close(Long, Long)} 关闭该考生的缓冲，
+ * 此后到达的保存请求被拒绝，再由 {@link #flushOnSubmit} 完成最终写入。
+ * 其他节点上的缓冲不受本节点关闭的影响，其写入由 upsertBatch 在语句内按交卷状态丢弃。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExamAnswerBuffer {
+
+    /**
+     * 已关闭的考生缓冲保留时长（毫秒），足够覆盖交卷前已通过校验、尚未写入缓冲的保存请求
+     */
+    private static final long CLOSED_RETENTION_MS = 10 * 60 * 1000L;
+
+    private final ExamAnswerMapper examAnswerMapper;
+    private final ExamProperties examProperties;
+
+    /**
+     * 考生 -> (题目ID -> 最新答案)；内层 Map 只在外层 compute 中读写
+     */
+    private final ConcurrentHashMap<ExamineeKey, Map<Long, ExamAnswer>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 已交卷（或正在交卷）的考生 -> 关闭时间；在 pending 的 compute 中检查，与交卷时的取出互斥
+     */
+    private final ConcurrentHashMap<ExamineeKey, Long> closed = new ConcurrentHashMap<>();
+
+    /**
+     * 串行化落库，避免旧答案在新答案之后写入
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+    private final AtomicLong totalFlushMillis = new AtomicLong();
+    private final AtomicLong maxFlushMillis = new AtomicLong();
+    private volatile long lastFlushMillis;
+
+    public boolean isEnabled() {
+        return examProperties.getAnswerBuffer().isEnabled();
+    }
+
+    /**
+     * 接收一条答案，同一考生同一题目只保留最新一次
+     *
+     * @throws BusinessException 该考生已交卷或正在交卷
+     */
+    public void offer(ExamAnswer answer) {
+        boolean[] rejected = new boolean[1];
+        pending.compute(new ExamineeKey(answer.getBatchId(), answer.getUserId()), (k, items) -> {
+            if (closed.containsKey(k)) {
+                rejected[0] = true;
+                return items;
+            }
+            if (items == null) {
+                items = new HashMap<>();
+            }
+            if (items.put(answer.getItemId(), answer) == null) {
+                depth.incrementAndGet();
+            } else {
+                coalescedCount.incrementAndGet();
+            }
+            return items;
+        });
+        if (rejected[0]) {
+            throw new BusinessException(1, "试卷已提交，不能继续答题");
+        }
+        acceptedCount.incrementAndGet();
+    }
+
+    /**
+     * 关闭考生的缓冲，之后的 {@link #offer} 被拒绝；须在交卷最终落库之前调用。
+     * 关闭标记在 pending 的同一键上检查，已进入缓冲的答案都会被随后的 flush 取出。
+     */
+    public void close(Long batchId, Long userId) {
+        closed.put(new ExamineeKey(batchId, userId), System.currentTimeMillis());
+    }
+
+    /**
+     * 交卷失败（事务回滚）时重新开放考生的缓冲
+     */
+    public void reopen(Long batchId, Long userId) {
+        closed.remove(new ExamineeKey(batchId, userId));
+    }
+
+    /**
+     * 强制落库指定考生的全部缓冲答案
+     */
+    public void flush(Long batchId, Long userId) {
+        flush(batchId, userId, Collections.emptyList(), false);
+    }
+
+    /**
+     * 交卷时的最终写入：该考生的缓冲答案与 overrides 合并后写入，同一题目以 overrides 为准。
+     * 须在同一事务中 markSubmitted 成功之后调用，写入不再检查交卷状态；
+     * 事务回滚时取出的缓冲答案重新入队（已写入的部分随事务撤销）
+     */
+    public void flushOnSubmit(Long batchId, Long userId, List<ExamAnswer> overrides) {
+        flush(batchId, userId, overrides, true);
+    }
+
+    private void flush(Long batchId, Long userId, List<ExamAnswer> overrides, boolean onSubmit) {
+        flushLock.lock();
+        try {
+            Map<Long, ExamAnswer> items = take(new ExamineeKey(batchId, userId));
+            if (onSubmit && items != null) {
+                List<ExamAnswer> taken = new ArrayList<>(items.values());
+                TransactionUtil.afterRollback(() -> requeue(taken));
+            }
+            Map<Long, ExamAnswer> merged = items == null ? new LinkedHashMap<>() : new LinkedHashMap<>(items);
+            for (ExamAnswer a : overrides) {
+                merged.put(a.getItemId(), a);
+            }
+            if (!merged.isEmpty()) {
+                writeChunked(new ArrayList<>(merged.values()),
+                        Math.max(1, examProperties.getAnswerBuffer().getFlushSize()), onSubmit);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 定时落库：按 flushSize 分段批量写入
+     */
+    @Scheduled(fixedDelayString = "${exam.answer-buffer.flush-interval-ms:1000}")
+    public void flushAll() {
+        if (!closed.isEmpty()) {
+            // 交卷已提交后，考试会话已移除、报名记录已标记交卷，保存请求会在校验阶段被拒绝
+            long expireBefore = System.currentTimeMillis() - CLOSED_RETENTION_MS;
+            closed.values().removeIf(t -> t < expireBefore);
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        int flushSize = Math.max(1, examProperties.getAnswerBuffer().getFlushSize());
+        flushLock.lock();
+        try {
+            List<ExamAnswer> chunk = new ArrayList<>(flushSize);
+            for (ExamineeKey key : pending.keySet()) {
+                Map<Long, ExamAnswer> items = take(key);
+                if (items == null) {
+                    continue;
+                }
+                chunk.addAll(items.values());
+                if (chunk.size() >= flushSize) {
+                    writeChunked(chunk, flushSize, false);
+                    chunk = new ArrayList<>(flushSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunked(chunk, flushSize, false);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 停机前落库所有缓冲答案
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!pending.isEmpty()) {
+            log.info("应用关闭，落库缓冲答案{}条", depth.get());
+            flushAll();
+        }
+    }
+
+    public AnswerBufferStatsVO stats() {
+        AnswerBufferStatsVO vo = new AnswerBufferStatsVO();
+        vo.setEnabled(isEnabled());
+        vo.setDepth(depth.get());
+        vo.setExaminees(pending.size());
+        vo.setAccepted(acceptedCount.get());
+        vo.setCoalesced(coalescedCount.get());
+        vo.setFlushCount(flushCount.get());
+        vo.setFlushedRows(flushedRows.get());
+        vo.setFlushFailures(flushFailures.get());
+        vo.setLastFlushMillis(lastFlushMillis);
+        vo.setMaxFlushMillis(maxFlushMillis.get());
+        long count = flushCount.get();
+        vo.setAvgFlushMillis(count == 0 ? 0 : (double) totalFlushMillis.get() / count);
+        return vo;
+    }
+
+    private Map<Long, ExamAnswer> take(ExamineeKey key) {
+        Map<Long, ExamAnswer> items = pending.remove(key);
+        if (items != null) {
+            depth.addAndGet(-items.size());
+        }
+        return items;
+    }
+
+    private void writeChunked(List<ExamAnswer> answers, int flushSize, boolean onSubmit) {
+        for (int from = 0; from < answers.size(); from += flushSize) {
+            int to = Math.min(from + flushSize, answers.size());
+            try {
+                write(answers.subList(from, to), onSubmit);
+            } catch (RuntimeException e) {
+                // 当前分段已在 write 中重新入队，这里把尚未写入的剩余分段也放回
+                requeue(answers.subList(to, answers.size()));
+                throw e;
+            }
+        }
+    }
+
+    private void write(List<ExamAnswer> answers, boolean onSubmit) {
+        long begin = System.nanoTime();
+        try {
+            if (onSubmit) {
+                examAnswerMapper.upsertBatchOnSubmit(answers);
+            } else {
+                examAnswerMapper.upsertBatch(answers);
+            }
+        } catch (RuntimeException e) {
+            flushFailures.incrementAndGet();
+            log.error("答题缓冲落库失败，{}条答案重新入队：{}", answers.size(), e.getMessage());
+            requeue(answers);
+            throw e;
+        }
+        long millis = (System.nanoTime() - begin) / 1_000_000;
+        flushCount.incrementAndGet();
+        flushedRows.addAndGet(answers.size());
+        totalFlushMillis.addAndGet(millis);
+        maxFlushMillis.accumulateAndGet(millis, Math::max);
+        lastFlushMillis = millis;
+        log.debug("答题缓冲落库{}条，耗时{}ms", answers.size(), millis);
+    }
+
+    /**
+     * 落库失败时放回缓冲；若期间已有更新的答案则以新答案为准
+     */
+    private void requeue(List<ExamAnswer> answers) {
+        for (ExamAnswer a : answers) {
+            pending.compute(new ExamineeKey(a.getBatchId(), a.getUserId()), (k, items) -> {
+                if (items == null) {
+                    items = new HashMap<>();
+                }
+                if (items.putIfAbsent(a.getItemId(), a) == null) {
+                    depth.incrementAndGet();
+                }
+                return items;
+            });
+        }
+    }
+
+    private record ExamineeKey(Long batchId, Long userId) {
+    }
+}
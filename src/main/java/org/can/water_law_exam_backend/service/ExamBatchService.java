@@ -4,6 +4,9 @@ import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.cache.ExamRosterCache;
+import org.can.water_law_exam_backend.cache.ExamSessionCache;
+import org.can.water_law_exam_backend.cache.UserBatchListCache;
 import org.can.water_law_exam_backend.dto.request.batch.BatchAddRequest;
 import org.can.water_law_exam_backend.dto.request.batch.BatchPageRequest;
 import org.can.water_law_exam_backend.dto.request.batch.BatchUpdateRequest;
@@ -15,6 +18,7 @@ import org.can.water_law_exam_backend.exception.BusinessException;
 import org.can.water_law_exam_backend.mapper.ExamBatchMapper;
 import org.can.water_law_exam_backend.mapper.PapersGroupMapper;
 import org.can.water_law_exam_backend.mapper.PapersMapper;
+import org.can.water_law_exam_backend.util.TransactionUtil;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,6 +34,11 @@ public class ExamBatchService {
 
     private final ExamBatchMapper examBatchMapper;
     private final PapersGroupMapper papersGroupMapper;
+    private final BatchWarmUpService batchWarmUpService;
+    private final ExamSessionCache examSessionCache;
+    private final ExamRosterCache examRosterCache;
+    private final PaperAssignmentService paperAssignmentService;
+    private final UserBatchListCache userBatchListCache;
 
     private static final DateTimeFormatter DATETIME_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
@@ -82,6 +91,11 @@ public class ExamBatchService {
         db.setSelfJoin(req.getSelfJoin());
         db.setReviewRequired(req.getReviewRequired());
         examBatchMapper.update(db);
+        // 考试时间、试卷组可能变化，进行中的考试会话需按新配置重建
+        TransactionUtil.afterCommit(() -> {
+            examSessionCache.invalidateBatch(db.getId());
+            userBatchListCache.invalidateAll();
+        });
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -89,6 +103,13 @@ public class ExamBatchService {
         if (ids == null || ids.isEmpty()) {
             throw new BusinessException(1, "请选择要删除的考试批次");
         }
+        TransactionUtil.afterCommit(() -> {
+            ids.forEach(id -> {
+                examSessionCache.invalidateBatch(id);
+                examRosterCache.invalidate(id);
+            });
+            userBatchListCache.invalidateAll();
+        });
         return examBatchMapper.deleteBatch(ids);
     }
 
@@ -108,6 +129,17 @@ public class ExamBatchService {
         batch.setPapersDistributed(newDistributed);
         // 如果收回，则保持 released 状态不变，但可以在业务上提示前端需同步处理
         examBatchMapper.update(batch);
+        // 分发后在后台预热试卷内容与报名索引，收回则清除预热状态
+        if (newDistributed) {
+            // 为审核通过的考生统一分配试卷序号，考试期间不再分配
+            paperAssignmentService.assignBatch(batch);
+            batchWarmUpService.warmUpAfterCommit(id);
+        } else {
+            batchWarmUpService.clear(id);
+            TransactionUtil.afterCommit(() -> examSessionCache.invalidateBatch(id));
+        }
+        // 批次出现在或离开考生端考试列表
+        TransactionUtil.afterCommit(userBatchListCache::invalidateAll);
         return newDistributed;
     }
 
@@ -125,8 +157,11 @@ public class ExamBatchService {
         // 取消发布时，需要撤回已分发的试卷
         if (!newReleased) {
             batch.setPapersDistributed(false);
+            batchWarmUpService.clear(id);
+            TransactionUtil.afterCommit(() -> examSessionCache.invalidateBatch(id));
         }
         examBatchMapper.update(batch);
+        TransactionUtil.afterCommit(userBatchListCache::invalidateAll);
         return newReleased;
     }
 
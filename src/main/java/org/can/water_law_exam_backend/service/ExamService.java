@@ -4,14 +4,20 @@ import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.cache.ExamRosterCache;
+import org.can.water_law_exam_backend.cache.ExamRosterCache.Registration;
+import org.can.water_law_exam_backend.cache.ExamSessionCache;
+import org.can.water_law_exam_backend.cache.ExamSessionCache.ExamSession;
+import org.can.water_law_exam_backend.cache.UserBatchListCache;
 import org.can.water_law_exam_backend.dto.request.exam.AnswerRequest;
 import org.can.water_law_exam_backend.dto.response.exam.ExamBatchUserVO;
 import org.can.water_law_exam_backend.dto.response.exam.ExamPapersVO;
-import org.can.water_law_exam_backend.dto.response.papers.PapersContentVO;
+import org.can.water_law_exam_backend.dto.response.score.GradingStatusVO;
 import org.can.water_law_exam_backend.entity.*;
 import org.can.water_law_exam_backend.exception.BusinessException;
 import org.can.water_law_exam_backend.mapper.*;
 import org.can.water_law_exam_backend.security.LoginUser;
+import org.can.water_law_exam_backend.util.TransactionUtil;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -20,8 +26,11 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -33,9 +42,13 @@ public class ExamService {
     private final ExamBatchMapper examBatchMapper;
     private final ExamAnswerMapper examAnswerMapper;
     private final AccountUserMapper accountUserMapper;
-    private final PapersMapper papersMapper;
     private final PapersService papersService;
-    private final ScoreService scoreService;
+    private final PaperAssignmentService paperAssignmentService;
+    private final GradingService gradingService;
+    private final ExamAnswerBuffer examAnswerBuffer;
+    private final ExamRosterCache examRosterCache;
+    private final ExamSessionCache examSessionCache;
+    private final UserBatchListCache userBatchListCache;
 
     private static final DateTimeFormatter DATETIME_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
@@ -52,18 +65,18 @@ public class ExamService {
      */
     public List<ExamBatchUserVO> listUserBatches() {
         Long userId = currentUserId();
+        List<ExamBatchUserVO> cached = userBatchListCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = userBatchListCache.generation();
         LocalDateTime now = LocalDateTime.now();
-        // 查询当前用户的所有报名记录
-        List<Examinee> examinees = examineeMapper.selectByUserId(userId);
-        List<ExamBatchUserVO> result = new ArrayList<>();
+        // 审核通过、已发布且试卷已分发、考试未结束的条件均在一次关联查询中完成
+        List<Examinee> examinees = examineeMapper.selectEligibleWithBatch(userId, now);
+        List<ExamBatchUserVO> result = new ArrayList<>(examinees.size());
+        LocalDateTime earliestEnd = null;
         for (Examinee e : examinees) {
-            ExamBatch b = examBatchMapper.selectById(e.getBatchId());
-            if (b == null) continue;
-            // 条件：审核通过、已发布且试卷已分发、在考试截止时间窗口内（这里简单使用 endTime 作为截止）
-            if (!Integer.valueOf(1).equals(e.getReviewStatus())) continue;
-            if (!Boolean.TRUE.equals(b.getReleased()) || !Boolean.TRUE.equals(b.getPapersDistributed())) continue;
-            if (b.getEndTime() != null && now.isAfter(b.getEndTime())) continue;
-
+            ExamBatch b = e.getBatch();
             ExamBatchUserVO vo = new ExamBatchUserVO();
             vo.setId(b.getId());
             vo.setBatchName(b.getBatchName());
@@ -75,91 +88,145 @@ public class ExamService {
             vo.setStarted(Boolean.TRUE.equals(e.getExamStarted()));
             vo.setSubmitted(Boolean.TRUE.equals(e.getSubmitted()));
             result.add(vo);
+            if (b.getEndTime() != null && (earliestEnd == null || b.getEndTime().isBefore(earliestEnd))) {
+                earliestEnd = b.getEndTime();
+            }
         }
+        // 考试结束后该批次应从列表中消失，缓存不超过最早结束时间
+        userBatchListCache.put(userId, result, earliestEnd, generation);
         return result;
     }
 
     /**
      * 2.2 获取试卷内容（考生端）
+     *
+     * @return 完整响应 JSON，data 结构与 {@link ExamPapersVO} 一致；试卷内容直接取自缓存字节
      */
-    public ExamPapersVO getPapers(Long batchId) {
+    public byte[] getPapers(Long batchId) {
         Long userId = currentUserId();
+        LocalDateTime now = LocalDateTime.now();
+        // 已开始考试的考生直接使用考试会话校验，不再查询批次与报名记录
+        ExamSession session = examSessionCache.get(userId, batchId);
+        if (session != null) {
+            if (!Integer.valueOf(1).equals(session.reviewStatus())) {
+                throw new BusinessException(1, "报名尚未审核通过");
+            }
+            checkPapersWindow(now, session.startTime(), session.prepareMinutes(), session.endTime());
+            return papersJson(batchId, session.groupId(), session.papersNo(),
+                    session.startTime(), session.endTime(), session.prepareMinutes());
+        }
+
+        long generation = examSessionCache.generation();
         ExamBatch batch = examBatchMapper.selectById(batchId);
         if (batch == null) {
             throw new BusinessException(1, "考试批次不存在");
         }
-        // 校验报名及审核状态
-        List<Examinee> list = examineeMapper.selectByBatch(batchId, null, null);
-        Examinee ex = list.stream().filter(e -> e.getUserId().equals(userId)).findFirst()
-                .orElseThrow(() -> new BusinessException(1, "未报名该考试"));
-        if (!Integer.valueOf(1).equals(ex.getReviewStatus())) {
+        // 校验报名及审核状态（报名索引在分发试卷时已预热）
+        Registration reg = examRosterCache.find(batchId, userId);
+        if (reg == null) {
+            throw new BusinessException(1, "未报名该考试");
+        }
+        if (!Integer.valueOf(1).equals(reg.reviewStatus())) {
             throw new BusinessException(1, "报名尚未审核通过");
         }
-        LocalDateTime now = LocalDateTime.now();
-        // 简化时间窗口：在开始前 prepareMinutes 内或考试时间内
-        LocalDateTime preStart = batch.getStartTime().minusMinutes(batch.getPrepareMinutes() == null ? 0 : batch.getPrepareMinutes());
-        if (now.isBefore(preStart) || now.isAfter(batch.getEndTime())) {
-            throw new BusinessException(1, "不在可查看试卷时间范围内");
+        checkPapersWindow(now, batch.getStartTime(), batch.getPrepareMinutes(), batch.getEndTime());
+
+        // 试卷序号在分发试卷时已统一分配
+        if (reg.papersNo() == null) {
+            throw new BusinessException(1, "尚未分配试卷，请联系管理员");
+        }
+        byte[] json = papersJson(batchId, batch.getPapersId(), reg.papersNo(),
+                batch.getStartTime(), batch.getEndTime(), batch.getPrepareMinutes());
+        if (reg.examStarted()) {
+            examSessionCache.put(reg.toExaminee(batchId, userId), batch, generation);
         }
+        return json;
+    }
 
-        // 确保该考生在本批次下已分配试卷序号（papersNo），用于在试卷组内随机分配
-        assignPapersNoIfNeeded(batch, ex);
-        Long groupId = batch.getPapersId();
-        Integer papersNo = ex.getPapersNo();
-        PapersContentVO pc = papersService.content(groupId, papersNo, false);
+    /**
+     * 简化时间窗口：在开始前 prepareMinutes 内或考试时间内
+     */
+    private void checkPapersWindow(LocalDateTime now, LocalDateTime start, Integer prepareMinutes, LocalDateTime end) {
+        LocalDateTime preStart = start.minusMinutes(prepareMinutes == null ? 0 : prepareMinutes);
+        if (now.isBefore(preStart) || now.isAfter(end)) {
+            throw new BusinessException(1, "不在可查看试卷时间范围内");
+        }
+    }
 
-        ExamPapersVO vo = new ExamPapersVO();
-        vo.setBatchId(batchId);
-        vo.setTitle(pc.getTitle());
-        vo.setTotalScore(pc.getTotalScore());
-        vo.setStartTime(batch.getStartTime() == null ? null : batch.getStartTime().format(DATETIME_FMT));
-        vo.setEndTime(batch.getEndTime() == null ? null : batch.getEndTime().format(DATETIME_FMT));
-        vo.setPrepareMinutes(batch.getPrepareMinutes());
-        vo.setStructs(pc.getStructs());
-        vo.setContent(pc.getContent());
-        return vo;
+    private byte[] papersJson(Long batchId, Long groupId, Integer papersNo, LocalDateTime start, LocalDateTime end,
+                              Integer prepareMinutes) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("batchId", batchId);
+        fields.put("startTime", start == null ? null : start.format(DATETIME_FMT));
+        fields.put("endTime", end == null ? null : end.format(DATETIME_FMT));
+        fields.put("prepareMinutes", prepareMinutes);
+        return papersService.contentJson(groupId, papersNo, false, fields);
     }
 
     /**
      * 2.3 保存答题结果（实时保存）
      * 这里只做答案持久化，不在此处计算得分。
+     * 启用答题缓冲时答案先进入内存缓冲，由定时任务批量落库。
      */
     @Transactional(rollbackFor = Exception.class)
     public void saveAnswer(AnswerRequest req) {
         Long userId = currentUserId();
-        // 查找当前用户所有未提交的考试，取最近一条
-        List<Examinee> list = examineeMapper.selectUnsubmittedByUser(userId);
-        if (list.isEmpty()) {
-            throw new BusinessException(1, "当前没有正在进行的考试");
-        }
-        Examinee ex = list.get(0);
-        Boolean isExamStarted = ex.getExamStarted();
-        if (isExamStarted == null || !isExamStarted) {
-            throw new BusinessException(1, "没有开始考试，禁止答题！");
+        Long batchId;
+        LocalDateTime endTime;
+        ExamSession session = examSessionCache.get(userId);
+        if (session != null) {
+            batchId = session.batchId();
+            endTime = session.endTime();
+        } else {
+            long generation = examSessionCache.generation();
+            // 查找当前用户所有未提交的考试，取最近一条
+            List<Examinee> list = examineeMapper.selectUnsubmittedByUser(userId);
+            if (list.isEmpty()) {
+                throw new BusinessException(1, "当前没有正在进行的考试");
+            }
+            Examinee ex = list.get(0);
+            Boolean isExamStarted = ex.getExamStarted();
+            if (isExamStarted == null || !isExamStarted) {
+                throw new BusinessException(1, "没有开始考试，禁止答题！");
+            }
+            batchId = ex.getBatchId();
+
+            ExamBatch batch = examBatchMapper.selectById(batchId);
+            if (batch == null || batch.getEndTime() == null) {
+                throw new BusinessException(1, "考试批次信息不完整");
+            }
+            endTime = batch.getEndTime();
+            // 会话丢失（如服务重启）时从数据库重建
+            examSessionCache.put(ex, batch, generation);
         }
-        Long batchId = ex.getBatchId();
 
         // 考试已结束则不允许再答题
-        ExamBatch batch = examBatchMapper.selectById(batchId);
-        if (batch == null || batch.getEndTime() == null) {
-            throw new BusinessException(1, "考试批次信息不完整");
-        }
         LocalDateTime now = LocalDateTime.now();
-        if (now.isAfter(batch.getEndTime())) {
+        if (now.isAfter(endTime)) {
             throw new BusinessException(1, "考试已结束，不能继续答题");
         }
 
+        ExamAnswer ans = toAnswer(batchId, userId, req, now);
+        if (examAnswerBuffer.isEnabled()) {
+            examAnswerBuffer.offer(ans);
+            return;
+        }
+        // 按唯一键插入或覆盖，保证每题一条记录；考生已在其他节点交卷时不写入
+        if (examAnswerMapper.upsertBatch(List.of(ans)) == 0) {
+            examSessionCache.remove(userId, batchId);
+            throw new BusinessException(1, "试卷已提交，不能继续答题");
+        }
+    }
+
+    private ExamAnswer toAnswer(Long batchId, Long userId, AnswerRequest req, LocalDateTime now) {
         ExamAnswer ans = new ExamAnswer();
         ans.setBatchId(batchId);
         ans.setUserId(userId);
         ans.setItemId(req.getId());
-        // 直接使用List.toString() 作为JSON数组字符串（如 [1, 4]）
-        ans.setAnswerContent(req.getAns().toString());
-        ans.setUpdateTime(LocalDateTime.now());
-
-        // 删除旧记录再插入，保证每题一条记录
-        examAnswerMapper.deleteByBatchUserAndItem(batchId, userId, req.getId());
-        examAnswerMapper.insert(ans);
+        // 选项编号编码为位掩码存储（判断题按原值记录，评分时映射）
+        ans.setAnswerMask(PaperAnswerKey.encode(req.getAns()));
+        ans.setUpdateTime(now);
+        return ans;
     }
 
     /**
@@ -168,44 +235,65 @@ public class ExamService {
     @Transactional(rollbackFor = Exception.class)
     public void submit(Long batchId, List<AnswerRequest> answers) {
         Long userId = currentUserId();
-        ExamBatch batch = examBatchMapper.selectById(batchId);
-        if (batch == null) {
-            throw new BusinessException(1, "考试批次不存在");
-        }
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime end = batch.getEndTime();
-        if (end == null) {
-            throw new BusinessException(1, "考试结束时间未配置");
+        LocalDateTime end;
+        Examinee ex;
+        ExamSession session = examSessionCache.get(userId, batchId);
+        if (session != null) {
+            // 会话存在说明已开始考试；是否已交卷由下方的条件更新判定（会话在交卷事务提交后才移除）
+            end = session.endTime();
+            ex = session.toExaminee();
+        } else {
+            ExamBatch batch = examBatchMapper.selectById(batchId);
+            if (batch == null) {
+                throw new BusinessException(1, "考试批次不存在");
+            }
+            end = batch.getEndTime();
+            if (end == null) {
+                throw new BusinessException(1, "考试结束时间未配置");
+            }
+            ex = null;
         }
         // 结束后30分钟内允许提交
-        int SUBMIT_DELAY_MINUTES = 30;
-        LocalDateTime latestSubmit = end.plusMinutes(SUBMIT_DELAY_MINUTES);
+        LocalDateTime latestSubmit = end.plusMinutes(ExamSessionCache.SUBMIT_DELAY_MINUTES);
         if (now.isAfter(latestSubmit)) {
             throw new BusinessException(1, "已超过允许提交时间，无法交卷");
         }
 
-        List<Examinee> list = examineeMapper.selectByUserAndBatch(userId, batchId);
-        Examinee ex = list.stream().findFirst()
-                .orElseThrow(() -> new BusinessException(1, "未报名该考试"));
+        if (ex == null) {
+            List<Examinee> list = examineeMapper.selectByUserAndBatch(userId, batchId);
+            ex = list.stream().findFirst()
+                    .orElseThrow(() -> new BusinessException(1, "未报名该考试"));
 
-        Boolean isExamStarted = ex.getExamStarted();
-        if (isExamStarted == null || !isExamStarted) {
-            throw new BusinessException(1, "没有开始考试，禁止答题！");
+            Boolean isExamStarted = ex.getExamStarted();
+            if (isExamStarted == null || !isExamStarted) {
+                throw new BusinessException(1, "没有开始考试，禁止答题！");
+            }
+            if (Boolean.TRUE.equals(ex.getSubmitted())) {
+                throw new BusinessException(1, "请勿重复提交试卷");
+            }
         }
-        if (Boolean.TRUE.equals(ex.getSubmitted())) {
+
+        // 条件更新交卷状态：并发或重复的交卷请求在此串行化，只有一次能成功
+        if (examineeMapper.markSubmitted(batchId, userId, now) == 0) {
+            // 其他节点或已提交的请求已交卷，本节点残留的会话一并移除
+            examSessionCache.remove(userId, batchId);
             throw new BusinessException(1, "请勿重复提交试卷");
         }
 
         // 考试尚未结束：以本次携带答案为主，缺失题目使用服务器已保存结果
-        if (!now.isAfter(end)) {
-            if (answers != null) {
-                for (AnswerRequest req : answers) {
-                    saveAnswer(req);
-                }
+        // 考试已结束但在允许提交窗口内：忽略本次携带答案，仅使用服务器过程记录
+        List<ExamAnswer> carried = new ArrayList<>();
+        if (!now.isAfter(end) && answers != null) {
+            for (AnswerRequest req : answers) {
+                carried.add(toAnswer(batchId, userId, req, now));
             }
         }
-        // 考试已结束但在允许提交窗口内：忽略本次携带答案，仅使用服务器过程记录
-        // 这里不调用 saveAnswer
+        // 先关闭该考生的答题缓冲，交卷过程中到达的保存请求被拒绝，不会在最终落库之后写入
+        examAnswerBuffer.close(batchId, userId);
+        TransactionUtil.afterRollback(() -> examAnswerBuffer.reopen(batchId, userId));
+        // 缓冲中的答案与本次携带答案合并，一次写入（同一题以携带答案为准）
+        examAnswerBuffer.flushOnSubmit(batchId, userId, carried);
 
         ex.setSubmitted(true);
         ex.setSubmitTime(now);
@@ -213,12 +301,22 @@ public class ExamService {
         if (ex.getExamStartTime() == null) {
             ex.setExamStartTime(now);
         }
-        List<Examinee> one = new ArrayList<>();
-        one.add(ex);
-        examineeMapper.insertBatch(one);
+        Examinee submitted = ex;
+        TransactionUtil.afterCommit(() -> {
+            examRosterCache.put(submitted);
+            examSessionCache.remove(userId, batchId);
+            userBatchListCache.invalidate(userId);
+        });
 
-        // 计算并保存成绩（按照该考生在试卷组中的分配序号评分）
-        scoreService.evaluateAndSaveScore(batchId, userId, now);
+        // 事务提交后进入后台评分队列（按照该考生在试卷组中的分配序号评分）
+        gradingService.enqueueAfterCommit(batchId, userId, now);
+    }
+
+    /**
+     * 2.8 查询本人交卷评分状态
+     */
+    public GradingStatusVO gradingStatus(Long batchId) {
+        return gradingService.status(batchId, currentUserId());
     }
 
     /**
@@ -229,7 +327,13 @@ public class ExamService {
         LocalDateTime now = LocalDateTime.now();
         // 已发布、未分发试卷、考试未开始
         List<ExamBatch> batches = examBatchMapper.selectJoinable(now);
-        List<ExamBatchUserVO> result = new ArrayList<>();
+        if (batches.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // joined：一次查询当前用户在这些批次中的报名
+        Set<Long> joined = new HashSet<>(examineeMapper.selectBatchIdsByUser(userId,
+                batches.stream().map(ExamBatch::getId).collect(Collectors.toList())));
+        List<ExamBatchUserVO> result = new ArrayList<>(batches.size());
         for (ExamBatch b : batches) {
             ExamBatchUserVO vo = new ExamBatchUserVO();
             vo.setId(b.getId());
@@ -238,10 +342,7 @@ public class ExamService {
             vo.setEndTime(b.getEndTime() == null ? null : b.getEndTime().format(DATETIME_FMT));
             vo.setLateMinutes(b.getLateMinutes());
             vo.setAdvanceMinutes(b.getAdvanceMinutes());
-            // joined：检查是否已报名
-            List<Examinee> exs = examineeMapper.selectByBatch(b.getId(), null, null)
-                    .stream().filter(e -> e.getUserId().equals(userId)).collect(Collectors.toList());
-            vo.setJoined(!exs.isEmpty());
+            vo.setJoined(joined.contains(b.getId()));
             result.add(vo);
         }
         return result;
@@ -270,11 +371,17 @@ public class ExamService {
         ex.setBatchId(batchId);
         ex.setUserId(userId);
         ex.setReviewStatus(Boolean.TRUE.equals(batch.getReviewRequired()) ? 0 : 1);
-        // 随机分配试卷序号
-        assignPapersNoIfNeeded(batch, ex);
         List<Examinee> list = new ArrayList<>();
         list.add(ex);
         examineeMapper.insertBatch(list);
+        TransactionUtil.afterCommit(() -> {
+            examRosterCache.put(ex);
+            userBatchListCache.invalidate(userId);
+        });
+        // 试卷序号在分发试卷时统一分配；已分发且免审核的批次在报名时只为本人补分配
+        if (ex.getReviewStatus() == 1 && Boolean.TRUE.equals(batch.getPapersDistributed())) {
+            ex.setPapersNo(paperAssignmentService.assignOne(batch, userId));
+        }
     }
 
     /**
@@ -283,6 +390,7 @@ public class ExamService {
     @Transactional(rollbackFor = Exception.class)
     public void start(Long batchId) {
         Long userId = currentUserId();
+        long generation = examSessionCache.generation();
         ExamBatch batch = examBatchMapper.selectById(batchId);
         if (batch == null) {
             throw new BusinessException(1, "考试批次不存在");
@@ -297,34 +405,21 @@ public class ExamService {
             throw new BusinessException(1, "未报名该考试");
         }
         Examinee ex = list.get(0);
+        if (ex.getPapersNo() == null) {
+            throw new BusinessException(1, "尚未分配试卷，请联系管理员");
+        }
         ex.setExamStarted(true);
         if (ex.getExamStartTime() == null) {
             ex.setExamStartTime(now);
         }
-        // 如果还未分配试卷序号，在这里补一次（极端情况下有用）
-        assignPapersNoIfNeeded(batch, ex);
         List<Examinee> one = new ArrayList<>();
         one.add(ex);
         examineeMapper.insertBatch(one);
-    }
-
-    /**
-     * 为考生在指定批次下分配试卷序号（papersNo）
-     * 规则：在该批次绑定的试卷组内随机选择一套卷子，将其 papers_no 记录到 tb_examinee.papers_no
-     */
-    private void assignPapersNoIfNeeded(ExamBatch batch, Examinee ex) {
-        if (ex.getPapersNo() != null) {
-            return;
-        }
-        Long groupId = batch.getPapersId();
-        List<Papers> papersList = papersMapper.selectByGroupId(groupId);
-        if (papersList == null || papersList.isEmpty()) {
-            throw new BusinessException(1, "试卷组内没有可用试卷");
-        }
-        int idx = ThreadLocalRandom.current().nextInt(papersList.size());
-        Integer papersNo = papersList.get(idx).getPapersNo();
-        ex.setPapersNo(papersNo);
+        TransactionUtil.afterCommit(() -> {
+            examRosterCache.put(ex);
+            // 创建考试会话，后续取卷、答题、交卷直接使用
+            examSessionCache.put(ex, batch, generation);
+            userBatchListCache.invalidate(userId);
+        });
     }
 }
-
-
@@ -0,0 +1,386 @@
+package org.can.water_law_exam_backend.service;
+
+import cn.idev.excel.FastExcel;
+import cn.idev.excel.context.AnalysisContext;
+import cn.idev.excel.read.listener.ReadListener;
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.cache.ExamRosterCache;
+import org.can.water_law_exam_backend.cache.ExamSessionCache;
+import org.can.water_law_exam_backend.cache.ReferenceDataCache;
+import org.can.water_law_exam_backend.cache.UserBatchListCache;
+import org.can.water_law_exam_backend.dto.excel.ExamineeExcelData;
+import org.can.water_law_exam_backend.entity.AccountUser;
+import org.can.water_law_exam_backend.entity.Examinee;
+import org.can.water_law_exam_backend.entity.Organization;
+import org.can.water_law_exam_backend.exception.BusinessException;
+import org.can.water_law_exam_backend.mapper.AccountUserMapper;
+import org.can.water_law_exam_backend.mapper.ExamineeMapper;
+import org.can.water_law_exam_backend.util.CsvReader;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * 考生导入流水线
+ * 1. 解析：单位取自基础数据缓存，文件内重复的身份证号只保留首行；
+ * 2. 预查：窗口内全部身份证号按块批量查询已有学员；
+ * 3. 加密：新学员的默认密码在有界线程池上并行 BCrypt；
+ * 4. 写入：每 {@link #IMPORT_CHUNK} 行一个事务，学员与考生绑定各一条批量插入，某块失败时逐行重试以定位失败行。
+ * 解析结果每满 {@link #PARSE_WINDOW} 行执行一次 2-4，内存占用只随文件内不同身份证号的数量增长（每个号码保留首行行号）；
+ * 文件内重复的身份证号无论是否在同一窗口，后出现的行均跳过并计为失败。
+ */
+@Slf4j
+@Service
+public class ExamineeImportService {
+
+    /**
+     * 每个写入事务包含的行数
+     */
+    private static final int IMPORT_CHUNK = 500;
+
+    /**
+     * 单条身份证号批量查询的最大数量
+     */
+    private static final int QUERY_CHUNK = 1000;
+
+    /**
+     * 解析结果累积到该行数后即预查、加密并写入
+     */
+    private static final int PARSE_WINDOW = 5000;
+
+    /**
+     * 每个加密任务处理的密码数
+     */
+    private static final int HASH_SLICE = 32;
+
+    private final AccountUserMapper accountUserMapper;
+    private final ExamineeMapper examineeMapper;
+    private final ReferenceDataCache referenceDataCache;
+    private final PasswordEncoder passwordEncoder;
+    private final ExamRosterCache examRosterCache;
+    private final ExamSessionCache examSessionCache;
+    private final UserBatchListCache userBatchListCache;
+    private final ThreadPoolTaskExecutor passwordHashExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    public ExamineeImportService(AccountUserMapper accountUserMapper,
+                                 ExamineeMapper examineeMapper,
+                                 ReferenceDataCache referenceDataCache,
+                                 PasswordEncoder passwordEncoder,
+                                 ExamRosterCache examRosterCache,
+                                 ExamSessionCache examSessionCache,
+                                 UserBatchListCache userBatchListCache,
+                                 @Qualifier("passwordHashExecutor") ThreadPoolTaskExecutor passwordHashExecutor,
+                                 PlatformTransactionManager transactionManager) {
+        this.accountUserMapper = accountUserMapper;
+        this.examineeMapper = examineeMapper;
+        this.referenceDataCache = referenceDataCache;
+        this.passwordEncoder = passwordEncoder;
+        this.examRosterCache = examRosterCache;
+        this.examSessionCache = examSessionCache;
+        this.userBatchListCache = userBatchListCache;
+        this.passwordHashExecutor = passwordHashExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 从 Excel 导入考生到批次（批次已校验存在）
+     *
+     * @param progress 每写入一块后回调（成功数, 失败数），可为空；回调抛出的异常中止后续写入
+     * @return 成功导入的考生数
+     */
+    public int importExcel(InputStream is, Long batchId, BiConsumer<Integer, Integer> progress) {
+        ImportSession session = new ImportSession(batchId, progress);
+        FastExcel.read(is, ExamineeExcelData.class, new ReadListener<ExamineeExcelData>() {
+            @Override
+            public void invoke(ExamineeExcelData data, AnalysisContext context) {
+                session.accept(context.readRowHolder().getRowIndex() + 1, data);
+            }
+
+            @Override
+            public void doAfterAllAnalysed(AnalysisContext context) {
+                log.info("考生Excel全部解析完成");
+            }
+        }).sheet("考生导入模版").doRead();
+        return session.finish();
+    }
+
+    /**
+     * 从 CSV 流导入考生到批次（批次已校验存在），列顺序与 Excel 模板一致，首行为表头
+     *
+     * @return 成功导入的考生数
+     */
+    public int importCsv(InputStream is, Long batchId) throws IOException {
+        ImportSession session = new ImportSession(batchId, null);
+        try (CsvReader csv = new CsvReader(is)) {
+            // 跳过表头
+            if (csv.next()) {
+                while (csv.next()) {
+                    ExamineeExcelData data = new ExamineeExcelData();
+                    data.setName(csv.field(0));
+                    data.setIdNo(csv.field(1));
+                    data.setPhone(csv.field(2));
+                    data.setOrgName(csv.field(3));
+                    data.setCityId(csv.field(4));
+                    session.accept(csv.rowNo(), data);
+                }
+            }
+        }
+        log.info("考生CSV全部解析完成");
+        return session.finish();
+    }
+
+    /**
+     * 单次导入的状态：当前窗口的解析结果保持文件顺序，身份证号在整个文件范围内去重
+     */
+    private class ImportSession {
+
+        private final Long batchId;
+        private final BiConsumer<Integer, Integer> progress;
+        private final Map<String, ParsedRow> rows = new LinkedHashMap<>();
+        /**
+         * 文件内已解析通过的身份证号 -> 首次出现的行号，跨窗口保留
+         */
+        private final Map<String, Integer> seenIdNos = new HashMap<>();
+        private final List<Examinee> imported = new ArrayList<>();
+        private int successCount = 0;
+        private int failCount = 0;
+        private int createdCount = 0;
+
+        private ImportSession(Long batchId, BiConsumer<Integer, Integer> progress) {
+            this.batchId = batchId;
+            this.progress = progress;
+        }
+
+        /**
+         * 接收一行，窗口满时写入
+         */
+        private void accept(int row, ExamineeExcelData data) {
+            parse(row, data);
+            if (rows.size() >= PARSE_WINDOW) {
+                drain();
+            }
+        }
+
+        /**
+         * 解析校验一行，不访问数据库
+         */
+        private void parse(int row, ExamineeExcelData data) {
+            try {
+                if (data == null) {
+                    log.warn("行{}：数据为空，跳过", row);
+                    failCount++;
+                    return;
+                }
+                String name = trim(data.getName());
+                String idNo = trim(data.getIdNo());
+                String phone = trim(data.getPhone());
+                String orgName = trim(data.getOrgName());
+                String cityIdStr = trim(data.getCityId());
+
+                if (name == null || idNo == null || phone == null || orgName == null) {
+                    log.warn("行{}：姓名/身份证号/手机号/单位名称有空值，跳过", row);
+                    failCount++;
+                    return;
+                }
+                Integer firstRow = seenIdNos.get(idNo);
+                if (firstRow != null) {
+                    log.warn("行{}：身份证号与第{}行重复，跳过", row, firstRow);
+                    failCount++;
+                    return;
+                }
+
+                Integer cityId = null;
+                if (cityIdStr != null) {
+                    try {
+                        cityId = Integer.parseInt(cityIdStr);
+                    } catch (NumberFormatException e) {
+                        log.warn("行{}：城市ID格式错误 '{}', 忽略城市ID，仅按单位名称匹配", row, cityIdStr);
+                    }
+                }
+                Organization org = null;
+                if (cityId != null) {
+                    org = referenceDataCache.organization(orgName, cityId);
+                }
+                if (org == null) {
+                    // 如果 cityId 为空或未匹配到，则尝试在所有城市中按名称模糊匹配（取ID最小的匹配单位）
+                    org = referenceDataCache.organizationLike(orgName);
+                }
+                if (org == null) {
+                    log.warn("行{}：未找到单位'{}'，跳过", row, orgName);
+                    failCount++;
+                    return;
+                }
+
+                AccountUser user = new AccountUser();
+                user.setName(name);
+                user.setOrgId(org.getId());
+                user.setIdNo(idNo);
+                user.setPhone(phone);
+                user.setLocked(false);
+                rows.put(idNo, new ParsedRow(row, user));
+                seenIdNos.put(idNo, row);
+            } catch (Exception ex) {
+                log.warn("行{}：导入失败，错误：{}", row, ex.getMessage());
+                failCount++;
+            }
+        }
+
+        /**
+         * 写入最后一个窗口并汇总
+         *
+         * @return 成功导入的考生数
+         */
+        private int finish() {
+            drain();
+            log.info("导入考生完成：批次{}，成功{}条，失败{}条，新建学员{}人", batchId, successCount, failCount, createdCount);
+            if (successCount == 0) {
+                throw new BusinessException(1, "导入失败：没有成功导入任何考生");
+            }
+            return successCount;
+        }
+
+        /**
+         * 当前窗口：预查已有学员、并行加密新学员密码并分块写入
+         */
+        private void drain() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            Map<String, Long> existing = loadExistingUsers(rows.keySet());
+            List<PendingRow> pending = new ArrayList<>(rows.size());
+            List<AccountUser> newUsers = new ArrayList<>();
+            for (ParsedRow p : rows.values()) {
+                Long userId = existing.get(p.user().getIdNo());
+                pending.add(new PendingRow(p.row(), p.user(), userId));
+                if (userId == null) {
+                    newUsers.add(p.user());
+                }
+            }
+            rows.clear();
+            hashPasswords(newUsers);
+            createdCount += newUsers.size();
+
+            try {
+                for (int from = 0; from < pending.size(); from += IMPORT_CHUNK) {
+                    write(pending.subList(from, Math.min(from + IMPORT_CHUNK, pending.size())));
+                    if (progress != null) {
+                        progress.accept(successCount, failCount);
+                    }
+                }
+            } finally {
+                if (!imported.isEmpty()) {
+                    examRosterCache.putAll(batchId, imported);
+                    imported.clear();
+                    examSessionCache.invalidateBatch(batchId);
+                    // 导入涉及的用户事先未知，全部失效考生端考试列表
+                    userBatchListCache.invalidateAll();
+                }
+            }
+        }
+
+        /**
+         * 写入一块：整块一个事务，失败时逐行重试并记录失败行
+         */
+        private void write(List<PendingRow> chunk) {
+            try {
+                imported.addAll(transactionTemplate.execute(s -> insertRows(chunk)));
+                successCount += chunk.size();
+            } catch (RuntimeException e) {
+                log.warn("行{}-{}：批量写入失败，逐行重试：{}", chunk.get(0).row(),
+                        chunk.get(chunk.size() - 1).row(), e.getMessage());
+                for (PendingRow p : chunk) {
+                    try {
+                        imported.addAll(transactionTemplate.execute(s -> insertRows(List.of(p))));
+                        successCount++;
+                    } catch (RuntimeException ex) {
+                        log.warn("行{}：导入失败，错误：{}", p.row(), ex.getMessage());
+                        failCount++;
+                    }
+                }
+            }
+        }
+
+        /**
+         * 新学员一条批量插入（回填ID），考生绑定一条批量插入（已存在则由 ON DUPLICATE KEY 更新）
+         */
+        private List<Examinee> insertRows(List<PendingRow> chunk) {
+            List<AccountUser> users = new ArrayList<>();
+            for (PendingRow p : chunk) {
+                if (p.existingUserId() == null) {
+                    users.add(p.user());
+                }
+            }
+            if (!users.isEmpty()) {
+                accountUserMapper.insertBatch(users);
+            }
+            List<Examinee> examinees = new ArrayList<>(chunk.size());
+            for (PendingRow p : chunk) {
+                Examinee e = new Examinee();
+                e.setBatchId(batchId);
+                e.setUserId(p.existingUserId() != null ? p.existingUserId() : p.user().getId());
+                e.setReviewStatus(0);
+                examinees.add(e);
+            }
+            examineeMapper.insertBatch(examinees);
+            return examinees;
+        }
+    }
+
+    /**
+     * 按身份证号分块批量查询已有学员
+     */
+    private Map<String, Long> loadExistingUsers(Collection<String> idNos) {
+        Map<String, Long> existing = new HashMap<>(Math.max(16, idNos.size() * 2));
+        List<String> all = new ArrayList<>(idNos);
+        for (int from = 0; from < all.size(); from += QUERY_CHUNK) {
+            for (AccountUser u : accountUserMapper.selectByIdNos(all.subList(from, Math.min(from + QUERY_CHUNK, all.size())))) {
+                existing.put(u.getIdNo(), u.getId());
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * 在加密线程池上并行生成默认密码（身份证号后6位）的 BCrypt 摘要
+     */
+    private void hashPasswords(List<AccountUser> users) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int from = 0; from < users.size(); from += HASH_SLICE) {
+            List<AccountUser> slice = users.subList(from, Math.min(from + HASH_SLICE, users.size()));
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (AccountUser u : slice) {
+                    String idNo = u.getIdNo();
+                    String pwdRaw = idNo.length() >= 6 ? idNo.substring(idNo.length() - 6) : idNo;
+                    u.setPwd(passwordEncoder.encode(pwdRaw));
+                }
+            }, passwordHashExecutor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
+    private static String trim(String v) {
+        return v == null ? null : v.trim().isEmpty() ? null : v.trim();
+    }
+
+    /**
+     * 解析通过的行
+     */
+    private record ParsedRow(int row, AccountUser user) {
+    }
+
+    /**
+     * 待写入的行；existingUserId 非空表示学员已存在，只绑定批次
+     */
+    private record PendingRow(int row, AccountUser user, Long existingUserId) {
+    }
+}
@@ -4,7 +4,9 @@ import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.can.water_law_exam_backend.dto.excel.ExamineeExcelData;
+import org.can.water_law_exam_backend.cache.ExamRosterCache;
+import org.can.water_law_exam_backend.cache.ExamSessionCache;
+import org.can.water_law_exam_backend.cache.UserBatchListCache;
 import org.can.water_law_exam_backend.dto.request.examinee.ExamineeOptionalPageRequest;
 import org.can.water_law_exam_backend.dto.request.examinee.ExamineePageRequest;
 import org.can.water_law_exam_backend.dto.request.examinee.ExamineeReviewRequest;
@@ -13,21 +15,18 @@ import org.can.water_law_exam_backend.dto.response.examinee.ExamineePageVO;
 import org.can.water_law_exam_backend.entity.AccountUser;
 import org.can.water_law_exam_backend.entity.ExamBatch;
 import org.can.water_law_exam_backend.entity.Examinee;
-import org.can.water_law_exam_backend.entity.Organization;
 import org.can.water_law_exam_backend.exception.BusinessException;
 import org.can.water_law_exam_backend.mapper.AccountUserMapper;
 import org.can.water_law_exam_backend.mapper.ExamBatchMapper;
 import org.can.water_law_exam_backend.mapper.ExamineeMapper;
-import org.can.water_law_exam_backend.mapper.OrganizationMapper;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.can.water_law_exam_backend.util.TransactionUtil;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
-import cn.idev.excel.FastExcel;
-import cn.idev.excel.context.AnalysisContext;
-import cn.idev.excel.read.listener.ReadListener;
 
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -41,40 +40,23 @@ public class ExamineeService {
     private final ExamineeMapper examineeMapper;
     private final ExamBatchMapper examBatchMapper;
     private final AccountUserMapper accountUserMapper;
-    private final OrganizationMapper organizationMapper;
-    private final PasswordEncoder passwordEncoder;
+    private final ExamRosterCache examRosterCache;
+    private final ExamSessionCache examSessionCache;
+    private final UserBatchListCache userBatchListCache;
+    private final PaperAssignmentService paperAssignmentService;
+    private final ExamineeImportService examineeImportService;
+    private final JobService jobService;
 
     private static final DateTimeFormatter DATETIME_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     /**
      * 8.2.1 导入考生
+     * 按块提交，见 {@link ExamineeImportService}
      */
-    @Transactional(rollbackFor = Exception.class)
     public int importExaminee(MultipartFile file, Long batchId) {
-        if (file == null || file.isEmpty()) {
-            throw new BusinessException(1, "上传文件不能为空");
-        }
-        String filename = file.getOriginalFilename();
-        if (filename == null || !filename.endsWith(".xlsx")) {
-            throw new BusinessException(1, "只支持Excel 2007版本以后格式文件(.xlsx)");
-        }
-        ExamBatch batch = examBatchMapper.selectById(batchId);
-        if (batch == null) {
-            throw new BusinessException(1, "考试批次不存在");
-        }
-
+        checkImport(file, batchId);
         try (InputStream is = file.getInputStream()) {
-            ExamineeImportListener listener = new ExamineeImportListener(batchId);
-            FastExcel.read(is, ExamineeExcelData.class, listener)
-                    .sheet("考生导入模版")
-                    .doRead();
-            int success = listener.getSuccessCount();
-            int fail = listener.getFailCount();
-            log.info("导入考生完成：成功{}条，失败{}条", success, fail);
-            if (success == 0) {
-                throw new BusinessException(1, "导入失败：没有成功导入任何考生");
-            }
-            return success;
+            return examineeImportService.importExcel(is, batchId, null);
         } catch (BusinessException e) {
             throw e;
         } catch (Exception e) {
@@ -84,112 +66,58 @@ public class ExamineeService {
     }
 
     /**
-     * 考生导入监听器：按行解析Excel，必要时创建学员并绑定到批次
+     * 8.2.1 导入考生（后台任务），解析与加密完成后按块写入并回报成功/失败计数
+     *
+     * @return 任务ID
      */
-    @lombok.Getter
-    private class ExamineeImportListener implements ReadListener<ExamineeExcelData> {
-
-        private final Long batchId;
-        private int successCount = 0;
-        private int failCount = 0;
-
-        public ExamineeImportListener(Long batchId) {
-            this.batchId = batchId;
-        }
-
-        @Override
-        public void invoke(ExamineeExcelData data, AnalysisContext context) {
-            int row = context.readRowHolder().getRowIndex() + 1;
-            try {
-                if (data == null) {
-                    log.warn("行{}：数据为空，跳过", row);
-                    failCount++;
-                    return;
-                }
-                String name = trim(data.getName());
-                String idNo = trim(data.getIdNo());
-                String phone = trim(data.getPhone());
-                String orgName = trim(data.getOrgName());
-                String cityIdStr = trim(data.getCityId());
-
-                if (name == null || idNo == null || phone == null || orgName == null) {
-                    log.warn("行{}：姓名/身份证号/手机号/单位名称有空值，跳过", row);
-                    failCount++;
-                    return;
-                }
-
-                // 查找或创建单位
-                Long orgId = null;
-                Integer cityId = null;
-                if (cityIdStr != null) {
-                    try {
-                        cityId = Integer.parseInt(cityIdStr);
-                    } catch (NumberFormatException e) {
-                        log.warn("行{}：城市ID格式错误 '{}', 忽略城市ID，仅按单位名称匹配", row, cityIdStr);
-                    }
+    public Long importExamineeAsync(MultipartFile file, Long batchId) {
+        checkImport(file, batchId);
+        Path staged = jobService.stage(file, ".xlsx");
+        try {
+            return jobService.submit(JobService.TYPE_EXAMINEE_IMPORT, ctx -> {
+                try (InputStream is = Files.newInputStream(staged)) {
+                    int cnt = examineeImportService.importExcel(is, batchId, ctx::counts);
+                    ctx.message("成功导入" + cnt + "条考生数据");
+                } finally {
+                    Files.deleteIfExists(staged);
                 }
-
-                Organization org = null;
-                if (cityId != null) {
-                    org = organizationMapper.selectByNameAndCityId(orgName, cityId);
-                }
-                if (org == null) {
-                    // 如果 cityId 为空或未匹配到，则尝试在所有城市中按名称模糊匹配（这里简化：分页查询首个匹配）
-                    List<Organization> list = organizationMapper.selectByPage(null, orgName);
-                    if (!list.isEmpty()) {
-                        org = list.get(0);
-                    }
-                }
-                if (org == null) {
-                    log.warn("行{}：未找到单位'{}'，跳过", row, orgName);
-                    failCount++;
-                    return;
-                }
-                orgId = org.getId();
-
-                // 查找或创建学员（按身份证号唯一）
-                AccountUser user = accountUserMapper.selectByIdNo(idNo);
-                if (user == null) {
-                    user = new AccountUser();
-                    user.setName(name);
-                    user.setOrgId(orgId);
-                    user.setIdNo(idNo);
-                    user.setPhone(phone);
-                    // 默认密码：身份证号后6位
-                    String pwdRaw = idNo.length() >= 6 ? idNo.substring(idNo.length() - 6) : idNo;
-                    user.setPwd(passwordEncoder.encode(pwdRaw));
-                    user.setLocked(false);
-                    int rows = accountUserMapper.insert(user);
-                    if (rows == 0) {
-                        log.warn("行{}：创建学员失败，身份证号={}", row, idNo);
-                        failCount++;
-                        return;
-                    }
-                }
-
-                // 绑定到批次（如果已存在则由 ON DUPLICATE KEY 逻辑去重）
-                Examinee e = new Examinee();
-                e.setBatchId(batchId);
-                e.setUserId(user.getId());
-                e.setReviewStatus(0);
-                List<Examinee> one = new ArrayList<>();
-                one.add(e);
-                examineeMapper.insertBatch(one);
-
-                successCount++;
-            } catch (Exception ex) {
-                log.warn("行{}：导入失败，错误：{}", row, ex.getMessage());
-                failCount++;
-            }
+            });
+        } catch (RuntimeException e) {
+            JobService.deleteQuietly(staged);
+            throw e;
         }
+    }
 
-        @Override
-        public void doAfterAllAnalysed(AnalysisContext context) {
-            log.info("考生Excel全部解析完成");
+    /**
+     * 8.2.1 导入考生（CSV 流）
+     * 列顺序与 Excel 模板一致，首行为表头；请求体边读边解析，不受上传文件大小限制
+     */
+    public int importExamineeCsv(InputStream is, Long batchId) {
+        ExamBatch batch = examBatchMapper.selectById(batchId);
+        if (batch == null) {
+            throw new BusinessException(1, "考试批次不存在");
+        }
+        try {
+            return examineeImportService.importCsv(is, batchId);
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("导入考生失败：{}", e.getMessage(), e);
+            throw new BusinessException(1, "导入失败：" + e.getMessage());
         }
+    }
 
-        private String trim(String v) {
-            return v == null ? null : v.trim().isEmpty() ? null : v.trim();
+    private void checkImport(MultipartFile file, Long batchId) {
+        if (file == null || file.isEmpty()) {
+            throw new BusinessException(1, "上传文件不能为空");
+        }
+        String filename = file.getOriginalFilename();
+        if (filename == null || !filename.endsWith(".xlsx")) {
+            throw new BusinessException(1, "只支持Excel 2007版本以后格式文件(.xlsx)");
+        }
+        ExamBatch batch = examBatchMapper.selectById(batchId);
+        if (batch == null) {
+            throw new BusinessException(1, "考试批次不存在");
         }
     }
 
@@ -220,6 +148,11 @@ public class ExamineeService {
         if (list.isEmpty()) {
             return 0;
         }
+        TransactionUtil.afterCommit(() -> {
+            examRosterCache.putAll(batchId, list);
+            examSessionCache.invalidateBatch(batchId);
+            userBatchListCache.invalidate(userIds);
+        });
         return examineeMapper.insertBatch(list);
     }
 
@@ -266,6 +199,11 @@ public class ExamineeService {
         if (userIds == null || userIds.isEmpty()) {
             throw new BusinessException(1, "请选择要移除的考生");
         }
+        TransactionUtil.afterCommit(() -> {
+            examRosterCache.remove(batchId, userIds);
+            examSessionCache.invalidateBatch(batchId);
+            userBatchListCache.invalidate(userIds);
+        });
         return examineeMapper.deleteByBatchAndUserIds(batchId, userIds);
     }
 
@@ -312,7 +250,14 @@ public class ExamineeService {
         }
         int status = Boolean.TRUE.equals(request.getRs()) ? 1 : -1;
         examineeMapper.updateReviewStatus(request.getBatchId(), request.getIds(), status);
+        // 试卷已分发的批次，审核通过的考生立即分配试卷序号
+        if (status == 1 && Boolean.TRUE.equals(batch.getPapersDistributed())) {
+            paperAssignmentService.assignBatch(batch);
+        }
+        TransactionUtil.afterCommit(() -> {
+            examRosterCache.updateReviewStatus(request.getBatchId(), request.getIds(), status);
+            examSessionCache.invalidateBatch(request.getBatchId());
+            userBatchListCache.invalidate(request.getIds());
+        });
     }
 }
-
-
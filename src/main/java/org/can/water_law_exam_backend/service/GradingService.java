@@ -0,0 +1,253 @@
+package org.can.water_law_exam_backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.config.ExamProperties;
+import org.can.water_law_exam_backend.dto.response.score.GradingStatusVO;
+import org.can.water_law_exam_backend.dto.response.score.GradingSummaryVO;
+import org.can.water_law_exam_backend.entity.Examinee;
+import org.can.water_law_exam_backend.exception.BusinessException;
+import org.can.water_law_exam_backend.mapper.ExamScoreMapper;
+import org.can.water_law_exam_backend.mapper.ExamineeMapper;
+import org.can.water_law_exam_backend.util.TransactionUtil;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交卷评分服务
+ * 交卷只记录提交并在事务提交后入队，由有界线程池在后台评分；
+ * 同一考生同一批次同时只有一个评分任务，失败按退避重试。
+ * 补偿任务定时重新提交已交卷但尚无成绩的考生（包括服务重启前未完成的任务）。
+ */
+@Slf4j
+@Service
+public class GradingService {
+
+    private final ScoreService scoreService;
+    private final ExamineeMapper examineeMapper;
+    private final ExamScoreMapper examScoreMapper;
+    private final ExamProperties examProperties;
+    private final ThreadPoolTaskExecutor gradingExecutor;
+
+    private static final DateTimeFormatter DATETIME_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 未完成的评分任务；评分成功后移除，状态以成绩记录为准
+     */
+    private final ConcurrentHashMap<GradingKey, GradingTask> tasks = new ConcurrentHashMap<>();
+
+    public GradingService(ScoreService scoreService,
+                          ExamineeMapper examineeMapper,
+                          ExamScoreMapper examScoreMapper,
+                          ExamProperties examProperties,
+                          @Qualifier("gradingExecutor") ThreadPoolTaskExecutor gradingExecutor) {
+        this.scoreService = scoreService;
+        this.examineeMapper = examineeMapper;
+        this.examScoreMapper = examScoreMapper;
+        this.examProperties = examProperties;
+        this.gradingExecutor = gradingExecutor;
+    }
+
+    /**
+     * 交卷后调用：在当前事务提交后提交评分任务
+     */
+    public void enqueueAfterCommit(Long batchId, Long userId, LocalDateTime submitTime) {
+        TransactionUtil.afterCommit(() -> enqueue(batchId, userId, submitTime));
+    }
+
+    /**
+     * 提交评分任务；该考生已有排队或进行中的任务时忽略
+     *
+     * @return 是否提交了新任务
+     */
+    public boolean enqueue(Long batchId, Long userId, LocalDateTime submitTime) {
+        boolean[] created = {false};
+        GradingTask task = tasks.compute(new GradingKey(batchId, userId), (k, existing) -> {
+            if (existing != null && existing.state != State.PENDING && existing.state != State.FAILED) {
+                return existing;
+            }
+            // 等待补偿或已失败的任务以新任务替换，重新开始计数
+            created[0] = true;
+            return new GradingTask(k, submitTime);
+        });
+        if (created[0]) {
+            dispatch(task);
+        }
+        return created[0];
+    }
+
+    /**
+     * 管理端重新评分
+     */
+    public void regrade(Long batchId, Long userId) {
+        Examinee ex = examineeMapper.selectByUserAndBatch(userId, batchId).stream().findFirst()
+                .orElseThrow(() -> new BusinessException(1, "考生未报名该考试"));
+        if (!Boolean.TRUE.equals(ex.getSubmitted())) {
+            throw new BusinessException(1, "考生尚未交卷");
+        }
+        if (!enqueue(batchId, userId, ex.getSubmitTime())) {
+            throw new BusinessException(1, "该考生正在评分中，请稍后查询");
+        }
+    }
+
+    /**
+     * 查询考生评分状态
+     */
+    public GradingStatusVO status(Long batchId, Long userId) {
+        GradingTask task = tasks.get(new GradingKey(batchId, userId));
+        if (task != null) {
+            return task.toVO();
+        }
+        GradingStatusVO vo = new GradingStatusVO();
+        vo.setBatchId(batchId);
+        vo.setUserId(userId);
+        if (examScoreMapper.selectByBatchAndUser(batchId, userId) != null) {
+            vo.setStatus(State.DONE.name());
+            return vo;
+        }
+        Examinee ex = examineeMapper.selectByUserAndBatch(userId, batchId).stream().findFirst().orElse(null);
+        if (ex != null && Boolean.TRUE.equals(ex.getSubmitted())) {
+            vo.setStatus(State.PENDING.name());
+            vo.setSubmitTime(ex.getSubmitTime() == null ? null : ex.getSubmitTime().format(DATETIME_FMT));
+        } else {
+            vo.setStatus("NONE");
+        }
+        return vo;
+    }
+
+    /**
+     * 查询批次评分进度
+     */
+    public GradingSummaryVO summary(Long batchId) {
+        int inProgress = 0;
+        int failed = 0;
+        for (GradingTask task : tasks.values()) {
+            if (!task.key.batchId().equals(batchId)) {
+                continue;
+            }
+            if (task.state == State.FAILED) {
+                failed++;
+            } else {
+                inProgress++;
+            }
+        }
+        GradingSummaryVO vo = new GradingSummaryVO();
+        vo.setBatchId(batchId);
+        vo.setSubmitted(examineeMapper.countSubmittedByBatch(batchId));
+        vo.setGraded(examScoreMapper.countByBatch(batchId));
+        vo.setInProgress(inProgress);
+        vo.setFailed(failed);
+        return vo;
+    }
+
+    /**
+     * 补偿任务：重新提交已交卷但尚无成绩的考生
+     * 按主键分页扫描，跳过重试耗尽或仍在进行中的考生，直到提交满 sweepLimit 个或扫描完毕，
+     * 避免永久失败的记录占满查询窗口而使后续交卷得不到补偿。
+     */
+    @Scheduled(initialDelayString = "${exam.grading.sweep-interval-ms:60000}",
+            fixedDelayString = "${exam.grading.sweep-interval-ms:60000}")
+    public void sweep() {
+        int limit = Math.max(1, examProperties.getGrading().getSweepLimit());
+        long afterId = 0;
+        int count = 0;
+        while (count < limit) {
+            List<Examinee> list;
+            try {
+                list = examineeMapper.selectSubmittedWithoutScore(afterId, limit);
+            } catch (Exception e) {
+                log.warn("评分补偿查询失败：{}", e.getMessage());
+                break;
+            }
+            for (Examinee ex : list) {
+                afterId = ex.getId();
+                GradingTask task = tasks.get(new GradingKey(ex.getBatchId(), ex.getUserId()));
+                if (task != null && task.state == State.FAILED) {
+                    // 重试耗尽的任务等待管理端手动重新评分
+                    continue;
+                }
+                if (enqueue(ex.getBatchId(), ex.getUserId(), ex.getSubmitTime()) && ++count >= limit) {
+                    break;
+                }
+            }
+            if (list.size() < limit) {
+                break;
+            }
+        }
+        if (count > 0) {
+            log.info("评分补偿：重新提交{}个考生", count);
+        }
+    }
+
+    private void dispatch(GradingTask task) {
+        task.state = State.QUEUED;
+        try {
+            gradingExecutor.execute(() -> run(task));
+        } catch (TaskRejectedException e) {
+            task.state = State.PENDING;
+            log.warn("评分队列已满，考生{}批次{}等待补偿任务重新提交", task.key.userId(), task.key.batchId());
+        }
+    }
+
+    private void run(GradingTask task) {
+        task.state = State.RUNNING;
+        task.attempts++;
+        try {
+            scoreService.evaluateAndSaveScore(task.key.batchId(), task.key.userId(), task.submitTime);
+            tasks.remove(task.key, task);
+        } catch (Exception e) {
+            task.message = e.getMessage();
+            int maxAttempts = Math.max(1, examProperties.getGrading().getMaxAttempts());
+            if (task.attempts >= maxAttempts) {
+                task.state = State.FAILED;
+                log.error("考生{}批次{}评分失败，已尝试{}次：{}", task.key.userId(), task.key.batchId(),
+                        task.attempts, e.getMessage(), e);
+                return;
+            }
+            task.state = State.RETRYING;
+            long delay = examProperties.getGrading().getRetryBackoffMs() * task.attempts;
+            log.warn("考生{}批次{}评分失败，{}ms后重试：{}", task.key.userId(), task.key.batchId(), delay, e.getMessage());
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> dispatch(task));
+        }
+    }
+
+    private enum State {
+        PENDING, QUEUED, RUNNING, RETRYING, DONE, FAILED
+    }
+
+    private record GradingKey(Long batchId, Long userId) {
+    }
+
+    private static final class GradingTask {
+        private final GradingKey key;
+        private final LocalDateTime submitTime;
+        private volatile State state = State.QUEUED;
+        private volatile int attempts;
+        private volatile String message;
+
+        private GradingTask(GradingKey key, LocalDateTime submitTime) {
+            this.key = key;
+            this.submitTime = submitTime;
+        }
+
+        private GradingStatusVO toVO() {
+            GradingStatusVO vo = new GradingStatusVO();
+            vo.setBatchId(key.batchId());
+            vo.setUserId(key.userId());
+            vo.setStatus(state.name());
+            vo.setAttempts(attempts);
+            vo.setMessage(message);
+            vo.setSubmitTime(submitTime == null ? null : submitTime.format(DATETIME_FMT));
+            return vo;
+        }
+    }
+}
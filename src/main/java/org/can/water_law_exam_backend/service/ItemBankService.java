@@ -1,16 +1,24 @@
 package org.can.water_law_exam_backend.service;
 
+import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.cache.ItemIdPool;
+import org.can.water_law_exam_backend.cache.ItemSearchIndex;
+import org.can.water_law_exam_backend.cache.PaperAnswerKeyCache;
+import org.can.water_law_exam_backend.cache.PapersContentCache;
+import org.can.water_law_exam_backend.common.constant.ResultCodeEnum;
 import org.can.water_law_exam_backend.dto.excel.ItemBankExcelData;
 import org.can.water_law_exam_backend.dto.request.itembank.ItemBankAddRequest;
 import org.can.water_law_exam_backend.dto.request.itembank.ItemBankPageRequest;
 import org.can.water_law_exam_backend.dto.request.itembank.ItemBankUpdateRequest;
 import org.can.water_law_exam_backend.dto.response.common.PageResult;
 import org.can.water_law_exam_backend.dto.response.itembank.ItemBankVO;
+import org.can.water_law_exam_backend.dto.response.itembank.ItemDuplicateClusterVO;
+import org.can.water_law_exam_backend.dto.response.itembank.ItemImportResultVO;
 import org.can.water_law_exam_backend.dto.response.itembank.ItemOptionVO;
 import org.can.water_law_exam_backend.dto.response.teststruct.TestOptionVO;
 import org.can.water_law_exam_backend.dto.response.teststruct.TestQuestionVO;
@@ -19,20 +27,26 @@ import org.can.water_law_exam_backend.entity.ItemOption;
 import org.can.water_law_exam_backend.exception.BusinessException;
 import org.can.water_law_exam_backend.mapper.ItemBankMapper;
 import org.can.water_law_exam_backend.mapper.ItemOptionMapper;
+import org.can.water_law_exam_backend.util.CsvReader;
+import org.can.water_law_exam_backend.util.TransactionUtil;
 import cn.idev.excel.FastExcel;
 import cn.idev.excel.context.AnalysisContext;
 import cn.idev.excel.read.listener.ReadListener;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Set;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * 题库服务类
@@ -44,15 +58,67 @@ public class ItemBankService {
 
     private final ItemBankMapper itemBankMapper;
     private final ItemOptionMapper itemOptionMapper;
+    private final PapersContentCache papersContentCache;
+    private final PaperAnswerKeyCache paperAnswerKeyCache;
+    private final ItemIdPool itemIdPool;
+    private final ItemSearchIndex itemSearchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final JobService jobService;
+
+    /**
+     * 导入时每个写入事务包含的题目数
+     */
+    private static final int IMPORT_CHUNK = 500;
+
+    /**
+     * 导入结果中返回的近似重复提示条数上限
+     */
+    private static final int IMPORT_WARNING_LIMIT = 100;
 
     /**
      * 导入题库（从Excel文件）
      * Excel格式：题型 | 题干 | 选项A | 选项B | 选项C | 选项D | 答案 | 答案解析 | 题目分类ID | 重点题目
-     * 
+     * 解析后的行按 {@link #IMPORT_CHUNK} 条缓冲，每块一条题目批量插入、一条选项批量插入并单独提交；
+     * 某块写入失败时该块逐行重试，以便定位失败行。
+     *
      * @param file Excel 文件
      */
-    @Transactional(rollbackFor = Exception.class)
-    public int importItemBank(MultipartFile file) {
+    public ItemImportResultVO importItemBank(MultipartFile file) {
+        String filename = checkImportFile(file);
+        try (InputStream is = file.getInputStream()) {
+            return importItemBank(is, filename, null);
+        } catch (IOException e) {
+            log.error("导入题库失败：{}", e.getMessage(), e);
+            throw new BusinessException(1, "导入失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 导入题库（后台任务），每写入一块回报一次成功/失败计数，取消后不再写入后续块
+     *
+     * @return 任务ID
+     */
+    public Long importItemBankAsync(MultipartFile file) {
+        String filename = checkImportFile(file);
+        Path staged = jobService.stage(file, ".xlsx");
+        try {
+            return jobService.submit(JobService.TYPE_ITEM_IMPORT, ctx -> {
+                try (InputStream is = Files.newInputStream(staged)) {
+                    ctx.message(importItemBank(is, filename, ctx::counts).summary());
+                } finally {
+                    Files.deleteIfExists(staged);
+                }
+            });
+        } catch (RuntimeException e) {
+            JobService.deleteQuietly(staged);
+            throw e;
+        }
+    }
+
+    /**
+     * 校验导入文件，返回文件名
+     */
+    private String checkImportFile(MultipartFile file) {
         // 检查文件是否为空
         if (file == null || file.isEmpty()) {
             throw new BusinessException(1, "上传文件不能为空");
@@ -63,33 +129,105 @@ public class ItemBankService {
         if (filename == null || !filename.endsWith(".xlsx")) {
             throw new BusinessException(1, "只支持Excel 2007版本以后格式文件(.xlsx)");
         }
+        return filename;
+    }
 
-        try (InputStream is = file.getInputStream()) {
-            // 创建监听器来处理每一行数据
-            ItemBankImportListener listener = new ItemBankImportListener();
-            
-            // 使用 FastExcel读取Excel，指定读取Sheet1
-            FastExcel.read(is, ItemBankExcelData.class, listener)
-                    .sheet("导入题目模板")
-                    .doRead();
+    /**
+     * 导入题库（CSV 流）
+     * 列顺序与 Excel 模板一致，首行为表头；请求体边读边解析，与 Excel 导入共用分块写入，
+     * 内存占用只与块大小有关，不受文件大小和上传大小限制约束。
+     *
+     * @param is CSV 数据流（UTF-8）
+     */
+    public ItemImportResultVO importItemBankCsv(InputStream is) {
+        return importItemBank("CSV", null, listener -> {
+            try (CsvReader csv = new CsvReader(is)) {
+                // 跳过表头
+                if (csv.next()) {
+                    while (csv.next()) {
+                        listener.accept(csv.rowNo(), toExcelData(csv));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            listener.finish();
+        });
+    }
+
+    /**
+     * @param progress 每写入一块后回调（成功数, 失败数），可为空；回调抛出的异常中止导入
+     */
+    private ItemImportResultVO importItemBank(InputStream is, String filename, BiConsumer<Integer, Integer> progress) {
+        // 使用 FastExcel读取Excel，指定读取Sheet1
+        return importItemBank(filename, progress, listener -> FastExcel.read(is, ItemBankExcelData.class, listener)
+                .sheet("导入题目模板")
+                .doRead());
+    }
+
+    /**
+     * 按 Excel 模板列顺序映射一条 CSV 记录
+     */
+    private static ItemBankExcelData toExcelData(CsvReader csv) {
+        ItemBankExcelData data = new ItemBankExcelData();
+        data.setTypeName(csv.field(0));
+        data.setContent(csv.field(1));
+        data.setOptionA(csv.field(2));
+        data.setOptionB(csv.field(3));
+        data.setOptionC(csv.field(4));
+        data.setOptionD(csv.field(5));
+        data.setOptionE(csv.field(6));
+        data.setOptionF(csv.field(7));
+        data.setOptionG(csv.field(8));
+        data.setOptionH(csv.field(9));
+        data.setAnswer(csv.field(10));
+        data.setExplanation(csv.field(11));
+        data.setCategoryId(csv.field(12));
+        data.setIsKeyItem(csv.field(13));
+        return data;
+    }
+
+    /**
+     * @param source 数据来源（文件名），用于日志
+     * @param reader 读取数据并逐行交给监听器
+     */
+    private ItemImportResultVO importItemBank(String source, BiConsumer<Integer, Integer> progress,
+                                              Consumer<ItemBankImportListener> reader) {
+        // 创建监听器来处理每一行数据
+        ItemBankImportListener listener = new ItemBankImportListener(progress);
+        try {
+            reader.accept(listener);
             
             // 获取导入结果
             int successCount = listener.getSuccessCount();
             int failCount = listener.getFailCount();
             
-            log.info("题库导入完成：文件名={}，成功{}条，失败{}条", filename, successCount, failCount);
+            log.info("题库导入完成：文件名={}，成功{}条（其中近似重复{}条），失败{}条", source, successCount,
+                    listener.getDuplicateCount(), failCount);
             
             if (successCount == 0) {
                 throw new BusinessException(1, "导入失败：没有成功导入任何题目");
             }
 
-            return successCount;
+            ItemImportResultVO result = new ItemImportResultVO();
+            result.setSuccessCount(successCount);
+            result.setFailCount(failCount);
+            result.setDuplicateCount(listener.getDuplicateCount());
+            result.setUncheckedCount(listener.getUncheckedCount());
+            result.setDuplicates(listener.getWarnings());
+            return result;
             
         } catch (BusinessException e) {
             throw e;
         } catch (Exception e) {
-            log.error("导入题库失败：{}", e.getMessage(), e);
-            throw new BusinessException(1, "导入失败：" + e.getMessage());
+            String message = e instanceof UncheckedIOException ? e.getCause().getMessage() : e.getMessage();
+            log.error("导入题库失败：{}", message, e);
+            throw new BusinessException(1, "导入失败：" + message);
+        } finally {
+            // 各块已独立提交，中途失败时已写入的题目同样生效
+            if (listener.getSuccessCount() > 0) {
+                itemIdPool.invalidateAll();
+            }
         }
     }
     
@@ -101,14 +239,39 @@ public class ItemBankService {
         
         private int successCount = 0;
         private int failCount = 0;
+        /**
+         * 近似重复的行数：照常导入（计入成功数），只作为提示供人工核对
+         */
+        private int duplicateCount = 0;
+        /**
+         * 查重索引未就绪、未与已有题目查重的行数
+         */
+        private int uncheckedCount = 0;
+        /**
+         * 近似重复的提示，最多 {@link #IMPORT_WARNING_LIMIT} 条
+         */
+        private final List<String> warnings = new ArrayList<>();
+        private final List<ImportRow> buffer = new ArrayList<>(IMPORT_CHUNK);
+        private final BiConsumer<Integer, Integer> progress;
+
+        private ItemBankImportListener(BiConsumer<Integer, Integer> progress) {
+            this.progress = progress;
+        }
         
         @Override
         public void invoke(ItemBankExcelData data, AnalysisContext context) {
+            accept(context.readRowHolder().getRowIndex() + 1, data);
+        }
+
+        /**
+         * 校验解析一行并缓冲，满一块时写入
+         */
+        private void accept(int rowNo, ItemBankExcelData data) {
             try {
                 // 验证必填字段
                 if (isEmpty(data.getTypeName()) || isEmpty(data.getContent()) || 
                     isEmpty(data.getAnswer()) || isEmpty(data.getCategoryId())) {
-                    log.warn("行{}：必填字段缺失，跳过", context.readRowHolder().getRowIndex() + 1);
+                    log.warn("行{}：必填字段缺失，跳过", rowNo);
                     failCount++;
                     return;
                 }
@@ -116,7 +279,7 @@ public class ItemBankService {
                 // 解析题型 ID
                 Integer typeId = parseTypeId(data.getTypeName());
                 if (typeId == null) {
-                    log.warn("行{}：不支持的题型'{}'，跳过", context.readRowHolder().getRowIndex() + 1, data.getTypeName());
+                    log.warn("行{}：不支持的题型'{}'，跳过", rowNo, data.getTypeName());
                     failCount++;
                     return;
                 }
@@ -126,7 +289,7 @@ public class ItemBankService {
                 try {
                     categoryId = Integer.parseInt(data.getCategoryId().trim());
                 } catch (NumberFormatException e) {
-                    log.warn("行{}：分类ID格式错误'{}'，跳过", context.readRowHolder().getRowIndex() + 1, data.getCategoryId());
+                    log.warn("行{}：分类ID格式错误'{}'，跳过", rowNo, data.getCategoryId());
                     failCount++;
                     return;
                 }
@@ -147,41 +310,162 @@ public class ItemBankService {
                 itemBank.setIsKeyItem(isKeyItem);
                 itemBank.setExplanation(data.getExplanation() != null ? data.getExplanation().trim() : "");
                 
-                // 插入题目
-                itemBankMapper.insert(itemBank);
-                
-                // 处理选项
+                // 处理选项（题目ID在写入后回填）
                 List<ItemOption> options = buildOptionsFromExcel(
-                    itemBank.getId(), typeId,
+                    null, typeId,
                     data.getOptionA(), data.getOptionB(),
                     data.getOptionC(), data.getOptionD(),
                     data.getOptionE(), data.getOptionF(),
                     data.getOptionG(), data.getOptionH(),
                     data.getAnswer()
                 );
-                
-                if (!options.isEmpty()) {
-                    itemOptionMapper.insertBatch(options);
+
+                // 查重：与已有题目或本次导入尚未写入的行近似重复时照常导入，记录提示
+                ItemSearchIndex.Fingerprint fingerprint = ItemSearchIndex.fingerprint(itemBank, options);
+                if (fingerprint != null) {
+                    checkDuplicate(rowNo, typeId, fingerprint);
                 }
-                
-                successCount++;
+
+                buffer.add(new ImportRow(rowNo, itemBank, options, fingerprint));
                 
             } catch (Exception e) {
-                log.error("行{}：导入失败，错误：{}", context.readRowHolder().getRowIndex() + 1, e.getMessage());
+                log.error("行{}：导入失败，错误：{}", rowNo, e.getMessage());
                 failCount++;
             }
+            // 在行级异常处理之外写入，进度回调的中止异常直接结束读取
+            if (buffer.size() >= IMPORT_CHUNK) {
+                flush();
+            }
         }
         
         @Override
         public void doAfterAllAnalysed(AnalysisContext context) {
+            finish();
+        }
+
+        private void checkDuplicate(int rowNo, Integer typeId, ItemSearchIndex.Fingerprint fingerprint) {
+            // 索引构建完成后不会回到未就绪状态，先判断再查重即可区分“无重复”与“未查重”
+            boolean ready = itemSearchIndex.isReady();
+            Long duplicateId = itemSearchIndex.findDuplicate(typeId, fingerprint, null);
+            if (!ready) {
+                if (uncheckedCount++ == 0) {
+                    log.warn("行{}：题库查重索引未就绪，已提交构建，该行起未与已有题目查重", rowNo);
+                    warnings.add("题库查重索引未就绪，第" + rowNo + "行起未与已有题目查重，请导入后查看近似重复题目报告核对");
+                }
+            }
+            if (duplicateId != null) {
+                warnDuplicate(rowNo, "与已有题目（ID=" + duplicateId + "）近似重复");
+                return;
+            }
+            for (ImportRow row : buffer) {
+                if (row.fingerprint() != null && typeId.equals(row.item().getTypeId())
+                        && row.fingerprint().similarTo(fingerprint)) {
+                    warnDuplicate(rowNo, "与第" + row.rowNo() + "行近似重复");
+                    return;
+                }
+            }
+        }
+
+        private void warnDuplicate(int rowNo, String message) {
+            log.warn("行{}：{}，已导入，请核对", rowNo, message);
+            duplicateCount++;
+            if (warnings.size() < IMPORT_WARNING_LIMIT) {
+                warnings.add("第" + rowNo + "行" + message);
+            }
+        }
+
+        private void finish() {
+            flush();
             log.info("所有数据解析完成");
         }
 
+        /**
+         * 写入缓冲的行：整块一个事务，失败时逐行重试并记录失败行；提交成功的行再写入检索索引
+         */
+        private void flush() {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            List<ImportRow> rows = new ArrayList<>(buffer);
+            buffer.clear();
+            List<ImportRow> inserted;
+            try {
+                transactionTemplate.executeWithoutResult(s -> insertRows(rows));
+                inserted = rows;
+            } catch (RuntimeException e) {
+                log.warn("行{}-{}：批量写入失败，逐行重试：{}", rows.get(0).rowNo(),
+                        rows.get(rows.size() - 1).rowNo(), e.getMessage());
+                inserted = new ArrayList<>(rows.size());
+                for (ImportRow row : rows) {
+                    try {
+                        transactionTemplate.executeWithoutResult(s -> insertRows(List.of(row)));
+                        inserted.add(row);
+                    } catch (RuntimeException ex) {
+                        log.error("行{}：导入失败，错误：{}", row.rowNo(), ex.getMessage());
+                        failCount++;
+                    }
+                }
+            }
+            successCount += inserted.size();
+            indexRows(inserted);
+            if (progress != null) {
+                progress.accept(successCount, failCount);
+            }
+        }
+
         private boolean isEmpty(String str) {
             return str == null || str.trim().isEmpty();
         }
     }
     
+    /**
+     * 插入一组题目及其选项：题目一条批量插入（回填ID），选项一条批量插入
+     */
+    private void insertRows(List<ImportRow> rows) {
+        List<ItemBank> items = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            items.add(row.item());
+        }
+        itemBankMapper.insertBatch(items);
+        List<ItemOption> options = new ArrayList<>(rows.size() * 4);
+        for (ImportRow row : rows) {
+            for (ItemOption option : row.options()) {
+                option.setItemId(row.item().getId());
+                options.add(option);
+            }
+        }
+        if (!options.isEmpty()) {
+            itemOptionMapper.insertBatch(options);
+        }
+    }
+
+    /**
+     * 已提交的导入行写入检索索引；索引失败不影响已提交的数据，只记录日志
+     */
+    private void indexRows(List<ImportRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<ItemBank> items = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            row.item().setOptions(row.options());
+            items.add(row.item());
+        }
+        try {
+            itemSearchIndex.putAll(items);
+        } catch (RuntimeException e) {
+            log.error("行{}-{}：已导入的题目写入检索索引失败：{}", rows.get(0).rowNo(),
+                    rows.get(rows.size() - 1).rowNo(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 待写入的导入行
+     */
+    private record ImportRow(int rowNo, ItemBank item, List<ItemOption> options,
+                             ItemSearchIndex.Fingerprint fingerprint) {
+    }
+
     /**
      * 根据题型名称解析题型ID
      */
@@ -380,10 +664,27 @@ public class ItemBankService {
         // 处理选项
         List<ItemOption> options = processOptions(itemBank.getId(), request.getTypeId(), request.getOptions());
 
+        // 查重：与已有同题型题目近似重复时须确认（force）后才保存，未确认时事务回滚已插入的题目
+        ItemSearchIndex.Fingerprint fingerprint = ItemSearchIndex.fingerprint(itemBank, options);
+        if (fingerprint != null) {
+            Long duplicateId = itemSearchIndex.findDuplicate(itemBank.getTypeId(), fingerprint, null);
+            if (duplicateId != null) {
+                if (!Boolean.TRUE.equals(request.getForce())) {
+                    throw new BusinessException(ResultCodeEnum.DATA_EXIST.getCode(),
+                            "与已有题目（ID=" + duplicateId + "）近似重复，确认不是重复题目后可强制保存");
+                }
+                log.warn("新增题目与题目{}近似重复，已确认保存", duplicateId);
+            }
+        }
+
         if (!options.isEmpty()) {
             itemOptionMapper.insertBatch(options);
         }
 
+        TransactionUtil.afterCommit(() -> {
+            itemIdPool.invalidate(request.getTypeId());
+            itemSearchIndex.put(itemBank, options);
+        });
         log.info("添加题目成功：id={}, typeId={}, categoryId={}", 
                 itemBank.getId(), itemBank.getTypeId(), itemBank.getCategoryId());
     }
@@ -549,10 +850,29 @@ public class ItemBankService {
         // 处理选项
         List<ItemOption> options = processOptionsForUpdate(request.getId(), request.getTypeId(), request.getOptions());
 
+        // 查重：修改后与其他题目近似重复时只提示，不阻止修改
+        ItemSearchIndex.Fingerprint fingerprint = ItemSearchIndex.fingerprint(itemBank, options);
+        if (fingerprint != null) {
+            Long duplicateId = itemSearchIndex.findDuplicate(itemBank.getTypeId(), fingerprint, itemBank.getId());
+            if (duplicateId != null) {
+                log.warn("修改后的题目{}与题目{}近似重复", itemBank.getId(), duplicateId);
+            }
+        }
+
         if (!options.isEmpty()) {
             itemOptionMapper.insertBatch(options);
         }
 
+        // 检索索引按创建时间排序
+        itemBank.setCreateTime(existingItem.getCreateTime());
+        // 题目内容可能已被组入试卷，缓存的试卷内容与标准答案需要重新组装；题型可能变化
+        TransactionUtil.afterCommit(() -> {
+            papersContentCache.invalidateAll();
+            paperAnswerKeyCache.invalidateAll();
+            itemIdPool.invalidate(existingItem.getTypeId());
+            itemIdPool.invalidate(request.getTypeId());
+            itemSearchIndex.put(itemBank, options);
+        });
         log.info("修改题目成功：id={}", request.getId());
     }
 
@@ -578,6 +898,12 @@ public class ItemBankService {
             throw new BusinessException(1, "删除题目失败");
         }
 
+        TransactionUtil.afterCommit(() -> {
+            papersContentCache.invalidateAll();
+            paperAnswerKeyCache.invalidateAll();
+            itemIdPool.invalidateAll();
+            itemSearchIndex.remove(ids);
+        });
         log.info("批量删除题目成功：删除数量={}", rows);
     }
 
@@ -640,6 +966,14 @@ public class ItemBankService {
             }
         }
 
+        // 有关键字时走检索索引，索引未就绪时回退到数据库模糊查询
+        if (key != null) {
+            List<Long> ids = itemSearchIndex.search(key, categoryId, typeId);
+            if (ids != null) {
+                return pageByIds(ids, request.getPage(), request.getSize());
+            }
+        }
+
         // 使用PageHelper进行分页
         PageHelper.startPage(request.getPage(), request.getSize());
         List<ItemBank> itemBankList = itemBankMapper.selectByPage(categoryId, typeId, key);
@@ -647,30 +981,7 @@ public class ItemBankService {
         // 转换为VO列表并处理选项
         List<ItemBankVO> voList = new ArrayList<>();
         for (ItemBank itemBank : itemBankList) {
-            // 1. 基础属性拷贝
-            ItemBankVO itemBankVO = new ItemBankVO();
-            BeanUtils.copyProperties(itemBank, itemBankVO);
-
-            // 2. 处理选项
-            List<ItemOption> options = itemOptionMapper.selectByItemId(itemBank.getId());
-            List<ItemOptionVO> optionVOS = new ArrayList<>();
-
-            if (itemBank.getTypeId() == 3) { // 特定题型处理
-                boolean hasCorrect = options.stream().anyMatch(ItemOption::getIsCorrect);
-                ItemOptionVO correctVO = new ItemOptionVO();
-                correctVO.setChecked(hasCorrect);
-                optionVOS.add(correctVO);
-            } else { // 普通题型处理
-                for (ItemOption option : options) {
-                    ItemOptionVO optionVO = new ItemOptionVO();
-                    optionVO.setTitle(option.getOptionTitle());
-                    optionVO.setChecked(option.getIsCorrect());
-                    optionVOS.add(optionVO);
-                }
-            }
-
-            itemBankVO.setOptions(optionVOS);
-            voList.add(itemBankVO);
+            voList.add(toPageVO(itemBank, itemOptionMapper.selectByItemId(itemBank.getId())));
         }
 
         // 构建分页结果（基于原始分页信息转换）
@@ -682,6 +993,104 @@ public class ItemBankService {
         return PageResult.of(voPageInfo);
     }
 
+    /**
+     * 全库近似重复题目分组
+     */
+    public List<ItemDuplicateClusterVO> getDuplicateClusters() {
+        List<List<Long>> clusters = itemSearchIndex.duplicateClusters();
+        if (clusters == null) {
+            throw new BusinessException(1, "题库索引正在构建，请稍后再试");
+        }
+        List<Long> ids = new ArrayList<>();
+        for (List<Long> cluster : clusters) {
+            ids.addAll(cluster);
+        }
+        Map<Long, ItemBank> items = new HashMap<>();
+        Map<Long, List<ItemOption>> options = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += 1000) {
+            List<Long> slice = ids.subList(from, Math.min(from + 1000, ids.size()));
+            for (ItemBank itemBank : itemBankMapper.selectByIds(slice)) {
+                items.put(itemBank.getId(), itemBank);
+            }
+            for (ItemOption option : itemOptionMapper.selectByItemIds(slice)) {
+                options.computeIfAbsent(option.getItemId(), k -> new ArrayList<>()).add(option);
+            }
+        }
+
+        List<ItemDuplicateClusterVO> result = new ArrayList<>(clusters.size());
+        for (List<Long> cluster : clusters) {
+            List<ItemBankVO> vos = new ArrayList<>(cluster.size());
+            for (Long id : cluster) {
+                ItemBank itemBank = items.get(id);
+                if (itemBank != null) {
+                    vos.add(toPageVO(itemBank, options.getOrDefault(id, Collections.emptyList())));
+                }
+            }
+            if (vos.size() > 1) {
+                ItemDuplicateClusterVO vo = new ItemDuplicateClusterVO();
+                vo.setSize(vos.size());
+                vo.setItems(vos);
+                result.add(vo);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按检索结果的顺序分页，当前页题目与选项各一次批量查询
+     */
+    private PageResult<ItemBankVO> pageByIds(List<Long> ids, int pageNum, int pageSize) {
+        int from = Math.min((pageNum - 1) * pageSize, ids.size());
+        List<Long> pageIds = ids.subList(from, Math.min(from + pageSize, ids.size()));
+
+        Page<ItemBankVO> page = new Page<>(pageNum, pageSize);
+        page.setTotal(ids.size());
+        if (!pageIds.isEmpty()) {
+            Map<Long, ItemBank> items = new HashMap<>();
+            for (ItemBank itemBank : itemBankMapper.selectByIds(pageIds)) {
+                items.put(itemBank.getId(), itemBank);
+            }
+            Map<Long, List<ItemOption>> options = new HashMap<>();
+            for (ItemOption option : itemOptionMapper.selectByItemIds(pageIds)) {
+                options.computeIfAbsent(option.getItemId(), k -> new ArrayList<>()).add(option);
+            }
+            for (Long id : pageIds) {
+                ItemBank itemBank = items.get(id);
+                // 检索后被删除的题目
+                if (itemBank != null) {
+                    page.add(toPageVO(itemBank, options.getOrDefault(id, Collections.emptyList())));
+                }
+            }
+        }
+        return PageResult.of(new PageInfo<>(page));
+    }
+
+    private ItemBankVO toPageVO(ItemBank itemBank, List<ItemOption> options) {
+        // 1. 基础属性拷贝
+        ItemBankVO itemBankVO = new ItemBankVO();
+        BeanUtils.copyProperties(itemBank, itemBankVO);
+
+        // 2. 处理选项
+        List<ItemOptionVO> optionVOS = new ArrayList<>();
+
+        if (itemBank.getTypeId() == 3) { // 特定题型处理
+            boolean hasCorrect = options.stream().anyMatch(ItemOption::getIsCorrect);
+            ItemOptionVO correctVO = new ItemOptionVO();
+            correctVO.setChecked(hasCorrect);
+            optionVOS.add(correctVO);
+        } else { // 普通题型处理
+            for (ItemOption option : options) {
+                ItemOptionVO optionVO = new ItemOptionVO();
+                optionVO.setTitle(option.getOptionTitle());
+                optionVO.setChecked(option.getIsCorrect());
+                optionVOS.add(optionVO);
+            }
+        }
+
+        itemBankVO.setOptions(optionVOS);
+        return itemBankVO;
+    }
+
     /**
      * 根据题型ID和数量，获取题目列表（包含选项）
      * @param typeId 题型ID
@@ -696,32 +1105,26 @@ public class ItemBankService {
             return questionVOList;
         }
 
-        // 1. 先查询该题型下的题目ID（随机获取，复用你原有Service的逻辑，避免大表性能问题）
-        Set<Long> questionIdSet = new LinkedHashSet<>();
-        int total = itemBankMapper.countByType(typeId); // 先查该题型总题数
-        if (total < count) {
-            log.warn("题型ID:{} 题库不足，需要{}道，现有{}道", typeId, count, total);
+        // 1. 从题目ID池中随机抽取（无放回、无偏，不查询数据库）
+        long[] pool = itemIdPool.ids(typeId);
+        if (pool.length < count) {
+            log.warn("题型ID:{} 题库不足，需要{}道，现有{}道", typeId, count, pool.length);
             return questionVOList;
         }
+        long[] questionIds = ItemIdPool.sample(pool, count, ThreadLocalRandom.current());
 
-        // 随机获取题目ID（你的原有随机偏移采样逻辑，性能更优）
-        int pageSize = Math.min(count, 50);
-        while (questionIdSet.size() < count) {
-            int maxStart = Math.max(total - pageSize, 0);
-            int offset = maxStart == 0 ? 0 : ThreadLocalRandom.current().nextInt(0, maxStart + 1);
-            List<Long> batchIdList = itemBankMapper.selectIdsByTypeWithOffset(typeId, pageSize, offset);
-            for (Long questionId : batchIdList) {
-                questionIdSet.add(questionId);
-                if (questionIdSet.size() >= count) {
-                    break;
-                }
-            }
+        // 2. 批量查询题目详情和选项
+        List<Long> idList = Arrays.stream(questionIds).boxed().toList();
+        Map<Long, ItemBank> items = new HashMap<>();
+        for (ItemBank ib : itemBankMapper.selectByIds(idList)) {
+            items.put(ib.getId(), ib);
         }
-
-        // 2. 根据题目ID查询题目详情和选项
-        for (Long questionId : questionIdSet) {
-            // 查询题目详情
-            ItemBank itemBank = itemBankMapper.selectById(questionId);
+        Map<Long, List<ItemOption>> options = new HashMap<>();
+        for (ItemOption o : itemOptionMapper.selectByItemIds(idList)) {
+            options.computeIfAbsent(o.getItemId(), k -> new ArrayList<>()).add(o);
+        }
+        for (long questionId : questionIds) {
+            ItemBank itemBank = items.get(questionId);
             if (itemBank == null) {
                 continue;
             }
@@ -734,8 +1137,8 @@ public class ItemBankService {
             testQuestionVO.setContent(itemBank.getContent()); // 题目内容
             testQuestionVO.setExplanation(itemBank.getExplanation()); // 题目解析（可选）
 
-            // 3. 查询该题的选项
-            List<ItemOption> itemOptionList = itemOptionMapper.selectByItemId(questionId);
+            // 3. 该题的选项
+            List<ItemOption> itemOptionList = options.getOrDefault(questionId, Collections.emptyList());
             List<TestOptionVO> optionVOList = new ArrayList<>();
             for (ItemOption itemOption : itemOptionList) {
                 TestOptionVO testOptionVO = new TestOptionVO();
@@ -2,12 +2,14 @@ package org.can.water_law_exam_backend.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.cache.ReferenceDataCache;
 import org.can.water_law_exam_backend.dto.request.itemcategory.ItemCategoryAddRequest;
 import org.can.water_law_exam_backend.dto.request.itemcategory.ItemCategoryUpdateRequest;
 import org.can.water_law_exam_backend.dto.response.itemcategory.ItemCategoryVO;
 import org.can.water_law_exam_backend.entity.ItemCategory;
 import org.can.water_law_exam_backend.exception.BusinessException;
 import org.can.water_law_exam_backend.mapper.ItemCategoryMapper;
+import org.can.water_law_exam_backend.util.TransactionUtil;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,9 +22,10 @@ import java.util.stream.Collectors;
 public class ItemCategoryService {
 
     private final ItemCategoryMapper itemCategoryMapper;
+    private final ReferenceDataCache referenceDataCache;
 
     public List<ItemCategoryVO> getCategoryTree() {
-        List<ItemCategory> all = itemCategoryMapper.selectAll();
+        List<ItemCategory> all = referenceDataCache.categories();
         Map<Integer, List<ItemCategory>> parentIdToChildren = all.stream()
                 .collect(Collectors.groupingBy(c -> Optional.ofNullable(c.getParentId()).orElse(0)));
         List<ItemCategoryVO> roots = new ArrayList<>();
@@ -34,7 +37,7 @@ public class ItemCategoryService {
     }
 
     public ItemCategoryVO getById(Integer id) {
-        ItemCategory category = itemCategoryMapper.selectById(id);
+        ItemCategory category = referenceDataCache.category(id);
         if (category == null) {
             throw new BusinessException(404, "分类不存在");
         }
@@ -72,6 +75,7 @@ public class ItemCategoryService {
                 itemCategoryMapper.update(parent);
             }
         }
+        TransactionUtil.afterCommit(referenceDataCache::refreshCategories);
         log.info("添加分类成功：id={}, title={}, parentId={}", category.getId(), category.getTitle(), category.getParentId());
     }
 
@@ -106,6 +110,7 @@ public class ItemCategoryService {
         }
         // 维护新老父级叶子状态
         maintainLeafStatusAfterMove(exist.getId(), exist.getParentId());
+        TransactionUtil.afterCommit(referenceDataCache::refreshCategories);
         log.info("修改分类成功：id={}, title={}, parentId={}", exist.getId(), exist.getTitle(), exist.getParentId());
     }
 
@@ -114,6 +119,7 @@ public class ItemCategoryService {
         if (ids == null || ids.isEmpty()) {
             throw new BusinessException(400, "请选择要删除的数据");
         }
+        TransactionUtil.afterCommit(referenceDataCache::refreshCategories);
         int success = 0;
         for (Integer id : ids) {
             if (tryDelete(id)) {
@@ -125,6 +131,7 @@ public class ItemCategoryService {
 
     @Transactional(rollbackFor = Exception.class)
     public boolean deleteOne(Integer id) {
+        TransactionUtil.afterCommit(referenceDataCache::refreshCategories);
         return tryDelete(id);
     }
 
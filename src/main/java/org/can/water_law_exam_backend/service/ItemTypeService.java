@@ -2,6 +2,7 @@ package org.can.water_law_exam_backend.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.cache.ReferenceDataCache;
 import org.can.water_law_exam_backend.entity.ItemType;
 import org.can.water_law_exam_backend.exception.BusinessException;
 import org.can.water_law_exam_backend.mapper.ItemTypeMapper;
@@ -22,6 +23,7 @@ import java.util.List;
 public class ItemTypeService {
 
     private final ItemTypeMapper itemTypeMapper;
+    private final ReferenceDataCache referenceDataCache;
 
     /**
      * 获取所有题型列表
@@ -30,7 +32,7 @@ public class ItemTypeService {
      */
     public List<ItemType> getAllItemTypes() {
         log.info("获取所有题型列表");
-        List<ItemType> list = itemTypeMapper.selectAll();
+        List<ItemType> list = referenceDataCache.itemTypes();
         log.info("获取题型列表成功，共{}条记录", list.size());
         return list;
     }
@@ -0,0 +1,452 @@
+package org.can.water_law_exam_backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.common.constant.JobStatusEnum;
+import org.can.water_law_exam_backend.config.ExamProperties;
+import org.can.water_law_exam_backend.dto.response.job.JobVO;
+import org.can.water_law_exam_backend.entity.SysJob;
+import org.can.water_law_exam_backend.exception.BusinessException;
+import org.can.water_law_exam_backend.mapper.SysJobMapper;
+import org.can.water_law_exam_backend.security.LoginUser;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * 后台任务服务
+ * 导入、导出、组卷等耗时操作提交后立即返回任务ID，在有界的任务线程池上执行，
+ * 状态、进度与结果持久化到 tb_sys_job（进度最多每秒写一次），客户端轮询查询。
+ * 取消为协作式：任务在每块处理完成回报进度时检查取消标记并中止，已提交的块按各业务自身规则保留或补偿。
+ * 任务在提交它的节点上执行，取消请求需落到同一节点；节点重启时只将本节点上次启动时未结束的任务标记为失败。
+ */
+@Slf4j
+@Service
+public class JobService {
+
+    public static final String TYPE_ITEM_IMPORT = "ITEM_IMPORT";
+    public static final String TYPE_EXAMINEE_IMPORT = "EXAMINEE_IMPORT";
+    public static final String TYPE_SCORE_EXPORT = "SCORE_EXPORT";
+    public static final String TYPE_PAPERS_CREATE = "PAPERS_CREATE";
+
+    /**
+     * 进度落库最小间隔（毫秒）
+     */
+    private static final long PROGRESS_FLUSH_MS = 1000;
+
+    private static final int MESSAGE_MAX_LENGTH = 500;
+
+    private static final DateTimeFormatter DATETIME_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final SysJobMapper sysJobMapper;
+    private final ThreadPoolTaskExecutor jobExecutor;
+    private final ExamProperties examProperties;
+
+    /**
+     * 本节点标识，跨重启保持不变
+     */
+    private final String nodeId;
+
+    /**
+     * 本次启动的标识，每次启动重新生成
+     */
+    private final String bootId = UUID.randomUUID().toString();
+
+    /**
+     * 本节点上排队或运行中的任务
+     */
+    private final ConcurrentHashMap<Long, Context> active = new ConcurrentHashMap<>();
+
+    public JobService(SysJobMapper sysJobMapper,
+                      @Qualifier("jobExecutor") ThreadPoolTaskExecutor jobExecutor,
+                      ExamProperties examProperties) {
+        this.sysJobMapper = sysJobMapper;
+        this.jobExecutor = jobExecutor;
+        this.examProperties = examProperties;
+        this.nodeId = resolveNodeId(examProperties.getJob().getNodeId());
+    }
+
+    /**
+     * 任务主体
+     */
+    @FunctionalInterface
+    public interface Task {
+        void run(Context ctx) throws Exception;
+    }
+
+    /**
+     * 提交任务，任务在提交人的安全上下文中执行
+     *
+     * @param type 任务类型
+     * @param task 任务主体
+     * @return 任务ID
+     */
+    public Long submit(String type, Task task) {
+        SysJob job = new SysJob();
+        job.setJobType(type);
+        job.setStatus(JobStatusEnum.QUEUED.getCode());
+        job.setCreatorId(currentUserId());
+        job.setNodeId(nodeId);
+        job.setBootId(bootId);
+        sysJobMapper.insert(job);
+
+        Context ctx = new Context(job.getId());
+        active.put(ctx.jobId, ctx);
+        try {
+            ctx.future = jobExecutor.submit(new DelegatingSecurityContextRunnable(() -> execute(ctx, task)));
+        } catch (TaskRejectedException e) {
+            active.remove(ctx.jobId);
+            ctx.message = "任务队列已满";
+            finish(ctx, JobStatusEnum.FAILED);
+            throw new BusinessException(1, "后台任务过多，请稍后再试");
+        }
+        log.info("提交后台任务：id={}, type={}", ctx.jobId, type);
+        return ctx.jobId;
+    }
+
+    private void execute(Context ctx, Task task) {
+        try {
+            if (ctx.cancelled) {
+                ctx.message = "任务已取消";
+                finish(ctx, JobStatusEnum.CANCELLED);
+                return;
+            }
+            sysJobMapper.markRunning(ctx.jobId);
+            long begin = System.currentTimeMillis();
+            try {
+                task.run(ctx);
+                if (ctx.cancelled) {
+                    ctx.message = "任务已取消";
+                    finish(ctx, JobStatusEnum.CANCELLED);
+                } else {
+                    finish(ctx, JobStatusEnum.SUCCEEDED);
+                }
+                log.info("后台任务结束：id={}, 耗时{}ms", ctx.jobId, System.currentTimeMillis() - begin);
+            } catch (Exception e) {
+                if (ctx.cancelled) {
+                    ctx.message = "任务已取消";
+                    finish(ctx, JobStatusEnum.CANCELLED);
+                    log.info("后台任务已取消：id={}", ctx.jobId);
+                } else {
+                    ctx.message = e instanceof BusinessException ? e.getMessage() : "任务执行失败：" + e.getMessage();
+                    finish(ctx, JobStatusEnum.FAILED);
+                    log.error("后台任务失败：id={}, {}", ctx.jobId, e.getMessage(), e);
+                }
+            }
+        } catch (Exception e) {
+            log.error("后台任务状态写入失败：id={}, {}", ctx.jobId, e.getMessage(), e);
+        } finally {
+            active.remove(ctx.jobId);
+        }
+    }
+
+    private void finish(Context ctx, JobStatusEnum status) {
+        SysJob job = ctx.snapshot();
+        job.setStatus(status.getCode());
+        String message = ctx.message;
+        if (message != null && message.length() > MESSAGE_MAX_LENGTH) {
+            message = message.substring(0, MESSAGE_MAX_LENGTH);
+        }
+        job.setMessage(message);
+        job.setResultFile(status == JobStatusEnum.SUCCEEDED && ctx.resultFile != null ? ctx.resultFile.toString() : null);
+        sysJobMapper.finish(job);
+        if (status != JobStatusEnum.SUCCEEDED) {
+            deleteQuietly(ctx.resultFile);
+        }
+    }
+
+    /**
+     * 查询任务状态；本节点运行中的任务返回内存中的最新进度
+     */
+    public JobVO get(Long id) {
+        SysJob job = sysJobMapper.selectById(id);
+        if (job == null) {
+            throw new BusinessException(404, "任务不存在");
+        }
+        Context ctx = active.get(id);
+        if (ctx != null && !JobStatusEnum.of(job.getStatus()).isFinished()) {
+            job.setProgressDone(ctx.done);
+            job.setProgressTotal(ctx.total);
+            job.setSuccessCount(ctx.success);
+            job.setFailCount(ctx.fail);
+        }
+        return toVO(job);
+    }
+
+    /**
+     * 取消任务：排队中的任务直接取消，运行中的任务在下一次回报进度时中止
+     */
+    public void cancel(Long id) {
+        SysJob job = sysJobMapper.selectById(id);
+        if (job == null) {
+            throw new BusinessException(404, "任务不存在");
+        }
+        if (JobStatusEnum.of(job.getStatus()).isFinished()) {
+            throw new BusinessException(1, "任务已结束");
+        }
+        Context ctx = active.get(id);
+        if (ctx == null) {
+            throw new BusinessException(1, "任务不在当前节点运行，无法取消");
+        }
+        ctx.cancelled = true;
+        if (ctx.future != null && ctx.future.cancel(false)) {
+            // 尚未开始执行
+            active.remove(id);
+            ctx.message = "任务已取消";
+            finish(ctx, JobStatusEnum.CANCELLED);
+        }
+        log.info("取消后台任务：id={}", id);
+    }
+
+    /**
+     * 获取成功任务的结果文件
+     */
+    public Path resultFile(Long id) {
+        SysJob job = sysJobMapper.selectById(id);
+        if (job == null) {
+            throw new BusinessException(404, "任务不存在");
+        }
+        if (!JobStatusEnum.SUCCEEDED.getCode().equals(job.getStatus()) || job.getResultFile() == null) {
+            throw new BusinessException(1, "任务没有可下载的结果文件");
+        }
+        Path file = Paths.get(job.getResultFile());
+        if (!Files.isRegularFile(file)) {
+            throw new BusinessException(1, "结果文件已过期，请重新导出");
+        }
+        return file;
+    }
+
+    /**
+     * 将上传文件暂存到任务目录（请求结束后上传的临时文件即被清理），由任务读取后删除
+     */
+    public Path stage(MultipartFile file, String suffix) {
+        try {
+            Path dir = workDir();
+            Path staged = Files.createTempFile(dir, "upload-", suffix);
+            file.transferTo(staged);
+            return staged;
+        } catch (IOException e) {
+            log.error("暂存上传文件失败：{}", e.getMessage(), e);
+            throw new BusinessException(1, "暂存上传文件失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 启动后将本节点上次运行中断的任务标记为失败，失败只记录日志
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        jobExecutor.execute(() -> {
+            try {
+                int n = sysJobMapper.failUnfinished(nodeId, bootId, "服务重启，任务中断");
+                if (n > 0) {
+                    log.warn("{}个后台任务因服务重启中断，已标记为失败", n);
+                }
+            } catch (Exception e) {
+                log.warn("恢复后台任务状态失败：{}", e.getMessage());
+            }
+        });
+    }
+
+    private static String resolveNodeId(String configured) {
+        if (StringUtils.hasText(configured)) {
+            return configured.trim();
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            log.warn("获取主机名失败，使用默认节点标识：{}", e.getMessage());
+            return "default";
+        }
+    }
+
+    /**
+     * 每天清理过期任务及其结果文件
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void purge() {
+        try {
+            LocalDateTime before = LocalDateTime.now().minusDays(examProperties.getJob().getRetentionDays());
+            List<SysJob> expired = sysJobMapper.selectFinishedBefore(before);
+            if (expired.isEmpty()) {
+                return;
+            }
+            List<Long> ids = new ArrayList<>(expired.size());
+            for (SysJob job : expired) {
+                ids.add(job.getId());
+                if (job.getResultFile() != null) {
+                    deleteQuietly(Paths.get(job.getResultFile()));
+                }
+            }
+            sysJobMapper.deleteBatch(ids);
+            log.info("清理过期后台任务{}个", ids.size());
+        } catch (Exception e) {
+            log.warn("清理过期后台任务失败：{}", e.getMessage());
+        }
+    }
+
+    private Path workDir() throws IOException {
+        String configured = examProperties.getJob().getWorkDir();
+        Path dir = StringUtils.hasText(configured)
+                ? Paths.get(configured)
+                : Paths.get(System.getProperty("java.io.tmpdir"), "water-law-jobs");
+        return Files.createDirectories(dir);
+    }
+
+    /**
+     * 删除任务文件，失败只记录日志
+     */
+    public static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除任务文件失败：{}", file);
+        }
+    }
+
+    private static Long currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof LoginUser loginUser) {
+            return loginUser.getUserId();
+        }
+        return null;
+    }
+
+    private JobVO toVO(SysJob job) {
+        JobStatusEnum status = JobStatusEnum.of(job.getStatus());
+        JobVO vo = new JobVO();
+        vo.setId(job.getId());
+        vo.setType(job.getJobType());
+        vo.setStatus(job.getStatus());
+        vo.setStatusName(status == null ? null : status.getMessage());
+        vo.setProgressDone(job.getProgressDone());
+        vo.setProgressTotal(job.getProgressTotal());
+        vo.setSuccessCount(job.getSuccessCount());
+        vo.setFailCount(job.getFailCount());
+        vo.setMessage(job.getMessage());
+        vo.setHasFile(status == JobStatusEnum.SUCCEEDED && job.getResultFile() != null);
+        vo.setCreateTime(job.getCreateTime() == null ? null : job.getCreateTime().format(DATETIME_FMT));
+        vo.setStartTime(job.getStartTime() == null ? null : job.getStartTime().format(DATETIME_FMT));
+        vo.setFinishTime(job.getFinishTime() == null ? null : job.getFinishTime().format(DATETIME_FMT));
+        return vo;
+    }
+
+    /**
+     * 任务运行上下文：回报进度、检查取消、登记结果
+     */
+    public final class Context {
+
+        private final Long jobId;
+        private volatile boolean cancelled;
+        private volatile int done;
+        private volatile int total;
+        private volatile int success;
+        private volatile int fail;
+        private volatile String message;
+        private volatile Path resultFile;
+        private volatile long lastFlush;
+        private volatile Future<?> future;
+
+        private Context(Long jobId) {
+            this.jobId = jobId;
+        }
+
+        public Long jobId() {
+            return jobId;
+        }
+
+        /**
+         * 回报进度；任务已取消时抛出 {@link CancellationException}
+         *
+         * @param done  已处理数量
+         * @param total 总数量，未知时为 0
+         */
+        public void progress(int done, int total) {
+            this.done = done;
+            this.total = total;
+            flush();
+        }
+
+        /**
+         * 回报成功/失败计数（导入类任务，已处理数量取两者之和）；任务已取消时抛出 {@link CancellationException}
+         */
+        public void counts(int success, int fail) {
+            this.success = success;
+            this.fail = fail;
+            this.done = success + fail;
+            flush();
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * 设置任务结束时展示的结果信息
+         */
+        public void message(String message) {
+            this.message = message;
+        }
+
+        /**
+         * 分配结果文件路径，任务成功后可通过任务接口下载
+         */
+        public Path resultFile(String suffix) throws IOException {
+            Path file = workDir().resolve("job-" + jobId + suffix);
+            this.resultFile = file;
+            return file;
+        }
+
+        private void flush() {
+            if (cancelled) {
+                throw new CancellationException("任务已取消");
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastFlush < PROGRESS_FLUSH_MS) {
+                return;
+            }
+            lastFlush = now;
+            try {
+                sysJobMapper.updateProgress(snapshot());
+            } catch (Exception e) {
+                log.warn("任务{}进度写入失败：{}", jobId, e.getMessage());
+            }
+        }
+
+        private SysJob snapshot() {
+            SysJob job = new SysJob();
+            job.setId(jobId);
+            job.setProgressDone(done);
+            job.setProgressTotal(total);
+            job.setSuccessCount(success);
+            job.setFailCount(fail);
+            return job;
+        }
+    }
+}
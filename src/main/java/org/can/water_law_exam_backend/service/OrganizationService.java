@@ -4,6 +4,7 @@ import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.cache.ReferenceDataCache;
 import org.can.water_law_exam_backend.dto.request.organization.OrganizationAddRequest;
 import org.can.water_law_exam_backend.dto.request.organization.OrganizationPageRequest;
 import org.can.water_law_exam_backend.dto.request.organization.OrganizationUpdateRequest;
@@ -14,6 +15,7 @@ import org.can.water_law_exam_backend.entity.Organization;
 import org.can.water_law_exam_backend.exception.BusinessException;
 import org.can.water_law_exam_backend.mapper.CityMapper;
 import org.can.water_law_exam_backend.mapper.OrganizationMapper;
+import org.can.water_law_exam_backend.util.TransactionUtil;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,6 +36,7 @@ public class OrganizationService {
 
     private final OrganizationMapper organizationMapper;
     private final CityMapper cityMapper;
+    private final ReferenceDataCache referenceDataCache;
 
     /**
      * 逐级获取下一级组织列表
@@ -50,14 +53,14 @@ public class OrganizationService {
         // 当 pId 为 null、0 或负数时，返回所有城市
         if (pId == null || pId == 0) {
             // 获取所有城市（地级市）
-            List<City> cities = cityMapper.selectAll();
+            List<City> cities = referenceDataCache.cities();
             result = cities.stream()
                     .map(OrganizationTreeVO::fromCity)
                     .collect(Collectors.toList());
             log.info("获取所有城市，共{}个", result.size());
         } else {
             // 获取指定城市下的所有单位
-            List<Organization> organizations = organizationMapper.selectByCityIdAndEnabled(pId.intValue(), enabled);
+            List<Organization> organizations = referenceDataCache.organizationsByCity(pId.intValue());
             result = organizations.stream()
                     .map(OrganizationTreeVO::fromOrganization)
                     .collect(Collectors.toList());
@@ -75,11 +78,11 @@ public class OrganizationService {
      */
     public List<Organization> getOrganizationsByCityId(Integer cityId) {
         // 检查城市是否存在
-        City city = cityMapper.selectById(cityId);
+        City city = referenceDataCache.city(cityId);
         if (city == null) {
             throw new BusinessException(404, "城市不存在");
         }
-        return organizationMapper.selectByCityId(cityId);
+        return referenceDataCache.organizationsByCity(cityId);
     }
 
     /**
@@ -119,7 +122,7 @@ public class OrganizationService {
      * @return 单位信息
      */
     public Organization getOrganizationById(Long id) {
-        Organization organization = organizationMapper.selectById(id);
+        Organization organization = referenceDataCache.organization(id);
         if (organization == null) {
             throw new BusinessException(404, "单位不存在");
         }
@@ -160,6 +163,7 @@ public class OrganizationService {
             throw new BusinessException(500, "添加单位失败");
         }
 
+        TransactionUtil.afterCommit(referenceDataCache::refreshOrganizations);
         log.info("添加单位成功：{}, 所属城市：{}", orgName, city.getCityName());
 
         // 查询并返回完整信息（包含城市名称）
@@ -203,6 +207,7 @@ public class OrganizationService {
             throw new BusinessException(500, "更新单位失败");
         }
 
+        TransactionUtil.afterCommit(referenceDataCache::refreshOrganizations);
         log.info("更新单位成功：ID={}, 新名称={}, 所属城市={}", request.getOrgId(), newOrgName, city.getCityName());
     }
 
@@ -231,6 +236,7 @@ public class OrganizationService {
             throw new BusinessException(500, "删除单位失败");
         }
 
+        TransactionUtil.afterCommit(referenceDataCache::refreshOrganizations);
         log.info("删除单位成功：ID={}, 名称={}", id, organization.getOrgName());
     }
 
@@ -265,6 +271,7 @@ public class OrganizationService {
             throw new BusinessException(500, "批量删除单位失败");
         }
 
+        TransactionUtil.afterCommit(referenceDataCache::refreshOrganizations);
         log.info("批量删除单位成功：删除数量={}", rows);
         return rows;
     }
@@ -0,0 +1,242 @@
+package org.can.water_law_exam_backend.service;
+
+import org.can.water_law_exam_backend.entity.ExamAnswer;
+import org.can.water_law_exam_backend.entity.ItemOption;
+import org.can.water_law_exam_backend.entity.PapersContent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的试卷标准答案
+ * 按题目顺序保存题目ID、题型、分值与正确选项位掩码（选项 n 对应第 n 位），
+ * 评分时考生答案直接解析为位掩码，每题一次整数比较。构建后只读，可在多个评分线程间共享。
+ */
+public final class PaperAnswerKey {
+
+    /**
+     * 判断题题型ID
+     */
+    public static final int JUDGE_TYPE_ID = 3;
+
+    /**
+     * 可用位掩码表示的最大选项编号
+     */
+    public static final int MAX_OPTION_NO = 30;
+
+    /**
+     * 超出范围的选项编号（负数或大于 {@link #MAX_OPTION_NO}）记到该位，保证判为错误
+     */
+    private static final int INVALID_BIT = 1 << 31;
+
+    private final Integer papersNo;
+    private final long[] itemIds;
+    private final int[] typeIds;
+    private final double[] scores;
+    private final int[] correctMasks;
+
+    private PaperAnswerKey(Integer papersNo, long[] itemIds, int[] typeIds, double[] scores, int[] correctMasks) {
+        this.papersNo = papersNo;
+        this.itemIds = itemIds;
+        this.typeIds = typeIds;
+        this.scores = scores;
+        this.correctMasks = correctMasks;
+    }
+
+    /**
+     * 由试卷内容与选项构建标准答案
+     *
+     * @param papersNo 试卷序号
+     * @param contents 试卷内容（题目顺序）
+     * @param options  题目ID -> 选项列表
+     */
+    public static PaperAnswerKey of(Integer papersNo, List<PapersContent> contents, Map<Long, List<ItemOption>> options) {
+        int n = contents.size();
+        long[] itemIds = new long[n];
+        int[] typeIds = new int[n];
+        double[] scores = new double[n];
+        int[] correctMasks = new int[n];
+        for (int i = 0; i < n; i++) {
+            PapersContent pc = contents.get(i);
+            itemIds[i] = pc.getItemId();
+            typeIds[i] = pc.getTypeId() == null ? 0 : pc.getTypeId();
+            scores[i] = pc.getScore() == null ? 0 : pc.getScore().doubleValue();
+            correctMasks[i] = correctMask(options.getOrDefault(pc.getItemId(), Collections.emptyList()));
+        }
+        return new PaperAnswerKey(papersNo, itemIds, typeIds, scores, correctMasks);
+    }
+
+    /**
+     * 正确选项位掩码
+     */
+    public static int correctMask(List<ItemOption> options) {
+        int mask = 0;
+        for (ItemOption o : options) {
+            if (Boolean.TRUE.equals(o.getIsCorrect()) && o.getOptionNo() != null) {
+                mask |= bit(o.getOptionNo());
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 读取答题记录的位掩码：优先使用 answer_mask 列，旧数据（仅有 answer_content）解析字符串兼容
+     *
+     * @param answer 答题记录（可能为null）
+     * @param typeId 题型ID
+     * @return 位掩码（0 表示未作答）
+     */
+    public static int answerMask(ExamAnswer answer, Integer typeId) {
+        if (answer == null) {
+            return 0;
+        }
+        int mask = answer.getAnswerMask() != null ? answer.getAnswerMask() : parseMask(answer.getAnswerContent());
+        return normalize(mask, typeId);
+    }
+
+    /**
+     * 将考生提交的选项编号编码为位掩码（按原值存储，不做题型映射）
+     */
+    public static int encode(List<Integer> options) {
+        int mask = 0;
+        if (options != null) {
+            for (Integer no : options) {
+                if (no != null) {
+                    mask |= bit(no);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 按题型规范化位掩码：判断题前端约定 1=正确，0=错误，0 映射为选项2；直接传 1/2 也能识别
+     */
+    public static int normalize(int mask, Integer typeId) {
+        if (typeId != null && typeId == JUDGE_TYPE_ID && (mask & 1) != 0) {
+            return (mask & ~1) | bit(2);
+        }
+        return mask;
+    }
+
+    /**
+     * 解析答案内容并按题型规范化
+     */
+    public static int parseMask(CharSequence raw, Integer typeId) {
+        return normalize(parseMask(raw), typeId);
+    }
+
+    /**
+     * 解析旧格式答案内容为选项位掩码，格式形如 "[1, 4]" 或 "2"，不产生中间对象
+     * 非数字片段忽略；超出范围的编号记为无效位，使该题判为错误。
+     *
+     * @param raw 答案内容
+     * @return 位掩码（0 表示未作答）
+     */
+    public static int parseMask(CharSequence raw) {
+        if (raw == null) {
+            return 0;
+        }
+        int mask = 0;
+        long value = 0;
+        int digits = 0;
+        boolean negative = false;
+        boolean signed = false;
+        boolean valid = true;
+        boolean tokenEnded = false;
+        int len = raw.length();
+        for (int i = 0; i <= len; i++) {
+            char c = i == len ? ',' : raw.charAt(i);
+            if (c == ',') {
+                if (valid && digits > 0) {
+                    mask |= bit(negative ? -value : value);
+                }
+                value = 0;
+                digits = 0;
+                negative = false;
+                signed = false;
+                valid = true;
+                tokenEnded = false;
+            } else if (c == '[' || c == ']') {
+                // 与原实现一致：方括号在任意位置都被忽略
+            } else if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                if (digits > 0 || signed) {
+                    tokenEnded = true;
+                }
+            } else if (!valid) {
+                // 当前片段已无效，跳到下一个逗号
+            } else if (tokenEnded) {
+                valid = false;
+            } else if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits++;
+                if (value > Integer.MAX_VALUE) {
+                    valid = false;
+                }
+            } else if ((c == '-' || c == '+') && digits == 0 && !signed) {
+                negative = c == '-';
+                signed = true;
+            } else {
+                valid = false;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 选项编号对应的位
+     */
+    public static int bit(long optionNo) {
+        return optionNo >= 0 && optionNo <= MAX_OPTION_NO ? 1 << optionNo : INVALID_BIT;
+    }
+
+    /**
+     * 位掩码转换为选项编号列表（升序，仅包含有效的正整数编号）
+     */
+    public static List<Integer> toOptionNos(int mask) {
+        List<Integer> list = new ArrayList<>(Integer.bitCount(mask));
+        for (int no = 1; no <= MAX_OPTION_NO; no++) {
+            if ((mask & (1 << no)) != 0) {
+                list.add(no);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 判定作答是否正确；未作答或未配置正确选项时为错误
+     */
+    public static boolean matches(int correctMask, int chosenMask) {
+        return correctMask != 0 && correctMask == chosenMask;
+    }
+
+    public boolean isCorrect(int index, int chosenMask) {
+        return matches(correctMasks[index], chosenMask);
+    }
+
+    public Integer getPapersNo() {
+        return papersNo;
+    }
+
+    public int size() {
+        return itemIds.length;
+    }
+
+    public long itemId(int index) {
+        return itemIds[index];
+    }
+
+    public int typeId(int index) {
+        return typeIds[index];
+    }
+
+    public double score(int index) {
+        return scores[index];
+    }
+
+    public int correctMask(int index) {
+        return correctMasks[index];
+    }
+}
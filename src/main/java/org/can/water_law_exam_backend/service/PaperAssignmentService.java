@@ -0,0 +1,142 @@
+package org.can.water_law_exam_backend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.cache.ExamRosterCache;
+import org.can.water_law_exam_backend.entity.ExamBatch;
+import org.can.water_law_exam_backend.entity.Examinee;
+import org.can.water_law_exam_backend.entity.Papers;
+import org.can.water_law_exam_backend.exception.BusinessException;
+import org.can.water_law_exam_backend.mapper.ExamineeMapper;
+import org.can.water_law_exam_backend.mapper.PapersMapper;
+import org.can.water_law_exam_backend.util.TransactionUtil;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 试卷序号分配服务
+ * 分发试卷时为批次内所有审核通过、尚未分配（或序号已不在当前试卷组内）的考生分配试卷序号：
+ * 考生与试卷顺序均随机打乱后轮流分配，并优先补足已分配人数较少的试卷，使各套试卷人数尽量均衡。
+ * 已开始考试或已交卷的考生保留原序号，不会在考试中途被换卷。
+ * 分配结果按批次一次写回；试卷分发后单个考生报名时只为其本人按当前人数分配。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaperAssignmentService {
+
+    /**
+     * 单条批量更新语句最多包含的考生数
+     */
+    private static final int WRITE_CHUNK = 500;
+
+    private final ExamineeMapper examineeMapper;
+    private final PapersMapper papersMapper;
+    private final ExamRosterCache examRosterCache;
+
+    /**
+     * 为批次内审核通过的考生分配试卷序号，需在事务内调用；事务提交后同步报名索引
+     *
+     * @return 本次分配的考生数
+     */
+    public int assignBatch(ExamBatch batch) {
+        List<Papers> papersList = papersMapper.selectByGroupId(batch.getPapersId());
+        if (papersList == null || papersList.isEmpty()) {
+            throw new BusinessException(1, "试卷组内没有可用试卷");
+        }
+        // 各套试卷已分配的审核通过考生数
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (Papers p : papersList) {
+            counts.put(p.getPapersNo(), 0);
+        }
+        List<Long> pending = new ArrayList<>();
+        for (Examinee e : examineeMapper.selectRegistrationsByBatch(batch.getId())) {
+            if (!Integer.valueOf(1).equals(e.getReviewStatus())) {
+                continue;
+            }
+            if (e.getPapersNo() != null && counts.containsKey(e.getPapersNo())) {
+                counts.merge(e.getPapersNo(), 1, Integer::sum);
+            } else if (!Boolean.TRUE.equals(e.getExamStarted()) && !Boolean.TRUE.equals(e.getSubmitted())) {
+                // 已开始或已交卷的考生即使序号不在当前试卷组内也不再更换
+                pending.add(e.getUserId());
+            }
+        }
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        Random random = ThreadLocalRandom.current();
+        Collections.shuffle(pending, random);
+        List<Integer> papersNos = new ArrayList<>(counts.keySet());
+        Collections.shuffle(papersNos, random);
+        // 每次分配给已分配人数最少的试卷，人数相同按打乱后的顺序，即各套持平后依次轮转
+        int n = papersNos.size();
+        int[] load = new int[n];
+        PriorityQueue<Integer> queue = new PriorityQueue<>(n,
+                Comparator.<Integer>comparingInt(i -> load[i]).thenComparingInt(i -> i));
+        for (int i = 0; i < n; i++) {
+            load[i] = counts.get(papersNos.get(i));
+            queue.add(i);
+        }
+        List<Examinee> assigned = new ArrayList<>(pending.size());
+        for (Long userId : pending) {
+            int i = queue.poll();
+            load[i]++;
+            queue.add(i);
+            Examinee e = new Examinee();
+            e.setBatchId(batch.getId());
+            e.setUserId(userId);
+            e.setPapersNo(papersNos.get(i));
+            assigned.add(e);
+        }
+
+        for (int from = 0; from < assigned.size(); from += WRITE_CHUNK) {
+            examineeMapper.updatePapersNoBatch(batch.getId(),
+                    assigned.subList(from, Math.min(from + WRITE_CHUNK, assigned.size())));
+        }
+        TransactionUtil.afterCommit(() -> examRosterCache.updatePapersNo(batch.getId(), assigned));
+        log.info("批次{}分配试卷序号：{}人，试卷{}套", batch.getId(), assigned.size(), n);
+        return assigned.size();
+    }
+
+    /**
+     * 为单个审核通过的考生分配试卷序号（试卷分发后报名时使用），需在事务内调用
+     * 按当前各套试卷人数选择人数最少的一套，人数相同时随机；不读取整个批次的报名记录。
+     * 并发报名可能选中同一套试卷，只会造成各套人数的轻微偏差。
+     *
+     * @return 分配的试卷序号
+     */
+    public Integer assignOne(ExamBatch batch, Long userId) {
+        List<Papers> papersList = papersMapper.selectByGroupId(batch.getPapersId());
+        if (papersList == null || papersList.isEmpty()) {
+            throw new BusinessException(1, "试卷组内没有可用试卷");
+        }
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (Papers p : papersList) {
+            counts.put(p.getPapersNo(), 0);
+        }
+        for (Map<String, Object> row : examineeMapper.countApprovedByPapersNo(batch.getId())) {
+            Integer no = ((Number) row.get("papersNo")).intValue();
+            counts.computeIfPresent(no, (k, v) -> ((Number) row.get("cnt")).intValue());
+        }
+        List<Integer> papersNos = new ArrayList<>(counts.keySet());
+        Collections.shuffle(papersNos, ThreadLocalRandom.current());
+        Integer chosen = papersNos.get(0);
+        for (Integer no : papersNos) {
+            if (counts.get(no) < counts.get(chosen)) {
+                chosen = no;
+            }
+        }
+
+        Examinee e = new Examinee();
+        e.setBatchId(batch.getId());
+        e.setUserId(userId);
+        e.setPapersNo(chosen);
+        List<Examinee> one = List.of(e);
+        examineeMapper.updatePapersNoBatch(batch.getId(), one);
+        TransactionUtil.afterCommit(() -> examRosterCache.updatePapersNo(batch.getId(), one));
+        return chosen;
+    }
+}
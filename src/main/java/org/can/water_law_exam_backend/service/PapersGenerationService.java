@@ -0,0 +1,225 @@
+package org.can.water_law_exam_backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.cache.ItemIdPool;
+import org.can.water_law_exam_backend.cache.ReferenceDataCache;
+import org.can.water_law_exam_backend.dto.request.papers.PapersCreateRequest;
+import org.can.water_law_exam_backend.entity.*;
+import org.can.water_law_exam_backend.exception.BusinessException;
+import org.can.water_law_exam_backend.mapper.*;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 试卷组生成引擎
+ * 题型信息取自基础数据缓存，候选题目取自题目ID池，各套试卷在 ForkJoin 公共池上并行抽题，
+ * 随后按块批量写入试卷、结构与内容，每块一个事务，避免整组生成长时间占用一个连接。
+ * 任一块写入失败时删除已写入的整个试卷组。
+ */
+@Slf4j
+@Service
+public class PapersGenerationService {
+
+    /**
+     * 每个写入事务包含的试卷套数
+     */
+    private static final int PAPERS_PER_CHUNK = 10;
+
+    /**
+     * 单条批量插入语句最多包含的试卷内容行数
+     */
+    private static final int CONTENT_WRITE_CHUNK = 1000;
+
+    private final PapersMapper papersMapper;
+    private final PapersGroupMapper papersGroupMapper;
+    private final PapersStructMapper papersStructMapper;
+    private final PapersContentMapper papersContentMapper;
+    private final ItemIdPool itemIdPool;
+    private final ReferenceDataCache referenceDataCache;
+    private final TransactionTemplate transactionTemplate;
+
+    public PapersGenerationService(PapersMapper papersMapper,
+                                   PapersGroupMapper papersGroupMapper,
+                                   PapersStructMapper papersStructMapper,
+                                   PapersContentMapper papersContentMapper,
+                                   ItemIdPool itemIdPool,
+                                   ReferenceDataCache referenceDataCache,
+                                   PlatformTransactionManager transactionManager) {
+        this.papersMapper = papersMapper;
+        this.papersGroupMapper = papersGroupMapper;
+        this.papersStructMapper = papersStructMapper;
+        this.papersContentMapper = papersContentMapper;
+        this.itemIdPool = itemIdPool;
+        this.referenceDataCache = referenceDataCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 生成试卷组
+     *
+     * @param req       组卷请求（已校验）
+     * @param template  组卷模板
+     * @param creatorId 创建人ID
+     * @param progress  进度回调：(已写入套数, 总套数)，可为 null
+     * @return 生成的试卷套数
+     */
+    public int generate(PapersCreateRequest req, PapersTemplate template, Long creatorId,
+                        BiConsumer<Integer, Integer> progress) {
+        long begin = System.currentTimeMillis();
+        List<TypePlan> plans = plan(req);
+        int sumScore = plans.stream().mapToInt(TypePlan::totalScore).sum();
+        int papersCount = req.getPapersCount();
+
+        // 各套试卷相互独立，并行抽题
+        List<List<Long>> sampled = IntStream.range(0, papersCount).parallel()
+                .mapToObj(i -> sample(plans))
+                .collect(Collectors.toList());
+
+        PapersGroup group = new PapersGroup();
+        group.setGroupTitle(req.getTemplateName());
+        group.setPapersCount(papersCount);
+        group.setTotalScore(sumScore);
+        group.setTemplateId(template.getId());
+        group.setCreatorId(creatorId);
+        transactionTemplate.executeWithoutResult(s -> papersGroupMapper.insert(group));
+
+        int written = 0;
+        try {
+            for (int from = 0; from < papersCount; from += PAPERS_PER_CHUNK) {
+                int start = from;
+                int end = Math.min(from + PAPERS_PER_CHUNK, papersCount);
+                transactionTemplate.executeWithoutResult(s ->
+                        writeChunk(group, req.getTemplateName(), sumScore, plans, sampled, start, end));
+                written = end;
+                if (progress != null) {
+                    progress.accept(written, papersCount);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("试卷组{}生成失败（已写入{}套），删除已写入数据：{}", group.getId(), written, e.getMessage(), e);
+            compensate(group.getId());
+            throw e;
+        }
+        log.info("试卷组{}生成完成：{}套，每套{}题，耗时{}ms", group.getId(), papersCount,
+                plans.stream().mapToInt(TypePlan::need).sum(), System.currentTimeMillis() - begin);
+        return papersCount;
+    }
+
+    /**
+     * 解析各题型的题型信息、每题分值与候选题目
+     */
+    private List<TypePlan> plan(PapersCreateRequest req) {
+        List<TypePlan> plans = new ArrayList<>(req.getDetails().size());
+        for (PapersCreateRequest.DetailDTO d : req.getDetails()) {
+            Integer typeId = d.getTypeId();
+            int need = d.getTotality();
+            long[] candidates = itemIdPool.ids(typeId);
+            if (candidates.length < need) {
+                throw new BusinessException(1, "题库不足，题型" + typeId + "需要" + need + "道题，现有" + candidates.length);
+            }
+            BigDecimal spi = new BigDecimal(d.getTotalScore()).divide(new BigDecimal(need), 2, RoundingMode.HALF_UP);
+            plans.add(new TypePlan(typeId, referenceDataCache.itemType(typeId), need, d.getTotalScore(), spi, candidates));
+        }
+        return plans;
+    }
+
+    /**
+     * 为一套试卷抽题：各题型在候选题目中无放回均匀抽取
+     */
+    private static List<Long> sample(List<TypePlan> plans) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> picked = new ArrayList<>(plans.stream().mapToInt(TypePlan::need).sum());
+        for (TypePlan plan : plans) {
+            for (long id : ItemIdPool.sample(plan.candidates(), plan.need(), random)) {
+                picked.add(id);
+            }
+        }
+        return picked;
+    }
+
+    private void writeChunk(PapersGroup group, String title, int sumScore, List<TypePlan> plans,
+                            List<List<Long>> sampled, int start, int end) {
+        List<Papers> papers = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            Papers paper = new Papers();
+            paper.setGroupId(group.getId());
+            paper.setPapersTitle(title);
+            paper.setPapersNo(i + 1);
+            paper.setTotalScore(sumScore);
+            paper.setTemplateId(group.getTemplateId());
+            paper.setCreatorId(group.getCreatorId());
+            papers.add(paper);
+        }
+        papersMapper.insertBatch(papers);
+
+        List<PapersStruct> structs = new ArrayList<>(papers.size() * plans.size());
+        List<PapersContent> contents = new ArrayList<>();
+        for (int k = 0; k < papers.size(); k++) {
+            Papers paper = papers.get(k);
+            Iterator<Long> itemIds = sampled.get(start + k).iterator();
+            int sort = 1;
+            for (TypePlan plan : plans) {
+                PapersStruct ps = new PapersStruct();
+                ps.setPapersId(paper.getId());
+                ps.setTypeId(plan.typeId());
+                if (plan.type() != null) {
+                    ps.setTypeName(plan.type().getTypeName());
+                    ps.setTypeRemarks(plan.type().getTypeRemarks());
+                }
+                ps.setScore(plan.totalScore());
+                structs.add(ps);
+                for (int n = 0; n < plan.need(); n++) {
+                    PapersContent pc = new PapersContent();
+                    pc.setPapersId(paper.getId());
+                    pc.setPapersNo(paper.getPapersNo());
+                    pc.setItemId(itemIds.next());
+                    pc.setTypeId(plan.typeId());
+                    pc.setScore(plan.scorePerItem());
+                    pc.setSortOrder(sort++);
+                    contents.add(pc);
+                }
+            }
+        }
+        if (!structs.isEmpty()) {
+            papersStructMapper.insertBatch(structs);
+        }
+        for (int from = 0; from < contents.size(); from += CONTENT_WRITE_CHUNK) {
+            papersContentMapper.insertBatch(contents.subList(from, Math.min(from + CONTENT_WRITE_CHUNK, contents.size())));
+        }
+    }
+
+    /**
+     * 删除生成失败的试卷组及已写入的试卷
+     */
+    private void compensate(Long groupId) {
+        try {
+            transactionTemplate.executeWithoutResult(s -> {
+                List<Long> paperIds = papersMapper.selectByGroupId(groupId).stream().map(Papers::getId).toList();
+                if (!paperIds.isEmpty()) {
+                    papersStructMapper.deleteByPapersIds(paperIds);
+                    papersContentMapper.deleteByPapersIds(paperIds);
+                    papersMapper.deleteBatch(paperIds);
+                }
+                papersGroupMapper.deleteBatch(List.of(groupId));
+            });
+        } catch (Exception e) {
+            log.error("试卷组{}回滚删除失败，需手动清理：{}", groupId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 单个题型的组卷计划
+     */
+    private record TypePlan(Integer typeId, ItemType type, int need, int totalScore,
+                            BigDecimal scorePerItem, long[] candidates) {
+    }
+}
@@ -4,6 +4,10 @@ import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.cache.AdminNameCache;
+import org.can.water_law_exam_backend.cache.PaperAnswerKeyCache;
+import org.can.water_law_exam_backend.cache.PapersContentCache;
+import org.can.water_law_exam_backend.cache.ReferenceDataCache;
 import org.can.water_law_exam_backend.dto.request.papers.PapersCreateRequest;
 import org.can.water_law_exam_backend.dto.request.template.TemplatePageRequest;
 import org.can.water_law_exam_backend.dto.response.common.PageResult;
@@ -17,16 +21,17 @@ import org.can.water_law_exam_backend.dto.response.papers.PapersContentOptionVO;
 import org.can.water_law_exam_backend.entity.*;
 import org.can.water_law_exam_backend.exception.BusinessException;
 import org.can.water_law_exam_backend.mapper.*;
+import org.can.water_law_exam_backend.security.LoginUser;
+import org.can.water_law_exam_backend.util.TransactionUtil;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -41,106 +46,50 @@ public class PapersService {
     private final PapersTemplateMapper papersTemplateMapper;
     private final TemplateDetailMapper templateDetailMapper;
     private final ItemBankMapper itemBankMapper;
-    private final ItemTypeMapper itemTypeMapper;
+    private final ReferenceDataCache referenceDataCache;
     private final ItemOptionMapper itemOptionMapper;
-    private final AdminMapper adminMapper;
+    private final AdminNameCache adminNameCache;
+    private final PapersContentCache papersContentCache;
+    private final PaperAnswerKeyCache paperAnswerKeyCache;
+    private final PapersGenerationService papersGenerationService;
+    private final JobService jobService;
 
-    @Transactional(rollbackFor = Exception.class)
+    /**
+     * 生成试卷组：各套试卷并行抽题，按块分事务写入
+     */
     public int create(PapersCreateRequest req) {
+        return create(req, null);
+    }
+
+    /**
+     * 生成试卷组并回报进度
+     *
+     * @param progress 进度回调：(已写入套数, 总套数)，可为 null
+     */
+    public int create(PapersCreateRequest req, BiConsumer<Integer, Integer> progress) {
         PapersTemplate papersTemplate = papersTemplateMapper.selectByTemplateName(req.getTemplateName());
         if (papersTemplate == null) {
             throw new BusinessException(1, "组卷模板不存在");
         }
         validate(req, papersTemplate);
-        // 每个题型的每题分值与数量
-        Map<Integer, BigDecimal> scorePerItem = new HashMap<>();
-        // Map<Integer, Integer> countPerType = new HashMap<>();
-        int sumScore = 0;
-        for (PapersCreateRequest.DetailDTO d : req.getDetails()) {
-            BigDecimal spi = new BigDecimal(d.getTotalScore()).divide(new BigDecimal(d.getTotality()), 2, RoundingMode.HALF_UP);
-            scorePerItem.put(d.getTypeId(), spi);
-            //  countPerType.put(d.getTypeId(), d.getTotality());
-            sumScore += d.getTotalScore();
-        }
-
-        PapersGroup group = new PapersGroup();
-        group.setGroupTitle(req.getTemplateName());
-        group.setPapersCount(req.getPapersCount());
-        group.setTotalScore(sumScore);
-        group.setTemplateId(papersTemplate.getId());
-        Long creatorId = currentAdminId();
-        group.setCreatorId(creatorId);
-        papersGroupMapper.insert(group);
-
-        int created = 0;
-        for (int no = 1; no <= req.getPapersCount(); no++) {
-            Papers paper = new Papers();
-            paper.setGroupId(group.getId());
-            paper.setPapersTitle(req.getTemplateName());
-            paper.setPapersNo(no);
-            paper.setTotalScore(sumScore);
-            paper.setTemplateId(papersTemplate.getId());
-            paper.setCreatorId(creatorId);
-            papersMapper.insert(paper);
-
-            // 生成结构
-            List<PapersStruct> structs = new ArrayList<>();
-            for (PapersCreateRequest.DetailDTO d : req.getDetails()) {
-                PapersStruct ps = new PapersStruct();
-                ps.setPapersId(paper.getId());
-                ps.setTypeId(d.getTypeId());
-                ItemType it = itemTypeMapper.selectById(d.getTypeId());
-                if (it != null) {
-                    ps.setTypeName(it.getTypeName());
-                    ps.setTypeRemarks(it.getTypeRemarks());
-                }
-                ps.setScore(d.getTotalScore());
-                structs.add(ps);
-            }
-            if (!structs.isEmpty()) {
-                papersStructMapper.insertBatch(structs);
-            }
+        return papersGenerationService.generate(req, papersTemplate, currentAdminId(), progress);
+    }
 
-            // 生成内容
-            List<PapersContent> contents = new ArrayList<>();
-            int sort = 1;
-            for (PapersCreateRequest.DetailDTO d : req.getDetails()) {
-                Integer typeId = d.getTypeId();
-                Integer need = d.getTotality();
-                int total = itemBankMapper.countByType(typeId);
-                if (total < need) {
-                    throw new BusinessException(1, "题库不足，题型" + typeId + "需要" + need + "道题，现有" + total);
-                }
-                // 随机偏移采样：多段分页拼接，避免大表 RAND()
-                Set<Long> picked = new LinkedHashSet<>();
-                int pageSize = Math.min(need, 50);
-                while (picked.size() < need) {
-                    int maxStart = Math.max(total - pageSize, 0);
-                    int offset = maxStart == 0 ? 0 : ThreadLocalRandom.current().nextInt(0, maxStart + 1);
-                    List<Long> batch = itemBankMapper.selectIdsByTypeWithOffset(typeId, pageSize, offset);
-                    for (Long idd : batch) {
-                        picked.add(idd);
-                        if (picked.size() >= need) break;
-                    }
-                }
-                BigDecimal spi = scorePerItem.get(typeId);
-                for (Long itemId : picked) {
-                    PapersContent pc = new PapersContent();
-                    pc.setPapersId(paper.getId());
-                    pc.setPapersNo(no);
-                    pc.setItemId(itemId);
-                    pc.setTypeId(typeId);
-                    pc.setScore(spi);
-                    pc.setSortOrder(sort++);
-                    contents.add(pc);
-                }
-            }
-            if (!contents.isEmpty()) {
-                papersContentMapper.insertBatch(contents);
-            }
-            created++;
+    /**
+     * 生成试卷组（后台任务）：模板与参数先同步校验；取消后中止写入并清理已写入的试卷组
+     *
+     * @return 任务ID
+     */
+    public Long createAsync(PapersCreateRequest req) {
+        PapersTemplate papersTemplate = papersTemplateMapper.selectByTemplateName(req.getTemplateName());
+        if (papersTemplate == null) {
+            throw new BusinessException(1, "组卷模板不存在");
         }
-        return created;
+        validate(req, papersTemplate);
+        return jobService.submit(JobService.TYPE_PAPERS_CREATE, ctx -> {
+            int cnt = create(req, ctx::progress);
+            ctx.message("成功生成" + cnt + "份试卷");
+        });
     }
 
     public PageResult<PapersGroupVO> pages(TemplatePageRequest request) {
@@ -150,14 +99,14 @@ public class PapersService {
         PageInfo<PapersGroup> pi = new PageInfo<>(list);
         List<PapersGroupVO> vos = new ArrayList<>();
         DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        Map<Long, String> creators = adminNameCache.names(list.stream().map(PapersGroup::getCreatorId).toList());
         for (PapersGroup g : list) {
             PapersGroupVO vo = new PapersGroupVO();
-            Admin creator = adminMapper.selectById(g.getCreatorId());
             vo.setId(g.getId());
             vo.setTitle(g.getGroupTitle());
             vo.setPapersCount(g.getPapersCount());
             vo.setTotalScore(g.getTotalScore());
-            vo.setCreator(creator != null ? creator.getName() : "未知作者");
+            vo.setCreator(creators.getOrDefault(g.getCreatorId(), "未知作者"));
             vo.setCreateTime(g.getCreateTime() == null ? null : g.getCreateTime().format(fmt));
             vos.add(vo);
         }
@@ -179,7 +128,12 @@ public class PapersService {
             papersContentMapper.deleteByPapersIds(paperIds);
             papersMapper.deleteBatch(paperIds);
         }
-        return papersGroupMapper.deleteBatch(ids);
+        int rows = papersGroupMapper.deleteBatch(ids);
+        TransactionUtil.afterCommit(() -> {
+            papersContentCache.invalidateGroups(ids);
+            paperAnswerKeyCache.invalidateGroups(ids);
+        });
+        return rows;
     }
 
     public List<PapersListVO> listByGroup(Long groupId) {
@@ -190,13 +144,13 @@ public class PapersService {
         List<Papers> list = papersMapper.selectByGroupId(groupId);
         List<PapersListVO> vos = new ArrayList<>();
         DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        Map<Long, String> creators = adminNameCache.names(list.stream().map(Papers::getCreatorId).toList());
         for (Papers p : list) {
             PapersListVO vo = new PapersListVO();
-            Admin creator = adminMapper.selectById(p.getCreatorId());
             vo.setId(p.getId());
             vo.setNo(p.getPapersNo());
             vo.setTitle(p.getPapersTitle());
-            vo.setCreator(creator != null ? creator.getName() : "未知作者");
+            vo.setCreator(creators.getOrDefault(p.getCreatorId(), "未知作者"));
             vo.setCreateTime(p.getCreateTime() == null ? null : p.getCreateTime().format(fmt));
             vos.add(vo);
         }
@@ -223,7 +177,36 @@ public class PapersService {
         return vo;
     }
 
-    public PapersContentVO content(Long groupId, Integer no, Boolean is_answer) {
+    /**
+     * 获取试卷内容缓存条目，未命中时从数据库组装
+     */
+    public PapersContentCache.Entry content(Long groupId, Integer no, Boolean is_answer) {
+        boolean isAnswer = Boolean.TRUE.equals(is_answer);
+        return papersContentCache.get(groupId, no, isAnswer, () -> loadContent(groupId, no, isAnswer));
+    }
+
+    /**
+     * 获取试卷内容的完整响应 JSON（data 结构与 PapersContentVO 一致），直接写出缓存字节而无需再次序列化对象图
+     */
+    public byte[] contentJson(Long groupId, Integer no, Boolean is_answer) {
+        PapersContentCache.Entry entry = content(groupId, no, is_answer);
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("id", entry.getPapersId());
+        fields.put("no", no);
+        return papersContentCache.toResponse(entry, fields);
+    }
+
+    /**
+     * 拼接试卷内容响应 JSON：fields 为接口自身的字段，试卷内容取自缓存
+     */
+    public byte[] contentJson(Long groupId, Integer no, Boolean is_answer, Map<String, Object> fields) {
+        return papersContentCache.toResponse(content(groupId, no, is_answer), fields);
+    }
+
+    /**
+     * 从数据库组装试卷内容，供缓存序列化
+     */
+    private PapersContentVO loadContent(Long groupId, Integer no, boolean is_answer) {
         Papers p = papersMapper.selectByGroupAndNo(groupId, no);
         if (p == null) throw new BusinessException(1, "试卷不存在");
         PapersContentVO resp = new PapersContentVO();
@@ -243,15 +226,19 @@ public class PapersService {
             sv.setScore(s.getScore());
             structVOs.add(sv);
         }
-        resp.setStructs(structVOs);
+        resp.setStructs(Collections.unmodifiableList(structVOs));
 
         // content
         List<PapersContent> pcs = papersContentMapper.selectByPapersIdAndNo(p.getId(), no);
+        // 题目与选项各一次批量查询
+        Map<Long, ItemBank> items = new HashMap<>();
+        Map<Long, List<ItemOption>> options = new HashMap<>();
+        loadItems(pcs, items, options);
         // group by type
         Map<Integer, List<PapersContentItemVO>> grouped = new LinkedHashMap<>();
         for (PapersContent pc : pcs) {
             grouped.computeIfAbsent(pc.getTypeId(), k -> new ArrayList<>());
-            ItemBank ibFull = itemBankMapper.selectById(pc.getItemId());
+            ItemBank ibFull = items.get(pc.getItemId());
             PapersContentItemVO item = new PapersContentItemVO();
             item.setId(pc.getItemId());
             item.setScore(pc.getScore());
@@ -259,7 +246,7 @@ public class PapersService {
                 item.setTypeName(ibFull.getTypeName());
                 item.setContent(ibFull.getContent());
                 // 选项
-                List<ItemOption> opts = itemOptionMapper.selectByItemId(pc.getItemId());
+                List<ItemOption> opts = options.getOrDefault(pc.getItemId(), Collections.emptyList());
                 List<PapersContentOptionVO> optVOs = new ArrayList<>();
                 if (pc.getTypeId() != null && pc.getTypeId() == 3) {
                     // 判断题：返回两个选项，正确的checked=true，错误的checked=null
@@ -277,20 +264,40 @@ public class PapersService {
                         optVOs.add(ov);
                     }
                 }
-                item.setOptions(optVOs);
+                item.setOptions(Collections.unmodifiableList(optVOs));
             }
             grouped.get(pc.getTypeId()).add(item);
         }
         // 转换为以题型中文名为key
         Map<String, List<PapersContentItemVO>> contentByType = new LinkedHashMap<>();
         for (Map.Entry<Integer, List<PapersContentItemVO>> e : grouped.entrySet()) {
-            ItemType t = itemTypeMapper.selectById(e.getKey());
-            contentByType.put(t != null ? t.getTypeName() : String.valueOf(e.getKey()), e.getValue());
+            ItemType t = referenceDataCache.itemType(e.getKey());
+            contentByType.put(t != null ? t.getTypeName() : String.valueOf(e.getKey()),
+                    Collections.unmodifiableList(e.getValue()));
         }
-        resp.setContent(contentByType);
+        resp.setContent(Collections.unmodifiableMap(contentByType));
         return resp;
     }
 
+    /**
+     * 批量加载试卷内容涉及的题目及其选项
+     */
+    private void loadItems(List<PapersContent> pcs, Map<Long, ItemBank> items, Map<Long, List<ItemOption>> options) {
+        Set<Long> itemIds = new HashSet<>();
+        for (PapersContent pc : pcs) {
+            itemIds.add(pc.getItemId());
+        }
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        for (ItemBank ib : itemBankMapper.selectByIds(itemIds)) {
+            items.put(ib.getId(), ib);
+        }
+        for (ItemOption o : itemOptionMapper.selectByItemIds(itemIds)) {
+            options.computeIfAbsent(o.getItemId(), k -> new ArrayList<>()).add(o);
+        }
+    }
+
     private void validate(PapersCreateRequest req, PapersTemplate template) {
         List<TemplateDetail> templateDetails = templateDetailMapper.selectByTemplateId(template.getId());
         if (templateDetails.isEmpty()) {
@@ -307,7 +314,7 @@ public class PapersService {
         int sum = 0;
         for (PapersCreateRequest.DetailDTO d : req.getDetails()) {
             Integer questionTypeId = d.getTypeId();
-            ItemType t = itemTypeMapper.selectById(questionTypeId);
+            ItemType t = referenceDataCache.itemType(questionTypeId);
             TemplateDetail templateDetail = detailMap.get(questionTypeId);
             if (templateDetail == null) {
                 throw new BusinessException(1, "题型[" + t.getTypeName() + "]不在模板允许范围内");
@@ -338,18 +345,14 @@ public class PapersService {
         }
     }
 
+    /**
+     * 当前管理员ID，取自认证主体，无需查询数据库
+     */
     private Long currentAdminId() {
-        try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            if (auth == null) return 0L;
-            String name = auth.getName();
-            if (name != null) {
-                Admin admin = adminMapper.selectByUserNo(name);
-                return admin.getId();
-            }
-            return 0L;
-        } catch (Exception e) {
-            return 0L;
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof LoginUser loginUser && loginUser.getUserId() != null) {
+            return loginUser.getUserId();
         }
+        return 0L;
     }
 }
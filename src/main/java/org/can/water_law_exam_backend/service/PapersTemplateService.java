@@ -4,6 +4,7 @@ import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.cache.ReferenceDataCache;
 import org.can.water_law_exam_backend.dto.request.template.TemplateAddRequest;
 import org.can.water_law_exam_backend.dto.request.template.TemplatePageRequest;
 import org.can.water_law_exam_backend.dto.request.template.TemplateUpdateRequest;
@@ -15,7 +16,6 @@ import org.can.water_law_exam_backend.entity.TemplateDetail;
 import org.can.water_law_exam_backend.exception.BusinessException;
 import org.can.water_law_exam_backend.mapper.PapersTemplateMapper;
 import org.can.water_law_exam_backend.mapper.TemplateDetailMapper;
-import org.can.water_law_exam_backend.mapper.ItemTypeMapper;
 import org.can.water_law_exam_backend.entity.ItemType;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
@@ -34,7 +34,7 @@ public class PapersTemplateService {
 
     private final PapersTemplateMapper papersTemplateMapper;
     private final TemplateDetailMapper templateDetailMapper;
-    private final ItemTypeMapper itemTypeMapper;
+    private final ReferenceDataCache referenceDataCache;
     private final PapersService papersService;
 
     @Transactional(rollbackFor = Exception.class)
@@ -197,7 +197,7 @@ public class PapersTemplateService {
                     dv.setTotalScore(d.getScorePerItem().multiply(new BigDecimal(d.getItemCount())).setScale(0, RoundingMode.HALF_UP).intValue());
                 }
                 // 填充题型说明
-                ItemType it = itemTypeMapper.selectById(d.getTypeId());
+                ItemType it = referenceDataCache.itemType(d.getTypeId());
                 if (it != null) {
                     dv.setRemarks(it.getTypeRemarks());
                 }
@@ -4,6 +4,7 @@ import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.can.water_law_exam_backend.cache.PaperAnswerKeyCache;
 import org.can.water_law_exam_backend.dto.excel.ScoreExportRow;
 import org.can.water_law_exam_backend.dto.request.score.ScorePageRequest;
 import org.can.water_law_exam_backend.dto.response.common.PageResult;
@@ -20,12 +21,15 @@ import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.BiConsumer;
 
 @Slf4j
 @Service
@@ -41,10 +45,23 @@ public class ScoreService {
     private final PapersContentMapper papersContentMapper;
     private final ItemOptionMapper itemOptionMapper;
     private final ExamineeMapper examineeMapper;
+    private final ExamAnswerBuffer examAnswerBuffer;
+    private final JobService jobService;
+    private final PaperAnswerKeyCache paperAnswerKeyCache;
 
     private static final DateTimeFormatter DATETIME_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private final ItemBankMapper itemBankMapper;
 
+    /**
+     * 及格线，暂时固定为60（也可以从tb_sys_config读取）
+     */
+    public static final double PASS_SCORE = 60.0;
+
+    /**
+     * 判分结果单条批量更新语句最多包含的记录数
+     */
+    private static final int SCORE_WRITE_CHUNK = 500;
+
     /**
      * 8.3.1 成绩检索
      */
@@ -88,39 +105,76 @@ public class ScoreService {
         if (batch == null) {
             throw new BusinessException(1, "考试批次不存在");
         }
-        List<ExamScore> scores = examScoreMapper.selectPassByBatch(batchId);
         String fileName = "score_batch_" + batchId + ".xlsx";
         try {
             response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
             response.setHeader("Content-Disposition",
                     "attachment;filename=" + URLEncoder.encode(fileName, StandardCharsets.UTF_8));
-
-            // 构造导出数据
-            List<ScoreExportRow> rows = new ArrayList<>();
-            for (ExamScore s : scores) {
-                AccountUser u = accountUserMapper.selectById(s.getUserId());
-                if (u == null) continue;
-                ScoreExportRow row = new ScoreExportRow();
-                row.setName(safe(u.getName()));
-                row.setOrg(safe(accountUserMapper.selectOrgNameById(u.getOrgId())));
-                row.setIdNo(safe(u.getIdNo()));
-                row.setPhone(safe(u.getPhone()));
-                row.setTotalScore(s.getTotalScore());
-                row.setPass(Boolean.TRUE.equals(s.getIsPass()) ? "是" : "否");
-                row.setSubmitTime(s.getSubmitTime() == null ? "" : s.getSubmitTime().format(DATETIME_FMT));
-                rows.add(row);
-            }
-
-            // 使用 FastExcel 写出
-            cn.idev.excel.FastExcel.write(response.getOutputStream(), ScoreExportRow.class)
-                    .sheet("成绩")
-                    .doWrite(rows);
+            writePass(batchId, response.getOutputStream(), null);
         } catch (Exception e) {
             log.error("导出成绩失败", e);
             throw new BusinessException(1, "导出成绩失败：" + e.getMessage());
         }
     }
 
+    /**
+     * 8.3.2 成绩导出（后台任务），结果文件通过任务接口下载
+     *
+     * @return 任务ID
+     */
+    public Long exportPassAsync(Long batchId) {
+        ExamBatch batch = examBatchMapper.selectById(batchId);
+        if (batch == null) {
+            throw new BusinessException(1, "考试批次不存在");
+        }
+        return jobService.submit(JobService.TYPE_SCORE_EXPORT, ctx -> {
+            try (OutputStream os = Files.newOutputStream(ctx.resultFile(".xlsx"))) {
+                int count = writePass(batchId, os, ctx::progress);
+                ctx.message("导出合格学员" + count + "人");
+            }
+        });
+    }
+
+    /**
+     * 写出批次合格学员成绩
+     *
+     * @param progress 进度回调（已处理数, 总数），可为空
+     * @return 导出行数
+     */
+    private int writePass(Long batchId, OutputStream os, BiConsumer<Integer, Integer> progress) {
+        List<ExamScore> scores = examScoreMapper.selectPassByBatch(batchId);
+
+        // 构造导出数据
+        List<ScoreExportRow> rows = new ArrayList<>();
+        int done = 0;
+        for (ExamScore s : scores) {
+            done++;
+            if (progress != null && done % 100 == 0) {
+                progress.accept(done, scores.size());
+            }
+            AccountUser u = accountUserMapper.selectById(s.getUserId());
+            if (u == null) continue;
+            ScoreExportRow row = new ScoreExportRow();
+            row.setName(safe(u.getName()));
+            row.setOrg(safe(accountUserMapper.selectOrgNameById(u.getOrgId())));
+            row.setIdNo(safe(u.getIdNo()));
+            row.setPhone(safe(u.getPhone()));
+            row.setTotalScore(s.getTotalScore());
+            row.setPass(Boolean.TRUE.equals(s.getIsPass()) ? "是" : "否");
+            row.setSubmitTime(s.getSubmitTime() == null ? "" : s.getSubmitTime().format(DATETIME_FMT));
+            rows.add(row);
+        }
+        if (progress != null) {
+            progress.accept(scores.size(), scores.size());
+        }
+
+        // 使用 FastExcel 写出
+        cn.idev.excel.FastExcel.write(os, ScoreExportRow.class)
+                .sheet("成绩")
+                .doWrite(rows);
+        return rows.size();
+    }
+
     private String safe(String s) {
         return s == null ? "" : s;
     }
@@ -177,28 +231,40 @@ public class ScoreService {
             answerMap.put(a.getItemId(), a);
         }
         List<PapersContent> pcs = papersContentMapper.selectByPapersIdAndNo(papers.getId(), papers.getPapersNo());
+        // 题目与选项各一次批量查询
+        Set<Long> itemIds = new HashSet<>();
+        for (PapersContent pc : pcs) {
+            itemIds.add(pc.getItemId());
+        }
+        Map<Long, ItemBank> items = new HashMap<>();
+        Map<Long, List<ItemOption>> options = new HashMap<>();
+        if (!itemIds.isEmpty()) {
+            for (ItemBank ib : itemBankMapper.selectByIds(itemIds)) {
+                items.put(ib.getId(), ib);
+            }
+            for (ItemOption o : itemOptionMapper.selectByItemIds(itemIds)) {
+                options.computeIfAbsent(o.getItemId(), k -> new ArrayList<>()).add(o);
+            }
+        }
         Map<String, List<ScoreAnswerItemVO>> content = new LinkedHashMap<>();
         for (PapersContent pc : pcs) {
-            ItemBank ibFull = itemBankMapper.selectById(pc.getItemId());
+            ItemBank ibFull = items.get(pc.getItemId());
             if (ibFull == null) continue;
-            List<ItemOption> opts = itemOptionMapper.selectByItemId(pc.getItemId());
-            List<Integer> correct = new ArrayList<>();
-            List<ScoreAnswerOptionVO> optVOs = new ArrayList<>();
-            for (ItemOption op : opts) {
-                if (Boolean.TRUE.equals(op.getIsCorrect())) {
-                    correct.add(op.getOptionNo());
-                }
-            }
+            List<ItemOption> opts = options.getOrDefault(pc.getItemId(), Collections.emptyList());
+            int correctMask = PaperAnswerKey.correctMask(opts);
             ExamAnswer ans = answerMap.get(pc.getItemId());
-            List<Integer> chosen = parseChosen(ans);
+            int chosenMask = PaperAnswerKey.answerMask(ans, pc.getTypeId());
+            List<ScoreAnswerOptionVO> optVOs = new ArrayList<>();
             for (ItemOption op : opts) {
                 ScoreAnswerOptionVO ov = new ScoreAnswerOptionVO();
                 ov.setNo(op.getOptionNo());
                 ov.setTitle(op.getOptionTitle());
                 ov.setCorrect(Boolean.TRUE.equals(op.getIsCorrect()));
-                ov.setChosen(chosen.contains(op.getOptionNo()));
+                ov.setChosen(op.getOptionNo() != null && (chosenMask & PaperAnswerKey.bit(op.getOptionNo())) != 0);
                 optVOs.add(ov);
             }
+            List<Integer> chosen = PaperAnswerKey.toOptionNos(chosenMask);
+            List<Integer> correct = PaperAnswerKey.toOptionNos(correctMask);
             ScoreAnswerItemVO itemVO = new ScoreAnswerItemVO();
             itemVO.setId(pc.getItemId());
             itemVO.setScore(pc.getScore());
@@ -207,7 +273,7 @@ public class ScoreService {
             itemVO.setOptions(optVOs);
             itemVO.setUserAnswer(chosen.isEmpty() ? null : chosen);
             itemVO.setCorrectAnswer(correct.isEmpty() ? null : correct);
-            itemVO.setIsCorrect(!correct.isEmpty() && new HashSet<>(correct).equals(new HashSet<>(chosen)));
+            itemVO.setIsCorrect(PaperAnswerKey.matches(correctMask, chosenMask));
 
             String typeName = ibFull.getTypeName();
             content.computeIfAbsent(typeName, k -> new ArrayList<>()).add(itemVO);
@@ -217,72 +283,6 @@ public class ScoreService {
         return vo;
     }
 
-    /**
-     * 解析考生答题内容，转换为选项编号集合
-     * 支持格式：
-     * 1. 数组字符串："[1,3,5]"（多选题/单选题）
-     * 2. 单个数字字符串："2"（单选题）
-     * 3. 判断题特殊格式："1"（正确）/"0"（错误），会映射为选项1/2
-     * 4. null/空字符串：返回空集合（未作答）
-     *
-     * @param ans 考生答题记录（可能为null）
-     * @return 选项编号集合（空集合表示未作答）
-     */
-    private List<Integer> parseChosen(ExamAnswer ans) {
-        List<Integer> chosen = new ArrayList<>();
-        if (ans == null || ans.getAnswerContent() == null) {
-            return chosen;
-        }
-
-        String rawAnswer = ans.getAnswerContent().trim();
-        if (rawAnswer.isEmpty()) {
-            return chosen;
-        }
-
-        // 处理数组格式（如 "[1,3]"）
-        if (rawAnswer.startsWith("[") && rawAnswer.endsWith("]")) {
-            String content = rawAnswer.substring(1, rawAnswer.length() - 1).trim();
-            if (!content.isEmpty()) {
-                String[] optionStrs = content.split(",");
-                for (String str : optionStrs) {
-                    parseOptionNumber(str.trim(), chosen);
-                }
-            }
-        } else {
-            // 处理单个选项格式（如 "2"、"1"、"0"）
-            parseOptionNumber(rawAnswer, chosen);
-        }
-
-        // 去重并保持顺序（防止重复选择同一选项）
-        return new ArrayList<>(new LinkedHashSet<>(chosen));
-    }
-
-    /**
-     * 解析单个选项字符串为数字，处理判断题特殊映射
-     * 判断题规则：前端传 1=正确（对应选项1），0=错误（对应选项2）
-     *
-     * @param str    选项字符串（如 "1"、"0"、"3"）
-     * @param chosen 存储结果的集合
-     */
-    private void parseOptionNumber(String str, List<Integer> chosen) {
-        if (str.isEmpty()) {
-            return;
-        }
-
-        try {
-            int optionNo = Integer.parseInt(str);
-            // 判断题特殊映射（0→2）
-            if (optionNo == 0) {
-                chosen.add(2);
-            } else if (optionNo > 0) { // 只允许正整数选项
-                chosen.add(optionNo);
-            }
-        } catch (NumberFormatException e) {
-            log.warn("无效的选项编号格式：{}", str);
-            // 忽略无效格式，不添加到结果中
-        }
-    }
-
     /**
      * 计算并保存某个考生在某批次的成绩
      *
@@ -292,6 +292,7 @@ public class ScoreService {
      */
     @Transactional(rollbackFor = Exception.class)
     public void evaluateAndSaveScore(Long batchId, Long userId, java.time.LocalDateTime submitTime) {
+        long begin = System.nanoTime();
         ExamBatch batch = examBatchMapper.selectById(batchId);
         if (batch == null) {
             throw new BusinessException(1, "考试批次不存在");
@@ -299,119 +300,75 @@ public class ScoreService {
         // 当前按考生在试卷组中的分配序号进行评分
         Examinee ex = examineeMapper.selectByUserAndBatch(userId, batchId).stream().findFirst()
                 .orElseThrow(() -> new BusinessException(1, "考生未报名该考试"));
-        Long groupId = batch.getPapersId();
-        List<Papers> candidate = papersMapper.selectByGroupId(groupId);
-        if (candidate == null || candidate.isEmpty()) {
-            throw new BusinessException(1, "试卷组内没有可用试卷");
-        }
-        Integer papersNo = ex.getPapersNo() != null ? ex.getPapersNo() : candidate.get(0).getPapersNo();
-        Papers papers = papersMapper.selectByGroupAndNo(groupId, papersNo);
-        if (papers == null) {
-            throw new BusinessException(1, "对应考生的试卷不存在");
-        }
-        // 获取试卷内容（所有题目）
-        List<PapersContent> contents = papersContentMapper.selectByPapersIdAndNo(papers.getId(), papersNo);
-        if (contents.isEmpty()) {
+        // 标准答案按试卷组缓存，与批量评分共用
+        PaperAnswerKey key = paperAnswerKeyCache.get(batch.getPapersId(), ex.getPapersNo());
+        if (key.size() == 0) {
             throw new BusinessException(1, "试卷未配置试题");
         }
-        // 获取该考生所有答题记录
+        // 获取该考生所有答题记录（先落库答题缓冲中尚未写入的答案）
+        examAnswerBuffer.flush(batchId, userId);
         List<ExamAnswer> answers = examAnswerMapper.selectByBatchAndUser(batchId, userId);
-        Map<Long, ExamAnswer> answerMap = new HashMap<>();
+        Graded graded = grade(key, ex, answers, submitTime);
+        List<ExamAnswer> judged = graded.judged();
+        for (int from = 0; from < judged.size(); from += SCORE_WRITE_CHUNK) {
+            examAnswerMapper.updateScoreBatch(judged.subList(from, Math.min(from + SCORE_WRITE_CHUNK, judged.size())));
+        }
+        // 按唯一键 (batch_id, user_id) 插入或覆盖
+        examScoreMapper.upsertBatch(List.of(graded.score()));
+        log.debug("考生{}批次{}评分完成：{}题，回写判分{}条，耗时{}ms", userId, batchId, key.size(), judged.size(),
+                (System.nanoTime() - begin) / 1_000_000);
+    }
+
+    /**
+     * 按标准答案判分并生成成绩（单个考生评分与批次批量评分共用）
+     *
+     * @param key        考生所用试卷的标准答案
+     * @param ex         考生报名记录（批次、学员、开考时间）
+     * @param answers    考生的答题记录
+     * @param submitTime 交卷时间
+     * @return 成绩及需回写判分结果的答题记录（仅含ID、是否正确、得分）
+     */
+    public static Graded grade(PaperAnswerKey key, Examinee ex, List<ExamAnswer> answers, LocalDateTime submitTime) {
+        Map<Long, ExamAnswer> answerMap = new HashMap<>(answers.size() * 2);
         for (ExamAnswer a : answers) {
             answerMap.put(a.getItemId(), a);
         }
-
         double totalScore = 0.0;
+        List<ExamAnswer> judged = new ArrayList<>(answers.size());
+        for (int i = 0; i < key.size(); i++) {
+            ExamAnswer ans = answerMap.get(key.itemId(i));
+            // 读取答案位掩码（兼容旧格式字符串）；判断题 0 映射为选项2
+            int chosen = PaperAnswerKey.answerMask(ans, key.typeId(i));
+            if (chosen == 0) continue; // 未作答，得分0
 
-        for (PapersContent pc : contents) {
-            Long itemId = pc.getItemId();
-            ExamAnswer ans = answerMap.get(itemId);
-            if (ans == null || ans.getAnswerContent() == null) {
-                continue; // 未作答，得分0
-            }
-            // 解析答案内容，格式形如 "[1, 4]"
-            Set<Integer> chosen = new HashSet<>();
-            String raw = ans.getAnswerContent().replace("[", "").replace("]", "").trim();
-            if (!raw.isEmpty()) {
-                String[] parts = raw.split(",");
-                for (String p : parts) {
-                    try {
-                        String t = p.trim();
-                        if (!t.isEmpty()) {
-                            chosen.add(Integer.parseInt(t));
-                        }
-                    } catch (NumberFormatException ignored) {
-                    }
-                }
-            }
-            if (chosen.isEmpty()) continue;
-
-            // 判断题特殊处理：前端约定 1=正确，0=错误
-            if (pc.getTypeId() != null && pc.getTypeId() == 3) {
-                Set<Integer> mapped = new HashSet<>();
-                for (Integer c : chosen) {
-                    if (c == null) continue;
-                    if (c == 1) {
-                        mapped.add(1); // 选“正确”
-                    } else if (c == 0) {
-                        mapped.add(2); // 映射到选项2（错误）
-                    } else {
-                        // 兜底：如果前端直接传1/2，也能正常识别
-                        mapped.add(c);
-                    }
-                }
-                chosen = mapped;
-            }
-
-            // 获取正确选项集合
-            List<ItemOption> opts = itemOptionMapper.selectByItemId(itemId);
-            Set<Integer> correct = new HashSet<>();
-            for (ItemOption o : opts) {
-                if (Boolean.TRUE.equals(o.getIsCorrect())) {
-                    correct.add(o.getOptionNo());
-                }
-            }
-            boolean isCorrect = !correct.isEmpty() && correct.equals(chosen);
+            boolean isCorrect = key.isCorrect(i, chosen);
             if (isCorrect) {
-                totalScore += pc.getScore().doubleValue();
-            }
-            ExamAnswer answersRecode = examAnswerMapper.selectById(ans.getId());
-            if (answersRecode != null) {
-                answersRecode.setIsCorrect(isCorrect);
-                answersRecode.setScore(isCorrect ? pc.getScore().doubleValue() : 0);
-                examAnswerMapper.update(answersRecode);
+                totalScore += key.score(i);
             }
+            ExamAnswer j = new ExamAnswer();
+            j.setId(ans.getId());
+            j.setIsCorrect(isCorrect);
+            j.setScore(isCorrect ? key.score(i) : 0);
+            judged.add(j);
         }
 
-        // 及格线，暂时固定为60（也可以从tb_sys_config读取）
-        double passScore = 60.0;
-        boolean isPass = totalScore + 1e-6 >= passScore;
-
-        // 计算考试时长（分钟）
-        Integer duration = null;
+        ExamScore es = new ExamScore();
+        es.setBatchId(ex.getBatchId());
+        es.setUserId(ex.getUserId());
+        es.setTotalScore(totalScore);
+        es.setPassScore(PASS_SCORE);
+        es.setIsPass(totalScore + 1e-6 >= PASS_SCORE);
+        // 考试时长（分钟，向下取整，不小于0）
         if (ex.getExamStartTime() != null && submitTime != null) {
-            duration = (int) Duration.between(ex.getExamStartTime(), submitTime).toMinutes();
-            if (duration < 0) duration = 0;
+            es.setExamDuration((int) Math.max(0, Duration.between(ex.getExamStartTime(), submitTime).toMinutes()));
         }
+        es.setSubmitTime(submitTime);
+        return new Graded(es, judged);
+    }
 
-        ExamScore existing = examScoreMapper.selectByBatchAndUser(batchId, userId);
-        if (existing == null) {
-            ExamScore es = new ExamScore();
-            es.setBatchId(batchId);
-            es.setUserId(userId);
-            es.setTotalScore(totalScore);
-            es.setPassScore(passScore);
-            es.setIsPass(isPass);
-            es.setExamDuration(duration);
-            es.setSubmitTime(submitTime);
-            examScoreMapper.insert(es);
-        } else {
-            existing.setTotalScore(totalScore);
-            existing.setPassScore(passScore);
-            existing.setIsPass(isPass);
-            existing.setExamDuration(duration);
-            existing.setSubmitTime(submitTime);
-            examScoreMapper.update(existing);
-        }
+    /**
+     * 判分结果
+     */
+    public record Graded(ExamScore score, List<ExamAnswer> judged) {
     }
-}
\ No newline at end of file
+}
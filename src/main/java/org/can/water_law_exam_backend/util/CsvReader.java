@@ -0,0 +1,228 @@
+package org.can.water_law_exam_backend.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 流式 CSV 读取器（UTF-8，RFC 4180）
+ * 按固定大小的缓冲区分段解码，逐条返回记录；字段与记录数组在记录间复用，
+ * 未加引号且不跨缓冲区的字段直接从缓冲区构造字符串，不经过中间拷贝。
+ * 支持 UTF-8 BOM、CRLF/LF 换行、引号字段（含逗号、换行与 "" 转义），空行跳过。
+ */
+public final class CsvReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 单个字段的最大长度，防止引号不闭合时把剩余文件读入内存
+     */
+    private static final int MAX_FIELD_LENGTH = 1024 * 1024;
+
+    private static final int END_FIELD = 0;
+    private static final int END_RECORD = 1;
+    private static final int END_FILE = 2;
+
+    private final Reader reader;
+    private final char[] buf = new char[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private boolean eof;
+    private boolean started;
+
+    private final StringBuilder sb = new StringBuilder(256);
+    private String[] fields = new String[16];
+    private int count;
+    private int rowNo;
+
+    public CsvReader(InputStream in) {
+        this.reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 读取下一条记录
+     *
+     * @return 没有更多记录时返回 false
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            count = 0;
+            if (pos >= limit && !fill()) {
+                return false;
+            }
+            rowNo++;
+            int end;
+            do {
+                end = readField();
+            } while (end == END_FIELD);
+            if (count > 1 || !fields[0].isEmpty()) {
+                return true;
+            }
+            // 空行
+        }
+    }
+
+    /**
+     * 当前记录的行号（从1开始，含表头行；引号内换行不单独计行）
+     */
+    public int rowNo() {
+        return rowNo;
+    }
+
+    public int fieldCount() {
+        return count;
+    }
+
+    /**
+     * 当前记录的第 i 个字段，超出字段数时返回 null
+     */
+    public String field(int i) {
+        return i < count ? fields[i] : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * 读取一个字段并返回其结束方式
+     */
+    private int readField() throws IOException {
+        if (pos >= limit && !fill()) {
+            add("");
+            return END_FILE;
+        }
+        if (buf[pos] == '"') {
+            pos++;
+            return readQuoted();
+        }
+        int start = pos;
+        while (pos < limit) {
+            char c = buf[pos];
+            if (c == ',' || c == '\n') {
+                int end = pos;
+                if (c == '\n' && end > start && buf[end - 1] == '\r') {
+                    end--;
+                }
+                add(new String(buf, start, end - start));
+                pos++;
+                return c == ',' ? END_FIELD : END_RECORD;
+            }
+            pos++;
+        }
+        // 字段跨越缓冲区
+        sb.setLength(0);
+        sb.append(buf, start, pos - start);
+        while (fill()) {
+            start = pos;
+            while (pos < limit) {
+                char c = buf[pos];
+                if (c == ',' || c == '\n') {
+                    sb.append(buf, start, pos - start);
+                    pos++;
+                    if (c == '\n' && sb.length() > 0 && sb.charAt(sb.length() - 1) == '\r') {
+                        sb.setLength(sb.length() - 1);
+                    }
+                    add(sb.toString());
+                    return c == ',' ? END_FIELD : END_RECORD;
+                }
+                pos++;
+            }
+            sb.append(buf, start, pos - start);
+            checkLength();
+        }
+        if (sb.length() > 0 && sb.charAt(sb.length() - 1) == '\r') {
+            sb.setLength(sb.length() - 1);
+        }
+        add(sb.toString());
+        return END_FILE;
+    }
+
+    private int readQuoted() throws IOException {
+        sb.setLength(0);
+        while (true) {
+            if (pos >= limit && !fill()) {
+                // 引号未闭合，按文件结束处理
+                add(sb.toString());
+                return END_FILE;
+            }
+            int start = pos;
+            while (pos < limit && buf[pos] != '"') {
+                pos++;
+            }
+            sb.append(buf, start, pos - start);
+            checkLength();
+            if (pos >= limit) {
+                continue;
+            }
+            pos++;
+            if (pos >= limit && !fill()) {
+                add(sb.toString());
+                return END_FILE;
+            }
+            if (buf[pos] == '"') {
+                sb.append('"');
+                pos++;
+                continue;
+            }
+            break;
+        }
+        add(sb.toString());
+        // 跳过闭合引号与分隔符之间的内容（如 CR）
+        while (true) {
+            if (pos >= limit && !fill()) {
+                return END_FILE;
+            }
+            char c = buf[pos++];
+            if (c == ',') {
+                return END_FIELD;
+            }
+            if (c == '\n') {
+                return END_RECORD;
+            }
+        }
+    }
+
+    private void add(String value) {
+        if (count == fields.length) {
+            String[] grown = new String[fields.length * 2];
+            System.arraycopy(fields, 0, grown, 0, count);
+            fields = grown;
+        }
+        fields[count++] = value;
+    }
+
+    private void checkLength() throws IOException {
+        if (sb.length() > MAX_FIELD_LENGTH) {
+            throw new IOException("第" + rowNo + "行字段过长，请检查引号是否闭合");
+        }
+    }
+
+    /**
+     * 读取下一段数据，调用时当前缓冲区已全部消费
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int n = reader.read(buf, 0, buf.length);
+        if (n <= 0) {
+            eof = true;
+            pos = limit = 0;
+            return false;
+        }
+        pos = 0;
+        limit = n;
+        if (!started) {
+            started = true;
+            if (buf[0] == '\uFEFF') {
+                pos = 1;
+            }
+        }
+        return pos < limit || fill();
+    }
+}
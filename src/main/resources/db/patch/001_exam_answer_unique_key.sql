@@ -0,0 +1,14 @@
+-- tb_exam_answer：每个考生每题只保留一条答题记录，支持 INSERT ... ON DUPLICATE KEY UPDATE
+
+-- 1. 清理历史重复记录（保留 id 最大的一条）
+DELETE a
+FROM tb_exam_answer a
+         INNER JOIN tb_exam_answer b
+                    ON a.batch_id = b.batch_id
+                        AND a.user_id = b.user_id
+                        AND a.item_id = b.item_id
+                        AND a.id < b.id;
+
+-- 2. 添加唯一键
+ALTER TABLE tb_exam_answer
+    ADD UNIQUE KEY uk_batch_user_item (batch_id, user_id, item_id);
@@ -0,0 +1,13 @@
+-- tb_exam_score：每个考生每个批次只保留一条成绩记录，支持批量评分 INSERT ... ON DUPLICATE KEY UPDATE
+
+-- 1. 清理历史重复记录（保留 id 最大的一条）
+DELETE a
+FROM tb_exam_score a
+         INNER JOIN tb_exam_score b
+                    ON a.batch_id = b.batch_id
+                        AND a.user_id = b.user_id
+                        AND a.id < b.id;
+
+-- 2. 添加唯一键
+ALTER TABLE tb_exam_score
+    ADD UNIQUE KEY uk_batch_user (batch_id, user_id);
@@ -0,0 +1,31 @@
+-- tb_exam_answer：答案改为位掩码存储（选项 n 对应第 n 位，判断题 0=错误 记在第 0 位）
+-- 新记录只写 answer_mask；answer_mask 为 NULL 的历史记录由程序解析 answer_content 兼容读取
+
+-- 1. 添加位掩码列
+ALTER TABLE tb_exam_answer
+    ADD COLUMN answer_mask INT NULL COMMENT '答案位掩码' AFTER answer_content;
+
+-- 2. answer_content 允许为空（新记录不再写入）
+ALTER TABLE tb_exam_answer
+    MODIFY COLUMN answer_content VARCHAR(255) NULL COMMENT '答案内容（旧格式，兼容读取）';
+
+-- 3. 回填常见格式的历史记录（"[n]"、"[n, m, ...]"，选项编号 0~9）；其余格式保持 NULL 由程序兼容解析
+UPDATE tb_exam_answer
+SET answer_mask =
+        (CASE WHEN answer_content REGEXP '(^|[^0-9])0([^0-9]|$)' THEN 1 ELSE 0 END)
+            | (CASE WHEN answer_content REGEXP '(^|[^0-9])1([^0-9]|$)' THEN 2 ELSE 0 END)
+            | (CASE WHEN answer_content REGEXP '(^|[^0-9])2([^0-9]|$)' THEN 4 ELSE 0 END)
+            | (CASE WHEN answer_content REGEXP '(^|[^0-9])3([^0-9]|$)' THEN 8 ELSE 0 END)
+            | (CASE WHEN answer_content REGEXP '(^|[^0-9])4([^0-9]|$)' THEN 16 ELSE 0 END)
+            | (CASE WHEN answer_content REGEXP '(^|[^0-9])5([^0-9]|$)' THEN 32 ELSE 0 END)
+            | (CASE WHEN answer_content REGEXP '(^|[^0-9])6([^0-9]|$)' THEN 64 ELSE 0 END)
+            | (CASE WHEN answer_content REGEXP '(^|[^0-9])7([^0-9]|$)' THEN 128 ELSE 0 END)
+            | (CASE WHEN answer_content REGEXP '(^|[^0-9])8([^0-9]|$)' THEN 256 ELSE 0 END)
+            | (CASE WHEN answer_content REGEXP '(^|[^0-9])9([^0-9]|$)' THEN 512 ELSE 0 END)
+WHERE answer_mask IS NULL
+  AND answer_content REGEXP '^\\[ *[0-9]( *, *[0-9])* *\\]$';
+
+-- 4. 回填后的记录清空旧字符串
+UPDATE tb_exam_answer
+SET answer_content = NULL
+WHERE answer_mask IS NOT NULL;
@@ -0,0 +1,22 @@
+-- tb_sys_job：后台任务（导入、导出、组卷）状态与进度，服务重启后仍可查询
+
+CREATE TABLE IF NOT EXISTS tb_sys_job
+(
+    id             BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '任务ID',
+    job_type       VARCHAR(32)  NOT NULL COMMENT '任务类型',
+    status         TINYINT      NOT NULL DEFAULT 0 COMMENT '状态：0-排队 1-运行中 2-成功 3-失败 4-已取消',
+    progress_done  INT          NOT NULL DEFAULT 0 COMMENT '已处理数量',
+    progress_total INT          NOT NULL DEFAULT 0 COMMENT '总数量（0 表示未知）',
+    success_count  INT          NOT NULL DEFAULT 0 COMMENT '成功数量',
+    fail_count     INT          NOT NULL DEFAULT 0 COMMENT '失败数量',
+    message        VARCHAR(500) NULL COMMENT '结果或错误信息',
+    result_file    VARCHAR(255) NULL COMMENT '结果文件路径（导出任务）',
+    creator_id     BIGINT       NULL COMMENT '提交人ID',
+    create_time    DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '提交时间',
+    start_time     DATETIME     NULL COMMENT '开始时间',
+    finish_time    DATETIME     NULL COMMENT '结束时间',
+    update_time    DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    KEY idx_status (status),
+    KEY idx_finish_time (finish_time)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4 COMMENT ='后台任务';
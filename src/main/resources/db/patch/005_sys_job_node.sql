@@ -0,0 +1,6 @@
+-- tb_sys_job：记录执行节点与节点启动标识，节点重启时只将本节点中断的任务标记为失败
+
+ALTER TABLE tb_sys_job
+    ADD COLUMN node_id VARCHAR(64) NULL COMMENT '执行节点标识' AFTER creator_id,
+    ADD COLUMN boot_id VARCHAR(36) NULL COMMENT '执行节点启动标识' AFTER node_id,
+    ADD KEY idx_node_status (node_id, status);
@@ -0,0 +1,144 @@
+package org.can.water_law_exam_backend.benchmark;
+
+import org.can.water_law_exam_backend.entity.ItemOption;
+import org.can.water_law_exam_backend.entity.PapersContent;
+import org.can.water_law_exam_backend.service.PaperAnswerKey;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单份试卷评分微基准：原 HashSet 实现 vs 编译后的位掩码标准答案
+ * 运行方式：mvn test-compile 后执行本类 main 方法（不随 mvn test 执行）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnswerKeyBenchmark {
+
+    @Param({"50", "100"})
+    private int questions;
+
+    private List<PapersContent> contents;
+    private Map<Long, List<ItemOption>> options;
+    private Map<Long, String> answers;
+    private PaperAnswerKey key;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        contents = new ArrayList<>(questions);
+        options = new HashMap<>();
+        answers = new HashMap<>();
+        for (int i = 0; i < questions; i++) {
+            long itemId = 1000L + i;
+            // 题型：1-单选，2-多选，3-判断
+            int typeId = i % 3 + 1;
+            PapersContent pc = new PapersContent();
+            pc.setItemId(itemId);
+            pc.setTypeId(typeId);
+            pc.setScore(BigDecimal.valueOf(2));
+            contents.add(pc);
+
+            int optionCount = typeId == 3 ? 2 : 4;
+            List<ItemOption> opts = new ArrayList<>(optionCount);
+            for (int no = 1; no <= optionCount; no++) {
+                ItemOption o = new ItemOption();
+                o.setItemId(itemId);
+                o.setOptionNo(no);
+                o.setIsCorrect(typeId == 2 ? no % 2 == 1 : no == 1);
+                opts.add(o);
+            }
+            options.put(itemId, opts);
+
+            if (typeId == 3) {
+                answers.put(itemId, random.nextBoolean() ? "[1]" : "[0]");
+            } else if (typeId == 2) {
+                answers.put(itemId, random.nextBoolean() ? "[1, 3]" : "[1, 2, 4]");
+            } else {
+                answers.put(itemId, "[" + (random.nextInt(4) + 1) + "]");
+            }
+        }
+        key = PaperAnswerKey.of(1, contents, options);
+    }
+
+    /**
+     * 原实现：每题解析为 HashSet、判断题重新映射、由选项构建正确答案集合后比较
+     */
+    @Benchmark
+    public double legacyHashSet() {
+        double total = 0;
+        for (PapersContent pc : contents) {
+            String content = answers.get(pc.getItemId());
+            if (content == null) {
+                continue;
+            }
+            Set<Integer> chosen = new HashSet<>();
+            String raw = content.replace("[", "").replace("]", "").trim();
+            if (!raw.isEmpty()) {
+                for (String p : raw.split(",")) {
+                    try {
+                        String t = p.trim();
+                        if (!t.isEmpty()) {
+                            chosen.add(Integer.parseInt(t));
+                        }
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+            }
+            if (chosen.isEmpty()) {
+                continue;
+            }
+            if (pc.getTypeId() != null && pc.getTypeId() == 3) {
+                Set<Integer> mapped = new HashSet<>();
+                for (Integer c : chosen) {
+                    mapped.add(c == 0 ? 2 : c);
+                }
+                chosen = mapped;
+            }
+            Set<Integer> correct = new HashSet<>();
+            for (ItemOption o : options.get(pc.getItemId())) {
+                if (Boolean.TRUE.equals(o.getIsCorrect())) {
+                    correct.add(o.getOptionNo());
+                }
+            }
+            if (!correct.isEmpty() && correct.equals(chosen)) {
+                total += pc.getScore().doubleValue();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 编译后的标准答案：答案直接解析为位掩码，每题一次整数比较
+     */
+    @Benchmark
+    public double compiledMask() {
+        double total = 0;
+        for (int i = 0; i < key.size(); i++) {
+            String content = answers.get(key.itemId(i));
+            if (content == null) {
+                continue;
+            }
+            int chosen = PaperAnswerKey.parseMask(content, key.typeId(i));
+            if (chosen != 0 && key.isCorrect(i, chosen)) {
+                total += key.score(i);
+            }
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AnswerKeyBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
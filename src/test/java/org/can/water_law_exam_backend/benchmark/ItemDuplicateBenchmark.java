@@ -0,0 +1,154 @@
+package org.can.water_law_exam_backend.benchmark;
+
+import org.can.water_law_exam_backend.cache.ItemSearchIndex;
+import org.can.water_law_exam_backend.entity.ItemBank;
+import org.can.water_law_exam_backend.entity.ItemOption;
+import org.can.water_law_exam_backend.mapper.ItemBankMapper;
+import org.can.water_law_exam_backend.mapper.ItemOptionMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 题目查重基准：单题查重（新增、导入每行调用一次）与全库重复分组
+ * 题库为随机生成的中文题干与 4 个选项，字频按幂律分布；其中约 1% 为已有题目改动一两个字的近似副本。
+ * 运行方式：mvn test-compile 后执行本类 main 方法（不随 mvn test 执行）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemDuplicateBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "50000"})
+    private int items;
+
+    private ItemSearchIndex index;
+    private ItemSearchIndex.Fingerprint[] fresh;
+    private ItemSearchIndex.Fingerprint[] copies;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<ItemBank> bank = new ArrayList<>(items);
+        List<ItemOption> options = new ArrayList<>(items * 4);
+        for (int i = 0; i < items; i++) {
+            ItemBank item = i > 0 && random.nextInt(100) == 0
+                    ? item(i + 1L, mutate(bank.get(random.nextInt(i)).getContent(), random))
+                    : item(i + 1L, text(random, 30 + random.nextInt(40)));
+            bank.add(item);
+            for (int no = 1; no <= 4; no++) {
+                ItemOption o = new ItemOption();
+                o.setItemId(item.getId());
+                o.setOptionNo(no);
+                o.setOptionTitle(text(random, 6 + random.nextInt(10)));
+                options.add(o);
+            }
+        }
+
+        ItemBankMapper itemBankMapper = mock(ItemBankMapper.class);
+        ItemOptionMapper itemOptionMapper = mock(ItemOptionMapper.class);
+        when(itemBankMapper.selectAllForIndex()).thenReturn(bank);
+        when(itemOptionMapper.selectAllTitles()).thenReturn(options);
+        ThreadPoolTaskExecutor inline = new ThreadPoolTaskExecutor() {
+            @Override
+            public void execute(Runnable task) {
+                task.run();
+            }
+        };
+        index = new ItemSearchIndex(itemBankMapper, itemOptionMapper, inline);
+        index.preload();
+
+        fresh = new ItemSearchIndex.Fingerprint[QUERIES];
+        copies = new ItemSearchIndex.Fingerprint[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            fresh[i] = ItemSearchIndex.fingerprint(item(0L, text(random, 30 + random.nextInt(40))), List.of());
+            String source = bank.get(random.nextInt(items)).getContent();
+            copies[i] = ItemSearchIndex.fingerprint(item(0L, mutate(source, random)), List.of());
+        }
+    }
+
+    private static ItemBank item(Long id, String content) {
+        ItemBank item = new ItemBank();
+        item.setId(id);
+        item.setTypeId(1);
+        item.setCategoryId(1);
+        item.setContent(content);
+        item.setCreateTime(LocalDateTime.of(2024, 1, 1, 0, 0));
+        return item;
+    }
+
+    /**
+     * 随机中文文本，常用字出现更频繁
+     */
+    private static String text(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            double r = random.nextDouble();
+            sb.append((char) (0x4E00 + (int) (3000 * r * r * r)));
+            if (random.nextInt(12) == 0) {
+                sb.append('，');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 替换一两个字
+     */
+    private static String mutate(String source, Random random) {
+        char[] chars = source.toCharArray();
+        int edits = 1 + random.nextInt(2);
+        for (int i = 0; i < edits; i++) {
+            chars[random.nextInt(chars.length)] = (char) (0x4E00 + random.nextInt(3000));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 新题查重（通常无重复）
+     */
+    @Benchmark
+    public Long findDuplicateMiss() {
+        return index.findDuplicate(1, fresh[cursor++ & QUERIES - 1], null);
+    }
+
+    /**
+     * 近似副本查重（命中已有题目）
+     */
+    @Benchmark
+    public Long findDuplicateHit() {
+        return index.findDuplicate(1, copies[cursor++ & QUERIES - 1], null);
+    }
+
+    /**
+     * 全库重复分组
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<List<Long>> duplicateClusters() {
+        return index.duplicateClusters();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ItemDuplicateBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,160 @@
+package org.can.water_law_exam_backend.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 题库导入写入基准：逐行插入（题目一条 + 选项一条）vs 按块批量插入（每块题目一条 + 选项一条）
+ * 需要可用的 MySQL（表结构同正式库），连接通过系统属性指定：
+ * -Dbench.url=jdbc:mysql://localhost:3306/water_law_exam -Dbench.user=root -Dbench.password=123456
+ * 每次调用在事务内写入后回滚，不留下数据。运行方式：mvn test-compile 后执行本类 main 方法（不随 mvn test 执行）
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemImportBenchmark {
+
+    private static final String INSERT_ITEM =
+            "INSERT INTO tb_item_bank (type_id, category_id, content, explanation, is_key_item) VALUES ";
+    private static final String INSERT_OPTION =
+            "INSERT INTO tb_item_option (item_id, option_no, option_title, is_correct) VALUES ";
+
+    /**
+     * 每次调用导入的题目数
+     */
+    @Param({"2000"})
+    private int rows;
+
+    @Param({"500"})
+    private int chunk;
+
+    @Param({"1"})
+    private int categoryId;
+
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void connect() throws SQLException {
+        String url = System.getProperty("bench.url",
+                "jdbc:mysql://localhost:3306/water_law_exam?useUnicode=true&characterEncoding=utf-8&useSSL=false&serverTimezone=Asia/Shanghai&allowPublicKeyRetrieval=true");
+        connection = DriverManager.getConnection(url,
+                System.getProperty("bench.user", "root"), System.getProperty("bench.password", "123456"));
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * 原实现：每行一条题目插入 + 一条选项插入
+     */
+    @Benchmark
+    public int perRow() throws SQLException {
+        try (PreparedStatement item = connection.prepareStatement(INSERT_ITEM + "(?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement option = connection.prepareStatement(INSERT_OPTION + values(4, 4))) {
+            for (int i = 0; i < rows; i++) {
+                bindItem(item, 1, i);
+                item.executeUpdate();
+                long itemId;
+                try (ResultSet keys = item.getGeneratedKeys()) {
+                    keys.next();
+                    itemId = keys.getLong(1);
+                }
+                int p = 1;
+                for (int no = 1; no <= 4; no++) {
+                    p = bindOption(option, p, itemId, no);
+                }
+                option.executeUpdate();
+            }
+            return rows;
+        } finally {
+            connection.rollback();
+        }
+    }
+
+    /**
+     * 按块写入：每块一条多行题目插入（回填自增ID）+ 一条多行选项插入
+     */
+    @Benchmark
+    public int chunked() throws SQLException {
+        try {
+            for (int from = 0; from < rows; from += chunk) {
+                int n = Math.min(chunk, rows - from);
+                List<Long> ids = new ArrayList<>(n);
+                try (PreparedStatement item = connection.prepareStatement(INSERT_ITEM + values(n, 5),
+                        Statement.RETURN_GENERATED_KEYS)) {
+                    int p = 1;
+                    for (int i = 0; i < n; i++) {
+                        p = bindItem(item, p, from + i);
+                    }
+                    item.executeUpdate();
+                    try (ResultSet keys = item.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            ids.add(keys.getLong(1));
+                        }
+                    }
+                }
+                try (PreparedStatement option = connection.prepareStatement(INSERT_OPTION + values(n * 4, 4))) {
+                    int p = 1;
+                    for (Long id : ids) {
+                        for (int no = 1; no <= 4; no++) {
+                            p = bindOption(option, p, id, no);
+                        }
+                    }
+                    option.executeUpdate();
+                }
+            }
+            return rows;
+        } finally {
+            connection.rollback();
+        }
+    }
+
+    private int bindItem(PreparedStatement ps, int p, int i) throws SQLException {
+        ps.setInt(p++, i % 2 + 1);
+        ps.setInt(p++, categoryId);
+        ps.setString(p++, "基准测试题目内容" + i);
+        ps.setString(p++, "");
+        ps.setBoolean(p++, false);
+        return p;
+    }
+
+    private static int bindOption(PreparedStatement ps, int p, long itemId, int no) throws SQLException {
+        ps.setLong(p++, itemId);
+        ps.setInt(p++, no);
+        ps.setString(p++, "选项" + no);
+        ps.setBoolean(p++, no == 1);
+        return p;
+    }
+
+    private static String values(int rows, int columns) {
+        String row = "(" + "?, ".repeat(columns - 1) + "?)";
+        StringBuilder sb = new StringBuilder(rows * (row.length() + 2));
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(row);
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ItemImportBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,123 @@
+package org.can.water_law_exam_backend.cache;
+
+import org.can.water_law_exam_backend.mapper.ItemBankMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ItemIdPoolTest {
+
+    private static long[] pool(int n) {
+        return LongStream.range(0, n).map(i -> 1000 + i * 7).toArray();
+    }
+
+    @Test
+    void sampleDrawsDistinctMembersWithoutTouchingThePool() {
+        long[] pool = pool(50);
+        long[] copy = pool.clone();
+        Set<Long> members = new HashSet<>();
+        for (long id : pool) {
+            members.add(id);
+        }
+        Random random = new Random(1);
+        for (int trial = 0; trial < 200; trial++) {
+            long[] picked = ItemIdPool.sample(pool, 20, random);
+            assertEquals(20, picked.length);
+            Set<Long> seen = new HashSet<>();
+            for (long id : picked) {
+                assertTrue(members.contains(id), "抽到了池外的题目 " + id);
+                assertTrue(seen.add(id), "重复抽到题目 " + id);
+            }
+        }
+        assertArrayEquals(copy, pool);
+    }
+
+    @Test
+    void sampleOfWholePoolIsAPermutation() {
+        long[] pool = pool(30);
+        long[] picked = ItemIdPool.sample(pool, pool.length, new Random(2));
+        long[] sorted = picked.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(pool, sorted);
+        assertEquals(0, ItemIdPool.sample(pool, 0, new Random(3)).length);
+        assertArrayEquals(new long[]{42}, ItemIdPool.sample(new long[]{42}, 1, new Random(4)));
+    }
+
+    @Test
+    void sampleIsDeterministicForASeed() {
+        long[] pool = pool(100);
+        assertArrayEquals(ItemIdPool.sample(pool, 10, new Random(7)), ItemIdPool.sample(pool, 10, new Random(7)));
+    }
+
+    @Test
+    void sampleIsUniformAcrossPositions() {
+        int n = 20;
+        int need = 5;
+        int trials = 40_000;
+        long[] pool = pool(n);
+        int[] firstSlot = new int[n];
+        int[] anySlot = new int[n];
+        Random random = new Random(11);
+        for (int t = 0; t < trials; t++) {
+            long[] picked = ItemIdPool.sample(pool, need, random);
+            firstSlot[indexOf(pool, picked[0])]++;
+            for (long id : picked) {
+                anySlot[indexOf(pool, id)]++;
+            }
+        }
+        // 每个元素出现在首位的期望为 trials/n，被抽中的期望为 trials*need/n；允许 10% 偏差
+        double expectFirst = (double) trials / n;
+        double expectAny = (double) trials * need / n;
+        for (int i = 0; i < n; i++) {
+            assertEquals(expectFirst, firstSlot[i], expectFirst * 0.1, "首位分布偏差过大：" + i);
+            assertEquals(expectAny, anySlot[i], expectAny * 0.1, "抽中分布偏差过大：" + i);
+        }
+    }
+
+    @Test
+    void idsAreCachedUntilInvalidated() {
+        ItemBankMapper mapper = mock(ItemBankMapper.class);
+        when(mapper.selectIdsByType(1)).thenReturn(List.of(5L, 6L, 7L));
+        ItemIdPool idPool = new ItemIdPool(mapper);
+
+        assertArrayEquals(new long[]{5, 6, 7}, idPool.ids(1));
+        assertSame(idPool.ids(1), idPool.ids(1));
+        verify(mapper, times(1)).selectIdsByType(1);
+
+        idPool.invalidate(1);
+        idPool.ids(1);
+        verify(mapper, times(2)).selectIdsByType(1);
+    }
+
+    @Test
+    void loadRacingAnInvalidationIsNotCached() {
+        ItemBankMapper mapper = mock(ItemBankMapper.class);
+        ItemIdPool idPool = new ItemIdPool(mapper);
+        when(mapper.selectIdsByType(2)).thenAnswer(inv -> {
+            // 加载期间题库发生变更
+            idPool.invalidateAll();
+            return List.of(1L);
+        });
+
+        assertArrayEquals(new long[]{1}, idPool.ids(2));
+        idPool.ids(2);
+        verify(mapper, times(2)).selectIdsByType(2);
+    }
+
+    private static int indexOf(long[] pool, long id) {
+        for (int i = 0; i < pool.length; i++) {
+            if (pool[i] == id) {
+                return i;
+            }
+        }
+        throw new AssertionError("not in pool: " + id);
+    }
+}
@@ -0,0 +1,193 @@
+package org.can.water_law_exam_backend.cache;
+
+import org.can.water_law_exam_backend.config.AsyncConfig;
+import org.can.water_law_exam_backend.entity.ItemBank;
+import org.can.water_law_exam_backend.entity.ItemOption;
+import org.can.water_law_exam_backend.mapper.ItemBankMapper;
+import org.can.water_law_exam_backend.mapper.ItemOptionMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ItemSearchIndexTest {
+
+    private static final String BASE = "根据水法规定，国家对水资源依法实行取水许可制度和有偿使用制度，由县级以上水行政主管部门负责实施";
+
+    private static ItemBank item(long id, int typeId, String content) {
+        ItemBank item = new ItemBank();
+        item.setId(id);
+        item.setTypeId(typeId);
+        item.setCategoryId(1);
+        item.setContent(content);
+        item.setCreateTime(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(id));
+        return item;
+    }
+
+    private static ItemOption option(long itemId, String title) {
+        ItemOption option = new ItemOption();
+        option.setItemId(itemId);
+        option.setOptionTitle(title);
+        return option;
+    }
+
+    /**
+     * 在当前线程同步执行构建任务的索引
+     */
+    private static ItemSearchIndex index(List<ItemBank> items, List<ItemOption> options) {
+        ItemBankMapper itemBankMapper = mock(ItemBankMapper.class);
+        ItemOptionMapper itemOptionMapper = mock(ItemOptionMapper.class);
+        when(itemBankMapper.selectAllForIndex()).thenReturn(items);
+        when(itemOptionMapper.selectAllTitles()).thenReturn(options);
+        ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(inv -> {
+            ((Runnable) inv.getArgument(0)).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+        ItemSearchIndex index = new ItemSearchIndex(itemBankMapper, itemOptionMapper, executor);
+        index.preload();
+        return index;
+    }
+
+    private static ItemSearchIndex.Fingerprint fingerprint(String content) {
+        return ItemSearchIndex.fingerprint(item(0, 1, content), List.of());
+    }
+
+    @Test
+    void tokenizeEmitsCharactersAndBigramsWithinRuns() {
+        int[] tokens = ItemSearchIndex.tokenize("Ab,水法");
+        int[] expected = {'a', 'b', 'a' << 16 | 'b', '水', '法', '水' << 16 | '法'};
+        Arrays.sort(expected);
+        assertArrayEquals(expected, tokens);
+    }
+
+    @Test
+    void tokenizeSortsAndDeduplicates() {
+        int[] tokens = ItemSearchIndex.tokenize("水水水 水");
+        assertArrayEquals(new int[]{'水', '水' << 16 | '水'}, tokens);
+        assertEquals(0, ItemSearchIndex.tokenize(null).length);
+        assertEquals(0, ItemSearchIndex.tokenize("，。 !?").length);
+    }
+
+    @Test
+    void searchRanksContentMatchesBeforeOptionMatches() {
+        ItemSearchIndex index = index(
+                List.of(item(1, 1, "关于取水许可的说法"), item(2, 1, "下列说法正确的是"), item(3, 1, "水许可与取水")),
+                List.of(option(2, "取水许可由水行政主管部门审批")));
+
+        assertEquals(List.of(1L, 2L, 3L), index.search("取水许可", null, null));
+        assertEquals(List.of(), index.search("河长制", null, null));
+        assertNull(index.search(" ，", null, null));
+    }
+
+    @Test
+    void searchFiltersByTypeAndCategory() {
+        ItemSearchIndex index = index(List.of(item(1, 1, "取水许可"), item(2, 2, "取水许可")), List.of());
+
+        assertEquals(List.of(2L), index.search("取水", null, 2));
+        assertEquals(List.of(), index.search("取水", 9, null));
+    }
+
+    @Test
+    void findDuplicateMatchesNearCopyOfSameType() {
+        ItemSearchIndex index = index(List.of(item(1, 1, BASE), item(2, 2, BASE)), List.of());
+        ItemSearchIndex.Fingerprint copy = fingerprint(BASE.replace("负责实施", "负责执行"));
+
+        assertEquals(1L, index.findDuplicate(1, copy, null));
+        assertEquals(2L, index.findDuplicate(2, copy, null));
+        assertNull(index.findDuplicate(1, copy, 1L));
+        assertNull(index.findDuplicate(3, copy, null));
+    }
+
+    @Test
+    void findDuplicateIgnoresDifferentQuestion() {
+        ItemSearchIndex index = index(List.of(item(1, 1, BASE)), List.of());
+
+        assertNull(index.findDuplicate(1, fingerprint("河长制的主要任务包括水资源保护、水域岸线管理、水污染防治和水环境治理"), null));
+    }
+
+    @Test
+    void findDuplicateReturnsEarliestMatch() {
+        ItemSearchIndex index = index(List.of(item(5, 1, BASE), item(3, 1, BASE), item(9, 1, BASE)), List.of());
+
+        assertEquals(3L, index.findDuplicate(1, fingerprint(BASE), null));
+    }
+
+    @Test
+    void duplicateClustersGroupNearCopiesOfSameType() {
+        ItemSearchIndex index = index(List.of(
+                item(1, 1, BASE),
+                item(2, 1, "河长制的主要任务包括水资源保护、水域岸线管理、水污染防治和水环境治理"),
+                item(3, 1, BASE.replace("负责实施", "负责执行")),
+                item(4, 2, BASE),
+                item(5, 1, BASE.replace("根据", "依照"))), List.of());
+
+        assertEquals(List.of(List.of(1L, 3L, 5L)), index.duplicateClusters());
+    }
+
+    @Test
+    void staysConsistentAfterManyUpdatesAndRemovals() {
+        List<ItemBank> items = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            items.add(item(id, 1, "题目" + id));
+        }
+        ItemSearchIndex index = index(items, List.of());
+
+        // 反复修改同一题并删除大部分题目，空置序号远多于存活题目，触发重排
+        for (int i = 0; i < 5000; i++) {
+            index.put(item(1, 1, i % 2 == 0 ? "取水许可" : BASE), List.of());
+        }
+        List<Long> removed = new ArrayList<>();
+        for (long id = 3; id <= 100; id++) {
+            removed.add(id);
+        }
+        index.remove(removed);
+        index.put(item(2, 1, "取水许可与水资源费"), List.of());
+
+        // 最后一次修改为 BASE；同档按创建时间倒序
+        assertEquals(List.of(2L, 1L), index.search("取水许可", null, null));
+        assertEquals(List.of(), index.search("题目", null, null));
+        assertEquals(1L, index.findDuplicate(1, fingerprint(BASE), null));
+        assertEquals(2, index.stats().getSize());
+    }
+
+    @Test
+    void discardedRebuildIsResubmittedOnNextSearch() {
+        ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+        ItemSearchIndex index = new ItemSearchIndex(mock(ItemBankMapper.class), mock(ItemOptionMapper.class), executor);
+
+        index.preload();
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).execute(task.capture());
+        // 任务尚在排队时不重复提交
+        assertNull(index.search("取水", null, null));
+        verify(executor, times(1)).execute(any(Runnable.class));
+
+        assertInstanceOf(AsyncConfig.DiscardableTask.class, task.getValue());
+        ((AsyncConfig.DiscardableTask) task.getValue()).onDiscard();
+        assertNull(index.search("取水", null, null));
+        verify(executor, times(2)).execute(any(Runnable.class));
+    }
+
+    @Test
+    void findDuplicateBeforeIndexReadySubmitsRebuild() {
+        ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+        ItemSearchIndex index = new ItemSearchIndex(mock(ItemBankMapper.class), mock(ItemOptionMapper.class), executor);
+
+        assertFalse(index.isReady());
+        assertNull(index.findDuplicate(1, fingerprint(BASE), null));
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).execute(task.capture());
+
+        task.getValue().run();
+        assertTrue(index.isReady());
+    }
+}
@@ -0,0 +1,93 @@
+package org.can.water_law_exam_backend.cache;
+
+import org.can.water_law_exam_backend.entity.ItemOption;
+import org.can.water_law_exam_backend.entity.Papers;
+import org.can.water_law_exam_backend.entity.PapersContent;
+import org.can.water_law_exam_backend.exception.BusinessException;
+import org.can.water_law_exam_backend.mapper.ItemOptionMapper;
+import org.can.water_law_exam_backend.mapper.PapersContentMapper;
+import org.can.water_law_exam_backend.mapper.PapersMapper;
+import org.can.water_law_exam_backend.service.PaperAnswerKey;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class PaperAnswerKeyCacheTest {
+
+    private final PapersMapper papersMapper = mock(PapersMapper.class);
+    private final PapersContentMapper papersContentMapper = mock(PapersContentMapper.class);
+    private final ItemOptionMapper itemOptionMapper = mock(ItemOptionMapper.class);
+    private final PaperAnswerKeyCache cache = new PaperAnswerKeyCache(papersMapper, papersContentMapper, itemOptionMapper);
+
+    PaperAnswerKeyCacheTest() {
+        when(papersMapper.selectByGroupId(7L)).thenReturn(List.of(papers(11L, 2), papers(12L, 1)));
+        when(papersContentMapper.selectByPapersIdAndNo(11L, 2)).thenReturn(List.of(content(101L)));
+        when(papersContentMapper.selectByPapersIdAndNo(12L, 1)).thenReturn(List.of(content(102L), content(101L)));
+        when(itemOptionMapper.selectByItemIds(anyCollection())).thenReturn(List.of(option(101L, 1), option(102L, 3)));
+    }
+
+    private static Papers papers(Long id, Integer no) {
+        Papers p = new Papers();
+        p.setId(id);
+        p.setGroupId(7L);
+        p.setPapersNo(no);
+        return p;
+    }
+
+    private static PapersContent content(Long itemId) {
+        PapersContent pc = new PapersContent();
+        pc.setItemId(itemId);
+        pc.setTypeId(1);
+        pc.setScore(BigDecimal.valueOf(2));
+        return pc;
+    }
+
+    private static ItemOption option(Long itemId, Integer no) {
+        ItemOption o = new ItemOption();
+        o.setItemId(itemId);
+        o.setOptionNo(no);
+        o.setIsCorrect(true);
+        return o;
+    }
+
+    @Test
+    void compilesWholeGroupOnceWithOneOptionQuery() {
+        PaperAnswerKey first = cache.get(7L, 1);
+        PaperAnswerKey unassigned = cache.get(7L, null);
+
+        assertEquals(2, first.size());
+        assertEquals(PaperAnswerKey.bit(3), first.correctMask(0));
+        // 未分配试卷序号时使用组内第一套试卷
+        assertEquals(2, unassigned.getPapersNo());
+        assertSame(cache.group(7L).get(2), unassigned);
+        verify(papersMapper, times(1)).selectByGroupId(7L);
+        verify(itemOptionMapper, times(1)).selectByItemIds(anyCollection());
+        assertThrows(BusinessException.class, () -> cache.get(7L, 9));
+    }
+
+    @Test
+    void reloadsAfterInvalidation() {
+        PaperAnswerKey before = cache.get(7L, 1);
+        cache.invalidateGroups(List.of(7L));
+        assertNotSame(before, cache.get(7L, 1));
+        cache.invalidateAll();
+        cache.get(7L, 1);
+
+        verify(papersMapper, times(3)).selectByGroupId(7L);
+        assertEquals(3, cache.stats().getMisses());
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        when(papersMapper.selectByGroupId(8L)).thenReturn(List.of());
+
+        assertThrows(BusinessException.class, () -> cache.group(8L));
+        assertThrows(BusinessException.class, () -> cache.group(8L));
+        verify(papersMapper, times(2)).selectByGroupId(8L);
+    }
+}
@@ -0,0 +1,110 @@
+package org.can.water_law_exam_backend.service;
+
+import org.can.water_law_exam_backend.config.ExamProperties;
+import org.can.water_law_exam_backend.entity.ExamAnswer;
+import org.can.water_law_exam_backend.exception.BusinessException;
+import org.can.water_law_exam_backend.mapper.ExamAnswerMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ExamAnswerBufferTest {
+
+    private final ExamAnswerMapper mapper = mock(ExamAnswerMapper.class);
+    private final ExamAnswerBuffer buffer;
+
+    ExamAnswerBufferTest() {
+        ExamProperties properties = new ExamProperties();
+        properties.getAnswerBuffer().setFlushSize(2);
+        buffer = new ExamAnswerBuffer(mapper, properties);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static ExamAnswer answer(long itemId) {
+        ExamAnswer a = new ExamAnswer();
+        a.setBatchId(1L);
+        a.setUserId(2L);
+        a.setItemId(itemId);
+        a.setAnswerMask(1 << 1);
+        a.setUpdateTime(LocalDateTime.now());
+        return a;
+    }
+
+    private static void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization s : synchronizations) {
+            s.afterCompletion(status);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Long> writtenItemIds() {
+        ArgumentCaptor<List<ExamAnswer>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mapper, atLeastOnce()).upsertBatch(captor.capture());
+        Set<Long> ids = new TreeSet<>();
+        for (List<ExamAnswer> chunk : captor.getAllValues()) {
+            for (ExamAnswer a : chunk) {
+                ids.add(a.getItemId());
+            }
+        }
+        return ids;
+    }
+
+    @Test
+    void closedExamineeRejectsOffers() {
+        buffer.close(1L, 2L);
+        assertThrows(BusinessException.class, () -> buffer.offer(answer(1)));
+        buffer.reopen(1L, 2L);
+        buffer.offer(answer(1));
+        assertEquals(1, buffer.stats().getDepth());
+    }
+
+    @Test
+    void submitRollbackRequeuesAnswersAlreadyWrittenInTheTransaction() {
+        for (long item = 1; item <= 5; item++) {
+            buffer.offer(answer(item));
+        }
+        // 第一段写入成功，第二段失败，整个交卷事务回滚
+        when(mapper.upsertBatchOnSubmit(anyList())).thenReturn(2).thenThrow(new RuntimeException("db down"));
+        TransactionSynchronizationManager.initSynchronization();
+        buffer.close(1L, 2L);
+        assertThrows(RuntimeException.class, () -> buffer.flushOnSubmit(1L, 2L, List.of()));
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(5, buffer.stats().getDepth());
+        buffer.flushAll();
+        assertEquals(Set.of(1L, 2L, 3L, 4L, 5L), writtenItemIds());
+        assertEquals(0, buffer.stats().getDepth());
+    }
+
+    @Test
+    void submitCommitDoesNotRequeue() {
+        buffer.offer(answer(1));
+        TransactionSynchronizationManager.initSynchronization();
+        buffer.flushOnSubmit(1L, 2L, new ArrayList<>(List.of(answer(2))));
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(0, buffer.stats().getDepth());
+        buffer.flushAll();
+        verify(mapper, never()).upsertBatch(anyList());
+    }
+}
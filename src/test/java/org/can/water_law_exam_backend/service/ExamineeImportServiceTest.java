@@ -0,0 +1,81 @@
+package org.can.water_law_exam_backend.service;
+
+import org.can.water_law_exam_backend.cache.ExamRosterCache;
+import org.can.water_law_exam_backend.cache.ExamSessionCache;
+import org.can.water_law_exam_backend.cache.ReferenceDataCache;
+import org.can.water_law_exam_backend.cache.UserBatchListCache;
+import org.can.water_law_exam_backend.entity.AccountUser;
+import org.can.water_law_exam_backend.entity.Examinee;
+import org.can.water_law_exam_backend.entity.Organization;
+import org.can.water_law_exam_backend.mapper.AccountUserMapper;
+import org.can.water_law_exam_backend.mapper.ExamineeMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ExamineeImportServiceTest {
+
+    private final AccountUserMapper accountUserMapper = mock(AccountUserMapper.class);
+    private final ExamineeMapper examineeMapper = mock(ExamineeMapper.class);
+    private final ExamineeImportService service;
+
+    ExamineeImportServiceTest() {
+        ReferenceDataCache referenceDataCache = mock(ReferenceDataCache.class);
+        Organization org = new Organization();
+        org.setId(1L);
+        when(referenceDataCache.organizationLike(anyString())).thenReturn(org);
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(any())).thenReturn("hash");
+        ThreadPoolTaskExecutor inline = new ThreadPoolTaskExecutor() {
+            @Override
+            public void execute(Runnable task) {
+                task.run();
+            }
+        };
+        service = new ExamineeImportService(accountUserMapper, examineeMapper, referenceDataCache, passwordEncoder,
+                mock(ExamRosterCache.class), mock(ExamSessionCache.class), mock(UserBatchListCache.class), inline,
+                mock(PlatformTransactionManager.class));
+    }
+
+    private static String row(int i) {
+        return "考生" + i + "," + String.format("110101199001%06d", i) + ",13800000000,水利局,\n";
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void skipsDuplicateIdNoInLaterWindow() throws IOException {
+        StringBuilder csv = new StringBuilder("姓名,身份证号,手机号,单位名称,城市ID\n");
+        for (int i = 1; i <= 6000; i++) {
+            csv.append(row(i));
+        }
+        // 与第2行（第一个窗口）重复，出现在第二个窗口
+        csv.append(row(1));
+
+        int imported = service.importCsv(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), 9L);
+
+        assertEquals(6000, imported);
+        ArgumentCaptor<List<Examinee>> examinees = ArgumentCaptor.forClass(List.class);
+        verify(examineeMapper, atLeastOnce()).insertBatch(examinees.capture());
+        ArgumentCaptor<List<AccountUser>> users = ArgumentCaptor.forClass(List.class);
+        verify(accountUserMapper, atLeastOnce()).insertBatch(users.capture());
+        List<String> idNos = new ArrayList<>();
+        for (List<AccountUser> chunk : users.getAllValues()) {
+            chunk.forEach(u -> idNos.add(u.getIdNo()));
+        }
+        assertEquals(6000, examinees.getAllValues().stream().mapToInt(List::size).sum());
+        assertEquals(6000, idNos.stream().distinct().count());
+        assertEquals(6000, idNos.size());
+    }
+}
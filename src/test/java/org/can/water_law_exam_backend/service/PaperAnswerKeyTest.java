@@ -0,0 +1,116 @@
+package org.can.water_law_exam_backend.service;
+
+import org.can.water_law_exam_backend.entity.ExamAnswer;
+import org.can.water_law_exam_backend.entity.ItemOption;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaperAnswerKeyTest {
+
+    private static final int INVALID = 1 << 31;
+
+    private static int bits(int... optionNos) {
+        int mask = 0;
+        for (int no : optionNos) {
+            mask |= 1 << no;
+        }
+        return mask;
+    }
+
+    @Test
+    void parseMaskReadsBracketedAndBareLists() {
+        assertEquals(bits(1, 4), PaperAnswerKey.parseMask("[1, 4]"));
+        assertEquals(bits(1, 4), PaperAnswerKey.parseMask("[4,1]"));
+        assertEquals(bits(2), PaperAnswerKey.parseMask("2"));
+        assertEquals(bits(2), PaperAnswerKey.parseMask(" 2 "));
+        assertEquals(bits(2), PaperAnswerKey.parseMask("+2"));
+        assertEquals(bits(1, 2, 3), PaperAnswerKey.parseMask("[1]\t,[2]\r\n, 3"));
+        assertEquals(bits(3), PaperAnswerKey.parseMask("[3, 3]"));
+    }
+
+    @Test
+    void parseMaskTreatsEmptyInputAsUnanswered() {
+        assertEquals(0, PaperAnswerKey.parseMask((CharSequence) null));
+        assertEquals(0, PaperAnswerKey.parseMask(""));
+        assertEquals(0, PaperAnswerKey.parseMask("[]"));
+        assertEquals(0, PaperAnswerKey.parseMask(" , ,"));
+        assertEquals(0, PaperAnswerKey.parseMask("-"));
+    }
+
+    @Test
+    void parseMaskIgnoresMalformedTokensLikeTheLegacyParser() {
+        // 原实现 Integer.parseInt 失败的片段被忽略
+        assertEquals(bits(3), PaperAnswerKey.parseMask("a,3"));
+        assertEquals(bits(3), PaperAnswerKey.parseMask("1 2, 3"));
+        assertEquals(bits(3), PaperAnswerKey.parseMask("1x, 3"));
+        assertEquals(bits(3), PaperAnswerKey.parseMask("--1, 3"));
+        assertEquals(bits(1), PaperAnswerKey.parseMask("1, 99999999999"));
+    }
+
+    @Test
+    void parseMaskMarksOutOfRangeOptionsInvalid() {
+        assertEquals(bits(1) | INVALID, PaperAnswerKey.parseMask("1, 31"));
+        assertEquals(INVALID, PaperAnswerKey.parseMask("-1"));
+        assertEquals(bits(PaperAnswerKey.MAX_OPTION_NO), PaperAnswerKey.parseMask("30"));
+        assertFalse(PaperAnswerKey.matches(bits(1), PaperAnswerKey.parseMask("1, 99")));
+    }
+
+    @Test
+    void normalizeMapsJudgeZeroToOptionTwo() {
+        int judge = PaperAnswerKey.JUDGE_TYPE_ID;
+        // 判断题：0=错误 -> 选项2，1=正确 -> 选项1，直接传 2 保持不变
+        assertEquals(bits(2), PaperAnswerKey.parseMask("[0]", judge));
+        assertEquals(bits(1), PaperAnswerKey.parseMask("[1]", judge));
+        assertEquals(bits(2), PaperAnswerKey.parseMask("[2]", judge));
+        assertEquals(bits(1, 2), PaperAnswerKey.normalize(bits(0, 1), judge));
+        // 其他题型不映射
+        assertEquals(bits(0), PaperAnswerKey.normalize(bits(0), 1));
+        assertEquals(bits(0), PaperAnswerKey.normalize(bits(0), null));
+    }
+
+    @Test
+    void answerMaskPrefersStoredMaskAndFallsBackToContent() {
+        ExamAnswer stored = new ExamAnswer();
+        stored.setAnswerMask(bits(0));
+        stored.setAnswerContent("[1]");
+        assertEquals(bits(2), PaperAnswerKey.answerMask(stored, PaperAnswerKey.JUDGE_TYPE_ID));
+
+        ExamAnswer legacy = new ExamAnswer();
+        legacy.setAnswerContent("[1, 3]");
+        assertEquals(bits(1, 3), PaperAnswerKey.answerMask(legacy, 2));
+        assertEquals(0, PaperAnswerKey.answerMask(null, 2));
+    }
+
+    @Test
+    void encodeRoundTripsThroughOptionNos() {
+        int mask = PaperAnswerKey.encode(Arrays.asList(3, null, 1, 3));
+        assertEquals(bits(1, 3), mask);
+        assertEquals(List.of(1, 3), PaperAnswerKey.toOptionNos(mask));
+        assertEquals(0, PaperAnswerKey.encode(null));
+        assertEquals(List.of(), PaperAnswerKey.toOptionNos(INVALID | bits(0)));
+    }
+
+    @Test
+    void matchesRequiresConfiguredAndExactAnswer() {
+        ItemOption a = option(1, true);
+        ItemOption b = option(2, false);
+        ItemOption c = option(3, true);
+        int correct = PaperAnswerKey.correctMask(List.of(a, b, c));
+        assertEquals(bits(1, 3), correct);
+        assertTrue(PaperAnswerKey.matches(correct, bits(1, 3)));
+        assertFalse(PaperAnswerKey.matches(correct, bits(1)));
+        assertFalse(PaperAnswerKey.matches(correct, bits(1, 2, 3)));
+        assertFalse(PaperAnswerKey.matches(0, 0));
+    }
+
+    private static ItemOption option(int no, boolean correct) {
+        ItemOption o = new ItemOption();
+        o.setOptionNo(no);
+        o.setIsCorrect(correct);
+        return o;
+    }
+}
@@ -0,0 +1,90 @@
+package org.can.water_law_exam_backend.service;
+
+import org.can.water_law_exam_backend.entity.ExamAnswer;
+import org.can.water_law_exam_backend.entity.ExamScore;
+import org.can.water_law_exam_backend.entity.Examinee;
+import org.can.water_law_exam_backend.entity.ItemOption;
+import org.can.water_law_exam_backend.entity.PapersContent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 6, 1, 9, 0);
+
+    private static PapersContent content(long itemId, int typeId, int score) {
+        PapersContent pc = new PapersContent();
+        pc.setItemId(itemId);
+        pc.setTypeId(typeId);
+        pc.setScore(BigDecimal.valueOf(score));
+        return pc;
+    }
+
+    private static ItemOption correct(long itemId, int optionNo) {
+        ItemOption o = new ItemOption();
+        o.setItemId(itemId);
+        o.setOptionNo(optionNo);
+        o.setIsCorrect(true);
+        return o;
+    }
+
+    private static ExamAnswer answer(long id, long itemId, int mask) {
+        ExamAnswer a = new ExamAnswer();
+        a.setId(id);
+        a.setItemId(itemId);
+        a.setAnswerMask(mask);
+        return a;
+    }
+
+    private static Examinee examinee() {
+        Examinee ex = new Examinee();
+        ex.setBatchId(1L);
+        ex.setUserId(2L);
+        ex.setExamStartTime(START);
+        return ex;
+    }
+
+    private static final PaperAnswerKey KEY = PaperAnswerKey.of(1,
+            List.of(content(10, 1, 40), content(11, 2, 30), content(12, PaperAnswerKey.JUDGE_TYPE_ID, 30)),
+            Map.of(10L, List.of(correct(10, 2)),
+                    11L, List.of(correct(11, 1), correct(11, 3)),
+                    12L, List.of(correct(12, 2))));
+
+    @Test
+    void judgesAnsweredItemsAndPassesAtThreshold() {
+        List<ExamAnswer> answers = List.of(
+                answer(100, 10, PaperAnswerKey.bit(2)),
+                answer(101, 11, PaperAnswerKey.bit(1)),
+                // 判断题 0（错误）映射为选项2
+                answer(102, 12, PaperAnswerKey.bit(0)),
+                answer(103, 99, PaperAnswerKey.bit(1)));
+
+        ScoreService.Graded graded = ScoreService.grade(KEY, examinee(), answers, START.plusSeconds(125 * 60 + 59));
+        ExamScore score = graded.score();
+
+        assertEquals(70.0, score.getTotalScore());
+        assertTrue(score.getIsPass());
+        assertEquals(ScoreService.PASS_SCORE, score.getPassScore());
+        assertEquals(125, score.getExamDuration());
+        assertEquals(List.of(100L, 101L, 102L), graded.judged().stream().map(ExamAnswer::getId).toList());
+        assertEquals(List.of(true, false, true), graded.judged().stream().map(ExamAnswer::getIsCorrect).toList());
+        assertEquals(0.0, graded.judged().get(1).getScore());
+    }
+
+    @Test
+    void gradesMissingAnswersAsZeroAndClampsNegativeDuration() {
+        ScoreService.Graded graded = ScoreService.grade(KEY, examinee(), List.of(), START.minusMinutes(3));
+
+        assertEquals(0.0, graded.score().getTotalScore());
+        assertFalse(graded.score().getIsPass());
+        assertEquals(0, graded.score().getExamDuration());
+        assertTrue(graded.judged().isEmpty());
+        assertNull(ScoreService.grade(KEY, examinee(), List.of(), null).score().getExamDuration());
+    }
+}
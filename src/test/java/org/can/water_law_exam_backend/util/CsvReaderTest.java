@@ -0,0 +1,172 @@
+package org.can.water_law_exam_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String SAMPLE = "\uFEFF题干,选项A,答案\r\n"
+            + "\"含,逗号\",\"含\r\n换行\",\"含\"\"引号\"\"\"\r\n"
+            + "\r\n"
+            + "\n"
+            + "a,,c\n"
+            + ",\n"
+            + "\"x\"\r\n"
+            + "末行,无换行";
+
+    private static final List<List<String>> SAMPLE_ROWS = List.of(
+            List.of("题干", "选项A", "答案"),
+            List.of("含,逗号", "含\r\n换行", "含\"引号\""),
+            List.of("a", "", "c"),
+            List.of("", ""),
+            List.of("x"),
+            List.of("末行", "无换行"));
+
+    private static List<List<String>> readAll(InputStream in) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(in)) {
+            while (reader.next()) {
+                List<String> row = new ArrayList<>(reader.fieldCount());
+                for (int i = 0; i < reader.fieldCount(); i++) {
+                    row.add(reader.field(i));
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        return readAll(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * 每次只返回一个字节，使解码后的每个字符都落在缓冲区边界上
+     */
+    private static InputStream trickle(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+
+            @Override
+            public synchronized int available() {
+                return 0;
+            }
+        };
+    }
+
+    @Test
+    void readsQuotedFieldsEscapesBomAndSkipsEmptyLines() throws IOException {
+        assertEquals(SAMPLE_ROWS, readAll(SAMPLE));
+    }
+
+    @Test
+    void readsSameRecordsWhenEveryCharacterIsSplitAcrossBuffers() throws IOException {
+        assertEquals(SAMPLE_ROWS, readAll(trickle(SAMPLE)));
+    }
+
+    @Test
+    void readsUnquotedFieldSpanningBufferBoundary() throws IOException {
+        String head = "a".repeat(BUFFER_SIZE - 10);
+        String spanning = "b".repeat(30);
+        List<List<String>> rows = readAll(head + "," + spanning + ",c\nd,e\n");
+
+        assertEquals(List.of(List.of(head, spanning, "c"), List.of("d", "e")), rows);
+    }
+
+    @Test
+    void readsQuotedFieldSpanningBufferBoundary() throws IOException {
+        String head = "a".repeat(BUFFER_SIZE - 5);
+        String quoted = "x,\"\"y\n".repeat(10);
+        List<List<String>> rows = readAll(head + ",\"" + quoted + "\",z\n");
+
+        assertEquals(List.of(List.of(head, quoted.replace("\"\"", "\""), "z")), rows);
+    }
+
+    @Test
+    void dropsCarriageReturnWhenCrlfIsSplitAcrossBuffers() throws IOException {
+        // 第一条记录的 CR 恰好是第一个缓冲区的最后一个字符
+        String head = "a".repeat(BUFFER_SIZE - 1);
+        List<List<String>> rows = readAll(head + "\r\nb\r\n");
+
+        assertEquals(List.of(List.of(head), List.of("b")), rows);
+    }
+
+    @Test
+    void dropsCarriageReturnAfterQuotedFieldSplitAcrossBuffers() throws IOException {
+        String head = "a".repeat(BUFFER_SIZE - 4);
+        List<List<String>> rows = readAll(head + ",\"q\"\r\nb\n");
+
+        assertEquals(List.of(List.of(head, "q"), List.of("b")), rows);
+    }
+
+    @Test
+    void keepsMultiByteCharactersAcrossBufferBoundary() throws IOException {
+        String head = "a".repeat(BUFFER_SIZE - 3);
+        String tail = "水法考试".repeat(5);
+        List<List<String>> rows = readAll(head + "," + tail + "\n");
+
+        assertEquals(List.of(List.of(head, tail)), rows);
+    }
+
+    @Test
+    void readsLastFieldWithoutTrailingNewline() throws IOException {
+        assertEquals(List.of(List.of("a", "b")), readAll("a,b"));
+        assertEquals(List.of(List.of("a", "b")), readAll("a,b\r"));
+        assertEquals(List.of(List.of("a", "")), readAll("a,"));
+    }
+
+    @Test
+    void treatsUnclosedQuoteAsEndOfFile() throws IOException {
+        assertEquals(List.of(List.of("a", "b\nc")), readAll("a,\"b\nc"));
+    }
+
+    @Test
+    void tracksRowNumbersIncludingSkippedLinesButNotQuotedNewlines() throws IOException {
+        List<Integer> rowNos = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(new ByteArrayInputStream(
+                "h\n\"x\ny\"\n\nz\n".getBytes(StandardCharsets.UTF_8)))) {
+            while (reader.next()) {
+                rowNos.add(reader.rowNo());
+            }
+        }
+        assertEquals(Arrays.asList(1, 2, 4), rowNos);
+    }
+
+    @Test
+    void returnsNullForFieldBeyondRecord() throws IOException {
+        try (CsvReader reader = new CsvReader(new ByteArrayInputStream("a,b\n".getBytes(StandardCharsets.UTF_8)))) {
+            assertTrue(reader.next());
+            assertEquals(2, reader.fieldCount());
+            assertNull(reader.field(2));
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void rejectsOverlongFieldFromUnclosedQuote() {
+        String csv = "a,\"" + "x".repeat(1024 * 1024 + BUFFER_SIZE);
+        IOException e = assertThrows(IOException.class, () -> readAll(csv));
+        assertTrue(e.getMessage().contains("第1行"));
+    }
+
+    @Test
+    void returnsNoRecordsForEmptyOrBomOnlyInput() throws IOException {
+        assertTrue(readAll("").isEmpty());
+        assertTrue(readAll("\uFEFF").isEmpty());
+        assertTrue(readAll("\n\r\n").isEmpty());
+    }
+}